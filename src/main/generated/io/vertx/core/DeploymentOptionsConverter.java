@@ -30,6 +30,9 @@ public class DeploymentOptionsConverter {
     if (json.getValue("config") instanceof JsonObject) {
       obj.setConfig(((JsonObject)json.getValue("config")).copy());
     }
+    if (json.getValue("eventLoopAffinity") instanceof String) {
+      obj.setEventLoopAffinity((String)json.getValue("eventLoopAffinity"));
+    }
     if (json.getValue("extraClasspath") instanceof JsonArray) {
       java.util.ArrayList<java.lang.String> list = new java.util.ArrayList<>();
       json.getJsonArray("extraClasspath").forEach( item -> {
@@ -76,6 +79,9 @@ public class DeploymentOptionsConverter {
     if (obj.getConfig() != null) {
       json.put("config", obj.getConfig());
     }
+    if (obj.getEventLoopAffinity() != null) {
+      json.put("eventLoopAffinity", obj.getEventLoopAffinity());
+    }
     if (obj.getExtraClasspath() != null) {
       json.put("extraClasspath", new JsonArray(
           obj.getExtraClasspath().
@@ -81,12 +81,24 @@ public class VertxOptionsConverter {
     if (json.getValue("quorumSize") instanceof Number) {
       obj.setQuorumSize(((Number)json.getValue("quorumSize")).intValue());
     }
+    if (json.getValue("timerWheelEnabled") instanceof Boolean) {
+      obj.setTimerWheelEnabled((Boolean)json.getValue("timerWheelEnabled"));
+    }
     if (json.getValue("warningExceptionTime") instanceof Number) {
       obj.setWarningExceptionTime(((Number)json.getValue("warningExceptionTime")).longValue());
     }
+    if (json.getValue("workerPoolElastic") instanceof Boolean) {
+      obj.setWorkerPoolElastic((Boolean)json.getValue("workerPoolElastic"));
+    }
+    if (json.getValue("workerPoolMaxSize") instanceof Number) {
+      obj.setWorkerPoolMaxSize(((Number)json.getValue("workerPoolMaxSize")).intValue());
+    }
     if (json.getValue("workerPoolSize") instanceof Number) {
       obj.setWorkerPoolSize(((Number)json.getValue("workerPoolSize")).intValue());
     }
+    if (json.getValue("workerPoolWorkStealing") instanceof Boolean) {
+      obj.setWorkerPoolWorkStealing((Boolean)json.getValue("workerPoolWorkStealing"));
+    }
   }
 
   public static void toJson(VertxOptions obj, JsonObject json) {
@@ -120,7 +132,11 @@ public class VertxOptionsConverter {
       json.put("metricsOptions", obj.getMetricsOptions().toJson());
     }
     json.put("quorumSize", obj.getQuorumSize());
+    json.put("timerWheelEnabled", obj.isTimerWheelEnabled());
     json.put("warningExceptionTime", obj.getWarningExceptionTime());
+    json.put("workerPoolElastic", obj.isWorkerPoolElastic());
+    json.put("workerPoolMaxSize", obj.getWorkerPoolMaxSize());
     json.put("workerPoolSize", obj.getWorkerPoolSize());
+    json.put("workerPoolWorkStealing", obj.isWorkerPoolWorkStealing());
   }
 }
\ No newline at end of file
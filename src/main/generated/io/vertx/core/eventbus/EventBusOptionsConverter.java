@@ -48,9 +48,15 @@ public class EventBusOptionsConverter {
     if (json.getValue("clustered") instanceof Boolean) {
       obj.setClustered((Boolean)json.getValue("clustered"));
     }
+    if (json.getValue("compressionThreshold") instanceof Number) {
+      obj.setCompressionThreshold(((Number)json.getValue("compressionThreshold")).intValue());
+    }
     if (json.getValue("connectTimeout") instanceof Number) {
       obj.setConnectTimeout(((Number)json.getValue("connectTimeout")).intValue());
     }
+    if (json.getValue("connectionsPerPeer") instanceof Number) {
+      obj.setConnectionsPerPeer(((Number)json.getValue("connectionsPerPeer")).intValue());
+    }
     if (json.getValue("crlPaths") instanceof JsonArray) {
       json.getJsonArray("crlPaths").forEach(item -> {
         if (item instanceof String)
@@ -87,9 +93,18 @@ public class EventBusOptionsConverter {
     if (json.getValue("keyStoreOptions") instanceof JsonObject) {
       obj.setKeyStoreOptions(new io.vertx.core.net.JksOptions((JsonObject)json.getValue("keyStoreOptions")));
     }
+    if (json.getValue("localDeliveryBatchSize") instanceof Number) {
+      obj.setLocalDeliveryBatchSize(((Number)json.getValue("localDeliveryBatchSize")).intValue());
+    }
     if (json.getValue("logActivity") instanceof Boolean) {
       obj.setLogActivity((Boolean)json.getValue("logActivity"));
     }
+    if (json.getValue("maxFrameSize") instanceof Number) {
+      obj.setMaxFrameSize(((Number)json.getValue("maxFrameSize")).intValue());
+    }
+    if (json.getValue("maxPendingMessages") instanceof Number) {
+      obj.setMaxPendingMessages(((Number)json.getValue("maxPendingMessages")).intValue());
+    }
     if (json.getValue("openSslEngineOptions") instanceof JsonObject) {
       obj.setOpenSslEngineOptions(new io.vertx.core.net.OpenSSLEngineOptions((JsonObject)json.getValue("openSslEngineOptions")));
     }
@@ -144,6 +159,9 @@ public class EventBusOptionsConverter {
     if (json.getValue("trustStoreOptions") instanceof JsonObject) {
       obj.setTrustStoreOptions(new io.vertx.core.net.JksOptions((JsonObject)json.getValue("trustStoreOptions")));
     }
+    if (json.getValue("unreachablePeerBackoff") instanceof Number) {
+      obj.setUnreachablePeerBackoff(((Number)json.getValue("unreachablePeerBackoff")).longValue());
+    }
     if (json.getValue("useAlpn") instanceof Boolean) {
       obj.setUseAlpn((Boolean)json.getValue("useAlpn"));
     }
@@ -164,7 +182,9 @@ public class EventBusOptionsConverter {
     }
     json.put("clusterPublicPort", obj.getClusterPublicPort());
     json.put("clustered", obj.isClustered());
+    json.put("compressionThreshold", obj.getCompressionThreshold());
     json.put("connectTimeout", obj.getConnectTimeout());
+    json.put("connectionsPerPeer", obj.getConnectionsPerPeer());
     if (obj.getCrlPaths() != null) {
       json.put("crlPaths", new JsonArray(
           obj.getCrlPaths().
@@ -197,7 +217,10 @@ public class EventBusOptionsConverter {
       json.put("host", obj.getHost());
     }
     json.put("idleTimeout", obj.getIdleTimeout());
+    json.put("localDeliveryBatchSize", obj.getLocalDeliveryBatchSize());
     json.put("logActivity", obj.getLogActivity());
+    json.put("maxFrameSize", obj.getMaxFrameSize());
+    json.put("maxPendingMessages", obj.getMaxPendingMessages());
     json.put("port", obj.getPort());
     json.put("receiveBufferSize", obj.getReceiveBufferSize());
     json.put("reconnectAttempts", obj.getReconnectAttempts());
@@ -210,6 +233,7 @@ public class EventBusOptionsConverter {
     json.put("tcpNoDelay", obj.isTcpNoDelay());
     json.put("trafficClass", obj.getTrafficClass());
     json.put("trustAll", obj.isTrustAll());
+    json.put("unreachablePeerBackoff", obj.getUnreachablePeerBackoff());
     json.put("useAlpn", obj.isUseAlpn());
     json.put("usePooledBuffers", obj.isUsePooledBuffers());
   }
@@ -70,6 +70,13 @@ public class EventBusExamples {
     });
   }
 
+  public void exampleWildcardConsumer(EventBus eventBus) {
+    MessageConsumer<String> consumer = eventBus.wildcardConsumer("news.*.sport");
+    consumer.handler(message -> {
+      System.out.println("I have received a message for " + message.address() + ": " + message.body());
+    });
+  }
+
   public void example5(EventBus eventBus) {
     eventBus.publish("news.uk.sport", "Yay! Someone kicked a ball");
   }
@@ -44,6 +44,7 @@ public class DeploymentOptions {
   private boolean multiThreaded;
   private String isolationGroup;
   private String workerPoolName;
+  private String eventLoopAffinity;
   private int workerPoolSize;
   private long maxWorkerExecuteTime;
   private boolean ha;
@@ -81,6 +82,7 @@ public class DeploymentOptions {
     this.instances = other.instances;
     this.isolatedClasses = other.getIsolatedClasses() == null ? null : new ArrayList<>(other.getIsolatedClasses());
     this.workerPoolName = other.workerPoolName;
+    this.eventLoopAffinity = other.eventLoopAffinity;
     setWorkerPoolSize(other.workerPoolSize);
     setMaxWorkerExecuteTime(other.maxWorkerExecuteTime);
   }
@@ -302,6 +304,28 @@ public class DeploymentOptions {
     return this;
   }
 
+  /**
+   * @return the event loop affinity
+   */
+  public String getEventLoopAffinity() {
+    return eventLoopAffinity;
+  }
+
+  /**
+   * Set the event loop affinity of the verticle(s): the instance {@code i} of all the deployments with the same
+   * affinity run on the same event loop, e.g to run a verticle on the event loop of the HTTP server verticle it talks
+   * to. The connections accepted by a server run on the event loops of the verticles which started the server.
+   * <p>
+   * When no affinity is set, the verticles are assigned to the event loops in a round robin fashion.
+   *
+   * @param eventLoopAffinity the event loop affinity
+   * @return a reference to this, so the API can be used fluently
+   */
+  public DeploymentOptions setEventLoopAffinity(String eventLoopAffinity) {
+    this.eventLoopAffinity = eventLoopAffinity;
+    return this;
+  }
+
   /**
    * Get the maximum number of worker threads to be used by the worker pool when the verticle is deployed
    * with a {@link #setWorkerPoolName}. When the verticle does not use a named worker pool, this option
@@ -382,6 +406,8 @@ public class DeploymentOptions {
     if (config != null ? !config.equals(that.config) : that.config != null) return false;
     if (isolationGroup != null ? !isolationGroup.equals(that.isolationGroup) : that.isolationGroup != null)
       return false;
+    if (eventLoopAffinity != null ? !eventLoopAffinity.equals(that.eventLoopAffinity) : that.eventLoopAffinity != null)
+      return false;
     if (extraClasspath != null ? !extraClasspath.equals(that.extraClasspath) : that.extraClasspath != null)
       return false;
     return !(isolatedClasses != null ? !isolatedClasses.equals(that.isolatedClasses) : that.isolatedClasses != null);
@@ -401,6 +427,7 @@ public class DeploymentOptions {
     result = 31 * result + (workerPoolName != null ? workerPoolName.hashCode() : 0);
     result = 31 * result + workerPoolSize;
     result = 31 * result + Long.hashCode(maxWorkerExecuteTime);
+    result = 31 * result + (eventLoopAffinity != null ? eventLoopAffinity.hashCode() : 0);
     return result;
   }
 }
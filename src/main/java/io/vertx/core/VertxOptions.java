@@ -21,6 +21,7 @@ import io.vertx.core.dns.AddressResolverOptions;
 import io.vertx.core.eventbus.EventBusOptions;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.metrics.MetricsOptions;
+import io.vertx.core.spi.ThreadAffinity;
 import io.vertx.core.spi.cluster.ClusterManager;
 
 import java.util.Objects;
@@ -113,6 +114,26 @@ public class VertxOptions {
    */
   public static final boolean DEFAULT_HA_ENABLED = false;
 
+  /**
+   * The default value of timer wheel enabled = false
+   */
+  public static final boolean DEFAULT_TIMER_WHEEL_ENABLED = false;
+
+  /**
+   * The default value of worker pool elastic = false
+   */
+  public static final boolean DEFAULT_WORKER_POOL_ELASTIC = false;
+
+  /**
+   * The default maximum number of threads of an elastic worker pool = 200
+   */
+  public static final int DEFAULT_WORKER_POOL_MAX_SIZE = 200;
+
+  /**
+   * The default value of worker pool work stealing = false
+   */
+  public static final boolean DEFAULT_WORKER_POOL_WORK_STEALING = false;
+
   /**
    * The default value of warning exception time 5000000000 ns (5 seconds)
    * If a thread is blocked longer than this threshold, the warning log
@@ -136,6 +157,11 @@ public class VertxOptions {
   private long warningExceptionTime = DEFAULT_WARNING_EXCEPTION_TIME;
   private EventBusOptions eventBusOptions = new EventBusOptions();
   private AddressResolverOptions addressResolverOptions = new AddressResolverOptions();
+  private boolean timerWheelEnabled = DEFAULT_TIMER_WHEEL_ENABLED;
+  private boolean workerPoolElastic = DEFAULT_WORKER_POOL_ELASTIC;
+  private int workerPoolMaxSize = DEFAULT_WORKER_POOL_MAX_SIZE;
+  private boolean workerPoolWorkStealing = DEFAULT_WORKER_POOL_WORK_STEALING;
+  private ThreadAffinity threadAffinity;
 
   /**
    * Default constructor
@@ -163,6 +189,11 @@ public class VertxOptions {
     this.warningExceptionTime = other.warningExceptionTime;
     this.eventBusOptions = new EventBusOptions(other.eventBusOptions);
     this.addressResolverOptions = other.addressResolverOptions != null ? new AddressResolverOptions() : null;
+    this.timerWheelEnabled = other.timerWheelEnabled;
+    this.workerPoolElastic = other.workerPoolElastic;
+    this.workerPoolMaxSize = other.workerPoolMaxSize;
+    this.workerPoolWorkStealing = other.workerPoolWorkStealing;
+    this.threadAffinity = other.threadAffinity;
   }
 
   /**
@@ -611,6 +642,120 @@ public class VertxOptions {
     return this;
   }
 
+  /**
+   * @return whether the timers are scheduled by a timing wheel per event loop
+   */
+  public boolean isTimerWheelEnabled() {
+    return timerWheelEnabled;
+  }
+
+  /**
+   * Set whether the timers are scheduled by a hierarchical timing wheel per event loop, instead of a scheduled task of
+   * the event loop per timer.
+   * <p>
+   * Scheduling and cancelling a timer is then constant time and a timer costs a single object, which suits
+   * applications creating many short-lived timers, e.g. request timeouts that are mostly cancelled. The timers have a
+   * resolution of 1 ms.
+   *
+   * @param timerWheelEnabled true to enable the timing wheel
+   * @return a reference to this, so the API can be used fluently
+   */
+  public VertxOptions setTimerWheelEnabled(boolean timerWheelEnabled) {
+    this.timerWheelEnabled = timerWheelEnabled;
+    return this;
+  }
+
+  /**
+   * @return whether the worker pools start a thread for a task submitted while all their threads are busy
+   */
+  public boolean isWorkerPoolElastic() {
+    return workerPoolElastic;
+  }
+
+  /**
+   * Set whether the worker pool and the named worker pools are elastic.
+   * <p>
+   * An elastic pool starts a new worker thread for a task submitted while all its threads are busy instead of
+   * queuing the task, up to the {@link #setWorkerPoolMaxSize worker pool max size}, the tasks are queued beyond it.
+   * The pool keeps its pool size of threads, the threads started beyond it stop after being idle for 60 seconds.
+   * The threads are still Vert.x worker threads: worker contexts keep running their tasks in order and blocked
+   * threads are still reported.
+   *
+   * @param workerPoolElastic true to make the worker pools elastic
+   * @return a reference to this, so the API can be used fluently
+   */
+  public VertxOptions setWorkerPoolElastic(boolean workerPoolElastic) {
+    this.workerPoolElastic = workerPoolElastic;
+    return this;
+  }
+
+  /**
+   * @return the maximum number of threads of an elastic worker pool
+   */
+  public int getWorkerPoolMaxSize() {
+    return workerPoolMaxSize;
+  }
+
+  /**
+   * Set the maximum number of threads of an elastic worker pool, a named worker pool larger than it keeps its size.
+   * It only applies when the worker pools are {@link #setWorkerPoolElastic elastic}.
+   *
+   * @param workerPoolMaxSize the maximum number of threads
+   * @return a reference to this, so the API can be used fluently
+   */
+  public VertxOptions setWorkerPoolMaxSize(int workerPoolMaxSize) {
+    if (workerPoolMaxSize < 1) {
+      throw new IllegalArgumentException("workerPoolMaxSize must be > 0");
+    }
+    this.workerPoolMaxSize = workerPoolMaxSize;
+    return this;
+  }
+
+  /**
+   * @return whether the threads of the worker pools have their own queue and take the tasks of the other threads
+   */
+  public boolean isWorkerPoolWorkStealing() {
+    return workerPoolWorkStealing;
+  }
+
+  /**
+   * Set whether the worker pools are work-stealing pools.
+   * <p>
+   * The threads of a work-stealing pool have their own queue instead of sharing a single queue, a thread runs the
+   * tasks of its queue and takes the tasks of the other threads when it is empty. This avoids the contention of the
+   * submitters and the threads on the queue at high blocking execution rates. It applies to the worker pool, the
+   * internal blocking pool and the named worker pools, which can't be both work-stealing and elastic.
+   *
+   * @param workerPoolWorkStealing true to use work-stealing worker pools
+   * @return a reference to this, so the API can be used fluently
+   */
+  public VertxOptions setWorkerPoolWorkStealing(boolean workerPoolWorkStealing) {
+    this.workerPoolWorkStealing = workerPoolWorkStealing;
+    return this;
+  }
+
+  /**
+   * @return the thread affinity pinning the threads created by Vert.x, or {@code null}
+   */
+  public ThreadAffinity getThreadAffinity() {
+    return threadAffinity;
+  }
+
+  /**
+   * Programmatically set the thread affinity pinning the threads created by Vert.x.
+   * <p>
+   * The event loop threads, the worker threads and the internal blocking threads call it when they start, with the
+   * name prefix of their pool and their index in it. Pinning the event loop threads to distinct cores keeps their
+   * caches warm, together with the event loop affinity of the deployments.
+   *
+   * @param threadAffinity the thread affinity
+   * @return a reference to this, so the API can be used fluently
+   */
+  public VertxOptions setThreadAffinity(ThreadAffinity threadAffinity) {
+    this.threadAffinity = threadAffinity;
+    return this;
+  }
+
   /**
    * @return the event bus option to configure the event bus communication (host, port, ssl...)
    */
@@ -662,11 +807,17 @@ public class VertxOptions {
     if (maxEventLoopExecuteTime != that.maxEventLoopExecuteTime) return false;
     if (maxWorkerExecuteTime != that.maxWorkerExecuteTime) return false;
     if (haEnabled != that.haEnabled) return false;
+    if (timerWheelEnabled != that.timerWheelEnabled) return false;
+    if (workerPoolElastic != that.workerPoolElastic) return false;
+    if (workerPoolMaxSize != that.workerPoolMaxSize) return false;
+    if (workerPoolWorkStealing != that.workerPoolWorkStealing) return false;
     if (quorumSize != that.quorumSize) return false;
     if (warningExceptionTime != that.warningExceptionTime) return false;
     if (clusterManager != null ? !clusterManager.equals(that.clusterManager) : that.clusterManager != null)
       return false;
     if (haGroup != null ? !haGroup.equals(that.haGroup) : that.haGroup != null) return false;
+    if (threadAffinity != null ? !threadAffinity.equals(that.threadAffinity) : that.threadAffinity != null)
+      return false;
     if (eventBusOptions != null ? !eventBusOptions.equals(that.eventBusOptions) : that.eventBusOptions != null)
       return false;
     if (addressResolverOptions != null ? !addressResolverOptions.equals(that.addressResolverOptions) : that.addressResolverOptions != null)
@@ -691,6 +842,11 @@ public class VertxOptions {
     result = 31 * result + (eventBusOptions != null ? eventBusOptions.hashCode() : 0);
     result = 31 * result + (addressResolverOptions != null ? addressResolverOptions.hashCode() : 0);
     result = 31 * result + (int) (warningExceptionTime ^ (warningExceptionTime >>> 32));
+    result = 31 * result + (timerWheelEnabled ? 1 : 0);
+    result = 31 * result + (workerPoolElastic ? 1 : 0);
+    result = 31 * result + workerPoolMaxSize;
+    result = 31 * result + (workerPoolWorkStealing ? 1 : 0);
+    result = 31 * result + (threadAffinity != null ? threadAffinity.hashCode() : 0);
     return result;
   }
 
@@ -711,6 +867,11 @@ public class VertxOptions {
         ", addressResolver=" + addressResolverOptions.toJson() +
         ", eventbus=" + eventBusOptions.toJson() +
         ", warningExceptionTime=" + warningExceptionTime +
+        ", timerWheelEnabled=" + timerWheelEnabled +
+        ", workerPoolElastic=" + workerPoolElastic +
+        ", workerPoolMaxSize=" + workerPoolMaxSize +
+        ", workerPoolWorkStealing=" + workerPoolWorkStealing +
+        ", threadAffinity=" + threadAffinity +
         '}';
   }
 }
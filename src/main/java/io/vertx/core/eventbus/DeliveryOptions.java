@@ -22,6 +22,7 @@ import io.vertx.core.MultiMap;
 import io.vertx.core.http.CaseInsensitiveHeaders;
 import io.vertx.core.impl.Arguments;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.spi.eventbus.HandlerChooser;
 
 import java.util.Map;
 import java.util.Objects;
@@ -42,9 +43,16 @@ public class DeliveryOptions {
    */
   public static final long DEFAULT_TIMEOUT = 30 * 1000;
 
+  /**
+   * The default value of whether the body is shared between local consumers = false
+   */
+  public static final boolean DEFAULT_SHARED_BODY = false;
+
   private long timeout = DEFAULT_TIMEOUT;
   private String codecName;
   private MultiMap headers;
+  private boolean sharedBody = DEFAULT_SHARED_BODY;
+  private HandlerChooser handlerChooser;
 
   /**
    * Default constructor
@@ -61,6 +69,8 @@ public class DeliveryOptions {
     this.timeout = other.getSendTimeout();
     this.codecName = other.getCodecName();
     this.headers = other.getHeaders();
+    this.sharedBody = other.isSharedBody();
+    this.handlerChooser = other.getHandlerChooser();
   }
 
   /**
@@ -71,6 +81,7 @@ public class DeliveryOptions {
   public DeliveryOptions(JsonObject json) {
     this.timeout = json.getLong("timeout", DEFAULT_TIMEOUT);
     this.codecName = json.getString("codecName", null);
+    this.sharedBody = json.getBoolean("sharedBody", DEFAULT_SHARED_BODY);
     JsonObject hdrs = json.getJsonObject("headers", null);
     if (hdrs != null) {
       headers = new CaseInsensitiveHeaders();
@@ -130,6 +141,58 @@ public class DeliveryOptions {
     return this;
   }
 
+  /**
+   * Whether the message body is shared between the local consumers.
+   *
+   * @return true if the body is shared
+   */
+  public boolean isSharedBody() {
+    return sharedBody;
+  }
+
+  /**
+   * Set whether the message body is shared between the local consumers.
+   * <p>
+   * By default each local consumer receives its own copy of the body, obtained with
+   * {@link MessageCodec#transform}. When the body is shared, the copy is skipped: a {@link io.vertx.core.json.JsonObject},
+   * {@link io.vertx.core.json.JsonArray} or {@link io.vertx.core.buffer.Buffer} body is delivered as a read-only view
+   * of the sent body and any other body is transformed once and the result is handed to all the consumers.
+   * <p>
+   * The sender must not modify the body after it has been sent, and bodies that don't have a read-only view must
+   * be treated as immutable by the consumers.
+   *
+   * @param sharedBody  true to share the body
+   * @return  a reference to this, so the API can be used fluently
+   */
+  public DeliveryOptions setSharedBody(boolean sharedBody) {
+    this.sharedBody = sharedBody;
+    return this;
+  }
+
+  /**
+   * @return the handler chooser, or {@code null} when the event bus chooser is used
+   */
+  @GenIgnore
+  public HandlerChooser getHandlerChooser() {
+    return handlerChooser;
+  }
+
+  /**
+   * Set the chooser picking the local consumer a sent message is delivered to, overriding the one configured with
+   * {@link EventBusOptions#setHandlerChooser}.
+   * <p>
+   * The chooser is not used for published messages, and a message sent to another node of the cluster is delivered
+   * with the chooser of that node.
+   *
+   * @param handlerChooser  the chooser, {@code null} to use the event bus chooser
+   * @return  a reference to this, so the API can be used fluently
+   */
+  @GenIgnore
+  public DeliveryOptions setHandlerChooser(HandlerChooser handlerChooser) {
+    this.handlerChooser = handlerChooser;
+    return this;
+  }
+
   /**
    * Add a message header.
    * <p>
@@ -86,6 +86,87 @@ public interface EventBus extends Measured {
   @Fluent
   <T> EventBus send(String address, Object message, DeliveryOptions options, Handler<AsyncResult<Message<T>>> replyHandler);
 
+  /**
+   * Send an {@code int} message. The value is not boxed when the message is delivered locally, the consumers can read it
+   * with {@link Message#intBody()}.
+   * <p>
+   * By default the value is boxed and sent with {@link #send(String, Object)}.
+   *
+   * @param address  the address to send it to
+   * @param value  the value
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  default EventBus sendInt(String address, int value) {
+    return send(address, value);
+  }
+
+  /**
+   * Like {@link #sendInt(String, int)} but specifying {@code options} that can be used to configure the delivery,
+   * the codec name is ignored.
+   *
+   * @param address  the address to send it to
+   * @param value  the value
+   * @param options  delivery options
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  default EventBus sendInt(String address, int value, DeliveryOptions options) {
+    return send(address, value, options);
+  }
+
+  /**
+   * Like {@link #sendInt(String, int)} but sending a {@code long}, read with {@link Message#longBody()}.
+   *
+   * @param address  the address to send it to
+   * @param value  the value
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  default EventBus sendLong(String address, long value) {
+    return send(address, value);
+  }
+
+  /**
+   * Like {@link #sendLong(String, long)} but specifying {@code options} that can be used to configure the delivery,
+   * the codec name is ignored.
+   *
+   * @param address  the address to send it to
+   * @param value  the value
+   * @param options  delivery options
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  default EventBus sendLong(String address, long value, DeliveryOptions options) {
+    return send(address, value, options);
+  }
+
+  /**
+   * Like {@link #sendInt(String, int)} but sending a {@code double}, read with {@link Message#doubleBody()}.
+   *
+   * @param address  the address to send it to
+   * @param value  the value
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  default EventBus sendDouble(String address, double value) {
+    return send(address, value);
+  }
+
+  /**
+   * Like {@link #sendDouble(String, double)} but specifying {@code options} that can be used to configure the delivery,
+   * the codec name is ignored.
+   *
+   * @param address  the address to send it to
+   * @param value  the value
+   * @param options  delivery options
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  default EventBus sendDouble(String address, double value, DeliveryOptions options) {
+    return send(address, value, options);
+  }
+
   /**
    * Publish a message.<p>
    * The message will be delivered to all handlers registered to the address.
@@ -148,6 +229,39 @@ public interface EventBus extends Measured {
    */
   <T> MessageConsumer<T> localConsumer(String address, Handler<Message<T>> handler);
 
+  /**
+   * Create a message consumer receiving the messages of all the addresses matching a pattern.
+   * <p>
+   * Addresses are made of segments separated by dots. In a pattern a {@code *} segment matches exactly one segment
+   * and a final {@code #} segment matches zero or more segments, e.g. {@code orders.*.created} matches
+   * {@code orders.123.created} and {@code orders.#} matches {@code orders} as well as {@code orders.123.created}.
+   * <p>
+   * A published message is delivered to all the matching consumers. A sent message is delivered to a consumer of its
+   * exact address when there is one, otherwise to a consumer of the most specific matching pattern.
+   * <p>
+   * Like {@link #localConsumer(String)}, the pattern won't be propagated across the cluster.
+   * <p>
+   * By default wildcard consumers are not supported.
+   *
+   * @param pattern  the address pattern
+   * @return the event bus message consumer
+   * @throws IllegalStateException when the event bus doesn't support wildcard consumers
+   */
+  default <T> MessageConsumer<T> wildcardConsumer(String pattern) {
+    throw new IllegalStateException("Wildcard consumers are not supported");
+  }
+
+  /**
+   * Like {@link #wildcardConsumer(String)} and set the handler at the same time.
+   *
+   * @param pattern  the address pattern
+   * @param handler  the handler that will process the received messages
+   * @return the event bus message consumer
+   */
+  default <T> MessageConsumer<T> wildcardConsumer(String pattern, Handler<Message<T>> handler) {
+    return this.<T>wildcardConsumer(pattern).handler(handler);
+  }
+
   /**
    * Create a message sender against the specified address.
    * <p>
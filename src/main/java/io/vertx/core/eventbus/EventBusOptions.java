@@ -23,6 +23,7 @@ import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.ClientAuth;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.net.*;
+import io.vertx.core.spi.eventbus.HandlerChooser;
 
 /**
  * Options to configure the event bus.
@@ -93,6 +94,46 @@ public class EventBusOptions extends TCPSSLOptions {
   private int connectTimeout;
   private boolean trustAll;
 
+  /**
+   * The default maximum number of messages delivered to a consumer in a single context task = 32
+   */
+  public static final int DEFAULT_LOCAL_DELIVERY_BATCH_SIZE = 32;
+
+  /**
+   * The default number of connections opened to each node of the cluster = 1
+   */
+  public static final int DEFAULT_CONNECTIONS_PER_PEER = 1;
+
+  private int localDeliveryBatchSize = DEFAULT_LOCAL_DELIVERY_BATCH_SIZE;
+  private HandlerChooser handlerChooser;
+  private int connectionsPerPeer = DEFAULT_CONNECTIONS_PER_PEER;
+
+  /**
+   * The default compression threshold = -1 (messages are not compressed)
+   */
+  public static final int DEFAULT_COMPRESSION_THRESHOLD = -1;
+
+  private int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+
+  /**
+   * The default maximum number of messages waiting to be written to a node of the cluster = -1 (unbounded)
+   */
+  public static final int DEFAULT_MAX_PENDING_MESSAGES = -1;
+
+  /**
+   * The default time a node of the cluster is considered unreachable after a connection failure = 0 ms, disabled
+   */
+  public static final long DEFAULT_UNREACHABLE_PEER_BACKOFF = 0;
+
+  /**
+   * The default maximum size of a frame received from a node of the cluster = 64 MiB
+   */
+  public static final int DEFAULT_MAX_FRAME_SIZE = 64 * 1024 * 1024;
+
+  private int maxPendingMessages = DEFAULT_MAX_PENDING_MESSAGES;
+  private long unreachablePeerBackoff = DEFAULT_UNREACHABLE_PEER_BACKOFF;
+  private int maxFrameSize = DEFAULT_MAX_FRAME_SIZE;
+
   /**
    * Creates a new instance of {@link EventBusOptions} using the default configuration.
    */
@@ -136,6 +177,13 @@ public class EventBusOptions extends TCPSSLOptions {
     this.reconnectAttempts = other.reconnectAttempts;
     this.connectTimeout = other.connectTimeout;
     this.trustAll = other.trustAll;
+    this.localDeliveryBatchSize = other.localDeliveryBatchSize;
+    this.handlerChooser = other.handlerChooser;
+    this.connectionsPerPeer = other.connectionsPerPeer;
+    this.compressionThreshold = other.compressionThreshold;
+    this.maxPendingMessages = other.maxPendingMessages;
+    this.unreachablePeerBackoff = other.unreachablePeerBackoff;
+    this.maxFrameSize = other.maxFrameSize;
   }
 
   /**
@@ -581,4 +629,176 @@ public class EventBusOptions extends TCPSSLOptions {
     this.clusterPublicPort = clusterPublicPort;
     return this;
   }
+
+  /**
+   * @return the maximum number of messages delivered to a consumer in a single context task
+   */
+  public int getLocalDeliveryBatchSize() {
+    return localDeliveryBatchSize;
+  }
+
+  /**
+   * Set the maximum number of messages delivered to a consumer in a single context task.
+   * <p>
+   * Messages sent to a consumer are queued per consumer and delivered in batches by a single task scheduled
+   * on the consumer context, instead of one task per message. This bounds how many messages are delivered
+   * before the context processes its other tasks.
+   *
+   * @param localDeliveryBatchSize  the maximum batch size
+   * @return a reference to this, so the API can be used fluently
+   */
+  public EventBusOptions setLocalDeliveryBatchSize(int localDeliveryBatchSize) {
+    if (localDeliveryBatchSize < 1) {
+      throw new IllegalArgumentException("localDeliveryBatchSize must be greater than 0");
+    }
+    this.localDeliveryBatchSize = localDeliveryBatchSize;
+    return this;
+  }
+
+  /**
+   * @return the handler chooser, or {@code null} when the consumers are chosen in a round robin fashion
+   */
+  @GenIgnore
+  public HandlerChooser getHandlerChooser() {
+    return handlerChooser;
+  }
+
+  /**
+   * Set the chooser picking the local consumer a sent message is delivered to, when several consumers are
+   * registered on its address. By default the consumers of an address are chosen in a round robin fashion.
+   * <p>
+   * {@link HandlerChooser} provides built-in choosers, for instance {@link HandlerChooser#contextAffine()} delivers
+   * the messages to a consumer running on the event loop of the sender when there is one, saving a thread hop.
+   *
+   * @param handlerChooser  the chooser, {@code null} for round robin
+   * @return a reference to this, so the API can be used fluently
+   */
+  @GenIgnore
+  public EventBusOptions setHandlerChooser(HandlerChooser handlerChooser) {
+    this.handlerChooser = handlerChooser;
+    return this;
+  }
+
+  /**
+   * @return the number of connections opened to each node of the cluster
+   */
+  public int getConnectionsPerPeer() {
+    return connectionsPerPeer;
+  }
+
+  /**
+   * Set the number of connections opened to each node of the cluster, the messages sent to a node are spread over
+   * its connections by address. The messages sent to an address always use the same connection so they are
+   * received in order.
+   * <p>
+   * Each connection is handled by an event loop, several connections let the traffic between two nodes use more than
+   * one core.
+   *
+   * @param connectionsPerPeer  the number of connections
+   * @return a reference to this, so the API can be used fluently
+   */
+  public EventBusOptions setConnectionsPerPeer(int connectionsPerPeer) {
+    if (connectionsPerPeer < 1) {
+      throw new IllegalArgumentException("connectionsPerPeer must be greater than 0");
+    }
+    this.connectionsPerPeer = connectionsPerPeer;
+    return this;
+  }
+
+  /**
+   * @return the size above which the messages sent to the other nodes are compressed, {@code -1} when they are not
+   */
+  public int getCompressionThreshold() {
+    return compressionThreshold;
+  }
+
+  /**
+   * Set the size above which the messages sent to the other nodes of the cluster are compressed, in bytes. The
+   * headers and the body of a larger message are compressed with deflate, trading CPU for bytes on the wire.
+   * <p>
+   * A message is only compressed when the node it is sent to supports it, and when compression makes it smaller.
+   *
+   * @param compressionThreshold  the threshold, {@code -1} to disable compression
+   * @return a reference to this, so the API can be used fluently
+   */
+  public EventBusOptions setCompressionThreshold(int compressionThreshold) {
+    if (compressionThreshold < -1) {
+      throw new IllegalArgumentException("compressionThreshold must be greater than or equal to -1");
+    }
+    this.compressionThreshold = compressionThreshold;
+    return this;
+  }
+
+  /**
+   * @return the maximum number of messages waiting to be written to a node of the cluster, {@code -1} when unbounded
+   */
+  public int getMaxPendingMessages() {
+    return maxPendingMessages;
+  }
+
+  /**
+   * Set the maximum number of messages waiting to be written to a connection to a node of the cluster, e.g. while the
+   * connection is being opened. A message sent when the limit is reached is dropped and its reply handler fails
+   * immediately.
+   *
+   * @param maxPendingMessages  the maximum number of messages, {@code -1} for no limit
+   * @return a reference to this, so the API can be used fluently
+   */
+  public EventBusOptions setMaxPendingMessages(int maxPendingMessages) {
+    if (maxPendingMessages < 1 && maxPendingMessages != -1) {
+      throw new IllegalArgumentException("maxPendingMessages must be greater than 0 or -1");
+    }
+    this.maxPendingMessages = maxPendingMessages;
+    return this;
+  }
+
+  /**
+   * @return the time a node of the cluster is considered unreachable after a connection failure, in ms
+   */
+  public long getUnreachablePeerBackoff() {
+    return unreachablePeerBackoff;
+  }
+
+  /**
+   * Set the time a node of the cluster is considered unreachable after a connection to it failed, in ms. The messages
+   * sent to an unreachable node are dropped and their reply handlers fail immediately, instead of opening a new
+   * connection for each message.
+   * <p>
+   * The next message sent after this time tries to connect again, the time doubles each time the node still can't
+   * be reached, up to 32 times this value. It is disabled by default: a node that restarts is unreachable for a short
+   * time and the messages sent to it without a reply handler are silently dropped during the backoff.
+   *
+   * @param unreachablePeerBackoff  the time, in ms, {@code 0} to try to connect for every message
+   * @return a reference to this, so the API can be used fluently
+   */
+  public EventBusOptions setUnreachablePeerBackoff(long unreachablePeerBackoff) {
+    if (unreachablePeerBackoff < 0) {
+      throw new IllegalArgumentException("unreachablePeerBackoff must be greater than or equal to 0");
+    }
+    this.unreachablePeerBackoff = unreachablePeerBackoff;
+    return this;
+  }
+
+  /**
+   * @return the maximum size of a frame received from a node of the cluster, in bytes
+   */
+  public int getMaxFrameSize() {
+    return maxFrameSize;
+  }
+
+  /**
+   * Set the maximum size of a frame received from a node of the cluster, in bytes. A frame carries a message, its
+   * size includes the envelope of the message and the uncompressed payload. The connection a larger frame is received
+   * on is closed, so a node can't make this node allocate an arbitrary amount of memory.
+   *
+   * @param maxFrameSize  the maximum size
+   * @return a reference to this, so the API can be used fluently
+   */
+  public EventBusOptions setMaxFrameSize(int maxFrameSize) {
+    if (maxFrameSize < 1) {
+      throw new IllegalArgumentException("maxFrameSize must be greater than 0");
+    }
+    this.maxFrameSize = maxFrameSize;
+    return this;
+  }
 }
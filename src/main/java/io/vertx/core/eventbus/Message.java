@@ -58,6 +58,36 @@ public interface Message<T> {
   @CacheReturn
   T body();
 
+  /**
+   * The numeric body of the message as an {@code int}. The body of a message sent with {@link EventBus#sendInt},
+   * {@link EventBus#sendLong} or {@link EventBus#sendDouble} is read without being boxed, by default it is read from
+   * {@link #body()}.
+   *
+   * @return the body as an int
+   * @throws ClassCastException if the body is not a number
+   */
+  default int intBody() {
+    return ((Number) body()).intValue();
+  }
+
+  /**
+   * Like {@link #intBody()} but as a {@code long}.
+   *
+   * @return the body as a long
+   */
+  default long longBody() {
+    return ((Number) body()).longValue();
+  }
+
+  /**
+   * Like {@link #intBody()} but as a {@code double}.
+   *
+   * @return the body as a double
+   */
+  default double doubleBody() {
+    return ((Number) body()).doubleValue();
+  }
+
   /**
    * The reply address. Can be null.
    *
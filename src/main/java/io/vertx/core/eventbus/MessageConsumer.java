@@ -16,11 +16,14 @@
 
 package io.vertx.core.eventbus;
 
+import io.vertx.codegen.annotations.GenIgnore;
 import io.vertx.codegen.annotations.VertxGen;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 import io.vertx.core.streams.ReadStream;
 
+import java.util.function.Function;
+
 /**
  * An event bus consumer object representing a stream of message to an {@link EventBus} address that can
  * be read from.
@@ -71,6 +74,9 @@ public interface MessageConsumer<T> extends ReadStream<Message<T>> {
    * Set the number of messages this registration will buffer when this stream is paused. The default
    * value is <code>0</code>. When a new value is set, buffered messages may be discarded to reach
    * the new value.
+   * <p>
+   * Messages sent by a {@link MessageProducer} obtained with {@link EventBus#sender} are flow controlled: they are
+   * buffered even beyond this value, since the producer stops sending when the consumer does not handle them.
    *
    * @param maxBufferedMessages the maximum number of messages that can be buffered
    * @return this registration
@@ -82,6 +88,40 @@ public interface MessageConsumer<T> extends ReadStream<Message<T>> {
    */
   int getMaxBufferedMessages();
 
+  /**
+   * Handle the messages in parallel on the worker pool while keeping the order of the messages having the same key,
+   * the key of a message is the value of its {@code headerName} header.
+   * <p>
+   * The messages are dispatched to {@code parallelism} ordered lanes by the hash of their key, the messages without the
+   * header share a lane. The handler must therefore be safe to call concurrently for distinct keys.
+   * <p>
+   * It only applies to a consumer registered on a worker context, an event loop context handles its messages serially.
+   * It must be called before the handler is set.
+   *
+   * @param headerName  the name of the header carrying the key
+   * @param parallelism  the maximum number of messages handled concurrently
+   * @return this consumer
+   */
+  default MessageConsumer<T> orderedBy(String headerName, int parallelism) {
+    return orderedBy(msg -> msg.headers().get(headerName), parallelism);
+  }
+
+  /**
+   * Like {@link #orderedBy(String, int)} but the key is extracted from the message by a function. The function is
+   * called by the thread delivering the message, it should be cheap and thread safe.
+   *
+   * <p>
+   * By default the messages are still handled one at a time, which keeps the order of all the messages.
+   *
+   * @param keyExtractor  the function returning the key of a message, may return {@code null}
+   * @param parallelism  the maximum number of messages handled concurrently
+   * @return this consumer
+   */
+  @GenIgnore
+  default MessageConsumer<T> orderedBy(Function<Message<T>, ?> keyExtractor, int parallelism) {
+    return this;
+  }
+
   /**
    * Optional method which can be called to indicate when the registration has been propagated across the cluster.
    *
@@ -25,6 +25,10 @@ import io.vertx.core.streams.WriteStream;
 /**
  * Represents a stream of message that can be written to.
  * <p>
+ * A producer created with {@link EventBus#sender} is flow controlled by its consumers, on this node or on another
+ * node of the cluster: {@link #writeQueueFull()} returns {@code true} when {@link #setWriteQueueMaxSize} messages
+ * are sent or queued and not yet handled by a consumer, and the {@link #drainHandler} is called once the
+ * consumers caught up. A producer created with {@link EventBus#publisher} is not flow controlled.
  *
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
  */
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2011-2016 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.core.eventbus.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+
+/**
+ * A resolved event bus address, for sending many messages to the same address.
+ * <p>
+ * The handle caches the local handlers of its address, so the local delivery of a message doesn't hash the address
+ * and look it up in the handler map. The cache is invalidated when the handlers of any address are created or removed,
+ * a delivery only checks it with a volatile read.
+ *
+ * @see EventBusImpl#addressHandle(String)
+ */
+public class AddressHandle {
+
+  private final EventBusImpl bus;
+  private final String address;
+  private volatile Resolution resolution;
+
+  AddressHandle(EventBusImpl bus, String address) {
+    this.bus = bus;
+    this.address = address;
+  }
+
+  public String address() {
+    return address;
+  }
+
+  public void send(Object body, DeliveryOptions options) {
+    send(body, options, null);
+  }
+
+  public <T> void send(Object body, DeliveryOptions options, Handler<AsyncResult<Message<T>>> replyHandler) {
+    bus.sendOrPub(this, true, body, options, replyHandler);
+  }
+
+  public void publish(Object body, DeliveryOptions options) {
+    bus.sendOrPub(this, false, body, options, null);
+  }
+
+  /**
+   * @return the local handlers of the address, or {@code null} when there are none
+   */
+  Handlers handlers() {
+    // Read the epoch before the map, a registration changes the map before the epoch
+    long epoch = bus.registrationEpoch();
+    Resolution current = resolution;
+    if (current == null || current.epoch != epoch) {
+      current = new Resolution(epoch, bus.handlerMap.get(address));
+      resolution = current;
+    }
+    return current.handlers;
+  }
+
+  private static final class Resolution {
+
+    final long epoch;
+    final Handlers handlers;
+
+    Resolution(long epoch, Handlers handlers) {
+      this.epoch = epoch;
+      this.handlers = handlers;
+    }
+  }
+}
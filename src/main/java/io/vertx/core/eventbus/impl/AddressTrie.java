@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2011-2016 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.core.eventbus.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The handlers of the consumers registered with an address pattern, see
+ * {@link io.vertx.core.eventbus.EventBus#wildcardConsumer(String)}.
+ * <p>
+ * The patterns are stored in a trie keyed by the address segments, so matching an address costs a lookup per segment
+ * rather than a test per pattern. Matching doesn't lock, the updates are serialized on the trie.
+ */
+public class AddressTrie {
+
+  /**
+   * A pattern segment matching exactly one address segment.
+   */
+  public static final String ANY_SEGMENT = "*";
+
+  /**
+   * A final pattern segment matching zero or more address segments.
+   */
+  public static final String ANY_SEGMENTS = "#";
+
+  private final Node root = new Node();
+  private volatile int size;
+
+  /**
+   * Check a pattern is valid.
+   *
+   * @param pattern  the pattern
+   * @throws IllegalArgumentException when a segment is empty or a {@code #} segment is not the last one
+   */
+  public static void checkPattern(String pattern) {
+    Objects.requireNonNull(pattern, "pattern");
+    String[] segments = pattern.split("\\.", -1);
+    for (int i = 0; i < segments.length; i++) {
+      if (segments[i].isEmpty()) {
+        throw new IllegalArgumentException("Empty segment in pattern " + pattern);
+      }
+      if (segments[i].equals(ANY_SEGMENTS) && i < segments.length - 1) {
+        throw new IllegalArgumentException(ANY_SEGMENTS + " must be the last segment of pattern " + pattern);
+      }
+    }
+  }
+
+  /**
+   * @return {@code true} when no pattern is registered
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Add a handler to a pattern.
+   *
+   * @return {@code true} when the pattern had no handlers
+   */
+  public synchronized boolean add(String pattern, HandlerHolder holder) {
+    Node node = root;
+    for (String segment : pattern.split("\\.", -1)) {
+      node = node.children.computeIfAbsent(segment, s -> new Node());
+    }
+    boolean newPattern = false;
+    if (node.handlers == null) {
+      node.handlers = new Handlers();
+      size++;
+      newPattern = true;
+    }
+    node.handlers.add(holder);
+    return newPattern;
+  }
+
+  /**
+   * Remove the handler of a registration from a pattern, the trie nodes left without handlers are pruned.
+   *
+   * @return the removed handler or {@code null}
+   */
+  public synchronized HandlerHolder remove(String pattern, HandlerRegistration registration) {
+    return remove(root, pattern.split("\\.", -1), 0, registration);
+  }
+
+  private HandlerHolder remove(Node node, String[] segments, int depth, HandlerRegistration registration) {
+    if (depth == segments.length) {
+      Handlers handlers = node.handlers;
+      if (handlers != null) {
+        synchronized (handlers) {
+          for (int i = 0; i < handlers.list.size(); i++) {
+            HandlerHolder holder = handlers.list.get(i);
+            if (holder.getHandler() == registration) {
+              handlers.remove(i);
+              if (handlers.list.isEmpty()) {
+                node.handlers = null;
+                size--;
+              }
+              return holder;
+            }
+          }
+        }
+      }
+      return null;
+    }
+    Node child = node.children.get(segments[depth]);
+    if (child == null) {
+      return null;
+    }
+    HandlerHolder holder = remove(child, segments, depth + 1, registration);
+    if (child.handlers == null && child.children.isEmpty()) {
+      node.children.remove(segments[depth]);
+    }
+    return holder;
+  }
+
+  /**
+   * Find the handlers of the patterns matching an address, the most specific patterns come first: a literal segment
+   * is preferred over {@code *} which is preferred over {@code #}.
+   *
+   * @return the handlers or {@code null} when no pattern matches
+   */
+  public List<Handlers> match(String address) {
+    return match(root, address, 0, null);
+  }
+
+  private static List<Handlers> match(Node node, String address, int from, List<Handlers> matches) {
+    Node anySegments = node.children.get(ANY_SEGMENTS);
+    if (from > address.length()) {
+      // All the segments are matched, a trailing # matches zero segments
+      matches = collect(node, matches);
+      return collect(anySegments, matches);
+    }
+    if (node.children.isEmpty()) {
+      return matches;
+    }
+    int idx = address.indexOf('.', from);
+    int end = idx == -1 ? address.length() : idx;
+    String segment = address.substring(from, end);
+    // A wildcard in the address is not a wildcard, it is only matched once by its pattern node
+    if (!segment.equals(ANY_SEGMENT) && !segment.equals(ANY_SEGMENTS)) {
+      Node child = node.children.get(segment);
+      if (child != null) {
+        matches = match(child, address, end + 1, matches);
+      }
+    }
+    Node anySegment = node.children.get(ANY_SEGMENT);
+    if (anySegment != null) {
+      matches = match(anySegment, address, end + 1, matches);
+    }
+    return collect(anySegments, matches);
+  }
+
+  private static List<Handlers> collect(Node node, List<Handlers> matches) {
+    Handlers handlers = node != null ? node.handlers : null;
+    if (handlers != null && !handlers.list.isEmpty()) {
+      if (matches == null) {
+        matches = new ArrayList<>(2);
+      }
+      matches.add(handlers);
+    }
+    return matches;
+  }
+
+  /**
+   * @return the handlers of all the patterns
+   */
+  public synchronized List<Handlers> handlers() {
+    List<Handlers> all = new ArrayList<>(size);
+    collectAll(root, all);
+    return all;
+  }
+
+  private static void collectAll(Node node, List<Handlers> all) {
+    if (node.handlers != null) {
+      all.add(node.handlers);
+    }
+    for (Node child : node.children.values()) {
+      collectAll(child, all);
+    }
+  }
+
+  private static class Node {
+    final ConcurrentMap<String, Node> children = new ConcurrentHashMap<>(4);
+    volatile Handlers handlers;
+  }
+}
@@ -1,11 +1,13 @@
 package io.vertx.core.eventbus.impl;
 
+import io.netty.buffer.Unpooled;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.MessageCodec;
 import io.vertx.core.eventbus.ReplyException;
 import io.vertx.core.eventbus.impl.codecs.*;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.json.impl.ReadOnlyJson;
 
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
@@ -34,9 +36,17 @@ public class CodecManager {
   public static final MessageCodec<Byte, Byte> BYTE_MESSAGE_CODEC = new ByteMessageCodec();
   public static final MessageCodec<ReplyException, ReplyException> REPLY_EXCEPTION_MESSAGE_CODEC = new ReplyExceptionMessageCodec();
 
+  // The types always encoded with a system codec, a default codec registered for them is ignored
+  private static final Class<?>[] SYSTEM_TYPES = { String.class, Buffer.class, JsonObject.class, JsonArray.class,
+    byte[].class, Integer.class, Long.class, Float.class, Double.class, Boolean.class, Short.class, Character.class,
+    Byte.class };
+
   private final MessageCodec[] systemCodecs;
   private final ConcurrentMap<String, MessageCodec> userCodecMap = new ConcurrentHashMap<>();
   private final ConcurrentMap<Class, MessageCodec> defaultCodecMap = new ConcurrentHashMap<>();
+  // The codec of a body class, resolved with a single lookup: it caches the system codec of the classes already seen
+  // and holds the classes registered with a default codec
+  private final ConcurrentMap<Class, MessageCodec> classCodecMap = new ConcurrentHashMap<>();
 
   public CodecManager() {
     this.systemCodecs = codecs(NULL_MESSAGE_CODEC, PING_MESSAGE_CODEC, STRING_MESSAGE_CODEC, BUFFER_MESSAGE_CODEC, JSON_OBJECT_MESSAGE_CODEC, JSON_ARRAY_MESSAGE_CODEC,
@@ -53,44 +63,83 @@ public class CodecManager {
       }
     } else if (body == null) {
       codec = NULL_MESSAGE_CODEC;
-    } else if (body instanceof String) {
-      codec = STRING_MESSAGE_CODEC;
+    } else {
+      codec = classCodecMap.get(body.getClass());
+      if (codec == null) {
+        codec = systemCodec(body);
+        if (codec != null) {
+          // Doesn't replace a default codec registered meanwhile
+          classCodecMap.putIfAbsent(body.getClass(), codec);
+        } else {
+          codec = defaultCodecMap.get(body.getClass());
+          if (codec == null) {
+            throw new IllegalArgumentException("No message codec for type: " + body.getClass());
+          }
+        }
+      }
+    }
+    return codec;
+  }
+
+  private static MessageCodec systemCodec(Object body) {
+    if (body instanceof String) {
+      return STRING_MESSAGE_CODEC;
     } else if (body instanceof Buffer) {
-      codec = BUFFER_MESSAGE_CODEC;
+      return BUFFER_MESSAGE_CODEC;
     } else if (body instanceof JsonObject) {
-      codec = JSON_OBJECT_MESSAGE_CODEC;
+      return JSON_OBJECT_MESSAGE_CODEC;
     } else if (body instanceof JsonArray) {
-      codec = JSON_ARRAY_MESSAGE_CODEC;
+      return JSON_ARRAY_MESSAGE_CODEC;
     } else if (body instanceof byte[]) {
-      codec = BYTE_ARRAY_MESSAGE_CODEC;
+      return BYTE_ARRAY_MESSAGE_CODEC;
     } else if (body instanceof Integer) {
-      codec = INT_MESSAGE_CODEC;
+      return INT_MESSAGE_CODEC;
     } else if (body instanceof Long) {
-      codec = LONG_MESSAGE_CODEC;
+      return LONG_MESSAGE_CODEC;
     } else if (body instanceof Float) {
-      codec = FLOAT_MESSAGE_CODEC;
+      return FLOAT_MESSAGE_CODEC;
     } else if (body instanceof Double) {
-      codec = DOUBLE_MESSAGE_CODEC;
+      return DOUBLE_MESSAGE_CODEC;
     } else if (body instanceof Boolean) {
-      codec = BOOLEAN_MESSAGE_CODEC;
+      return BOOLEAN_MESSAGE_CODEC;
     } else if (body instanceof Short) {
-      codec = SHORT_MESSAGE_CODEC;
+      return SHORT_MESSAGE_CODEC;
     } else if (body instanceof Character) {
-      codec = CHAR_MESSAGE_CODEC;
+      return CHAR_MESSAGE_CODEC;
     } else if (body instanceof Byte) {
-      codec = BYTE_MESSAGE_CODEC;
+      return BYTE_MESSAGE_CODEC;
     } else if (body instanceof ReplyException) {
-      codec = defaultCodecMap.get(body.getClass());
-      if (codec == null) {
-        codec = REPLY_EXCEPTION_MESSAGE_CODEC;
-      }
+      // Unless a default codec is registered for its class
+      return REPLY_EXCEPTION_MESSAGE_CODEC;
     } else {
-      codec = defaultCodecMap.get(body.getClass());
-      if (codec == null) {
-        throw new IllegalArgumentException("No message codec for type: " + body.getClass());
+      return null;
+    }
+  }
+
+  private static boolean isSystemType(Class<?> clazz) {
+    for (Class<?> systemType : SYSTEM_TYPES) {
+      if (systemType.isAssignableFrom(clazz)) {
+        return true;
       }
     }
-    return codec;
+    return false;
+  }
+
+  /**
+   * Compute the body handed to all the local consumers of a message sent with a shared body: the mutable
+   * system types are delivered as a read-only view of the sent body, any other body is transformed once.
+   */
+  @SuppressWarnings("unchecked")
+  public static <S, R> R sharedBody(MessageCodec<S, R> codec, S body) {
+    if (codec == JSON_OBJECT_MESSAGE_CODEC) {
+      return (R) ReadOnlyJson.view((JsonObject) body);
+    } else if (codec == JSON_ARRAY_MESSAGE_CODEC) {
+      return (R) ReadOnlyJson.view((JsonArray) body);
+    } else if (codec == BUFFER_MESSAGE_CODEC) {
+      return (R) Buffer.buffer(Unpooled.unmodifiableBuffer(((Buffer) body).getByteBuf().slice()));
+    } else {
+      return codec.transform(body);
+    }
   }
 
   public MessageCodec getCodec(String codecName) {
@@ -125,6 +174,9 @@ public class CodecManager {
     }
     defaultCodecMap.put(clazz, codec);
     userCodecMap.put(codec.name(), codec);
+    if (!isSystemType(clazz)) {
+      classCodecMap.put(clazz, codec);
+    }
   }
 
   public void unregisterDefaultCodec(Class clazz) {
@@ -132,6 +184,7 @@ public class CodecManager {
     MessageCodec codec = defaultCodecMap.remove(clazz);
     if (codec != null) {
       userCodecMap.remove(codec.name());
+      classCodecMap.remove(clazz, codec);
     }
   }
 
@@ -21,15 +21,15 @@ import io.vertx.core.eventbus.*;
 import io.vertx.core.impl.VertxInternal;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
+import io.vertx.core.spi.eventbus.HandlerChooser;
 import io.vertx.core.spi.metrics.EventBusMetrics;
 import io.vertx.core.spi.metrics.MetricsProvider;
 
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -41,28 +41,56 @@ public class EventBusImpl implements EventBus, MetricsProvider {
 
   private static final Logger log = LoggerFactory.getLogger(EventBusImpl.class);
 
-  private final List<Handler<SendContext>> interceptors = new CopyOnWriteArrayList<>();
-  private final AtomicLong replySequence = new AtomicLong(0);
+  @SuppressWarnings("unchecked")
+  private static final Handler<SendContext>[] NO_INTERCEPTORS = new Handler[0];
+
+  // Read only, it is never passed to user code
+  static final DeliveryOptions DEFAULT_OPTIONS = new DeliveryOptions();
+
+  // Copy on write array, so a send context can iterate over a snapshot without allocating an iterator
+  private volatile Handler<SendContext>[] interceptors = NO_INTERCEPTORS;
   protected final VertxInternal vertx;
+  protected final EventBusOptions options;
   protected final EventBusMetrics metrics;
   protected final ConcurrentMap<String, Handlers> handlerMap = new ConcurrentHashMap<>();
+  protected final AddressTrie wildcardHandlers = new AddressTrie();
+  // Incremented when an address gets or loses its handlers, it invalidates the address handles
+  private final AtomicLong registrationEpoch = new AtomicLong();
+  protected final ReplyHandlers replyHandlers;
   protected final CodecManager codecManager = new CodecManager();
   protected volatile boolean started;
 
   public EventBusImpl(VertxInternal vertx) {
+    this(vertx, new EventBusOptions());
+  }
+
+  public EventBusImpl(VertxInternal vertx, EventBusOptions options) {
     this.vertx = vertx;
+    this.options = options;
     this.metrics = vertx.metricsSPI().createMetrics(this);
+    this.replyHandlers = new ReplyHandlers(metrics);
   }
 
   @Override
-  public EventBus addInterceptor(Handler<SendContext> interceptor) {
-    interceptors.add(interceptor);
+  public synchronized EventBus addInterceptor(Handler<SendContext> interceptor) {
+    Handler<SendContext>[] current = interceptors;
+    Handler<SendContext>[] copy = Arrays.copyOf(current, current.length + 1);
+    copy[current.length] = interceptor;
+    interceptors = copy;
     return this;
   }
 
   @Override
-  public EventBus removeInterceptor(Handler<SendContext> interceptor) {
-    interceptors.remove(interceptor);
+  public synchronized EventBus removeInterceptor(Handler<SendContext> interceptor) {
+    Handler<SendContext>[] current = interceptors;
+    for (int i = 0; i < current.length; i++) {
+      if (current[i].equals(interceptor)) {
+        Handler<SendContext>[] copy = Arrays.copyOf(current, current.length - 1);
+        System.arraycopy(current, i + 1, copy, i, current.length - i - 1);
+        interceptors = copy;
+        break;
+      }
+    }
     return this;
   }
 
@@ -76,12 +104,12 @@ public class EventBusImpl implements EventBus, MetricsProvider {
 
   @Override
   public EventBus send(String address, Object message) {
-    return send(address, message, new DeliveryOptions(), null);
+    return send(address, message, DEFAULT_OPTIONS, null);
   }
 
   @Override
   public <T> EventBus send(String address, Object message, Handler<AsyncResult<Message<T>>> replyHandler) {
-    return send(address, message, new DeliveryOptions(), replyHandler);
+    return send(address, message, DEFAULT_OPTIONS, replyHandler);
   }
 
   @Override
@@ -95,6 +123,43 @@ public class EventBusImpl implements EventBus, MetricsProvider {
     return this;
   }
 
+  @Override
+  public EventBus sendInt(String address, int value) {
+    return sendInt(address, value, DEFAULT_OPTIONS);
+  }
+
+  @Override
+  public EventBus sendInt(String address, int value, DeliveryOptions options) {
+    return sendPrimitive(address, CodecManager.INT_MESSAGE_CODEC, value, options);
+  }
+
+  @Override
+  public EventBus sendLong(String address, long value) {
+    return sendLong(address, value, DEFAULT_OPTIONS);
+  }
+
+  @Override
+  public EventBus sendLong(String address, long value, DeliveryOptions options) {
+    return sendPrimitive(address, CodecManager.LONG_MESSAGE_CODEC, value, options);
+  }
+
+  @Override
+  public EventBus sendDouble(String address, double value) {
+    return sendDouble(address, value, DEFAULT_OPTIONS);
+  }
+
+  @Override
+  public EventBus sendDouble(String address, double value, DeliveryOptions options) {
+    return sendPrimitive(address, CodecManager.DOUBLE_MESSAGE_CODEC, Double.doubleToRawLongBits(value), options);
+  }
+
+  private EventBus sendPrimitive(String address, MessageCodec codec, long bits, DeliveryOptions options) {
+    MessageImpl message = createMessage(true, address, options.getHeaders(), null, null);
+    message.setPrimitiveBody(codec, bits);
+    sendOrPubInternal(message, options, null);
+    return this;
+  }
+
   @Override
   public <T> MessageProducer<T> sender(String address) {
     Objects.requireNonNull(address, "address");
@@ -123,7 +188,7 @@ public class EventBusImpl implements EventBus, MetricsProvider {
 
   @Override
   public EventBus publish(String address, Object message) {
-    return publish(address, message, new DeliveryOptions());
+    return publish(address, message, DEFAULT_OPTIONS);
   }
 
   @Override
@@ -136,7 +201,7 @@ public class EventBusImpl implements EventBus, MetricsProvider {
   public <T> MessageConsumer<T> consumer(String address) {
     checkStarted();
     Objects.requireNonNull(address, "address");
-    return new HandlerRegistration<>(vertx, metrics, this, address, null, false, null, -1);
+    return new HandlerRegistration<>(vertx, metrics, this, address, false);
   }
 
   @Override
@@ -151,7 +216,7 @@ public class EventBusImpl implements EventBus, MetricsProvider {
   public <T> MessageConsumer<T> localConsumer(String address) {
     checkStarted();
     Objects.requireNonNull(address, "address");
-    return new HandlerRegistration<>(vertx, metrics, this, address, null, true, null, -1);
+    return new HandlerRegistration<>(vertx, metrics, this, address, true);
   }
 
   @Override
@@ -162,6 +227,21 @@ public class EventBusImpl implements EventBus, MetricsProvider {
     return consumer;
   }
 
+  @Override
+  public <T> MessageConsumer<T> wildcardConsumer(String pattern) {
+    checkStarted();
+    AddressTrie.checkPattern(pattern);
+    return new HandlerRegistration<>(vertx, metrics, this, pattern, true, true);
+  }
+
+  @Override
+  public <T> MessageConsumer<T> wildcardConsumer(String pattern, Handler<Message<T>> handler) {
+    Objects.requireNonNull(handler, "handler");
+    MessageConsumer<T> consumer = wildcardConsumer(pattern);
+    consumer.handler(handler);
+    return consumer;
+  }
+
   @Override
   public EventBus registerCodec(MessageCodec codec) {
     codecManager.registerCodec(codec);
@@ -190,6 +270,7 @@ public class EventBusImpl implements EventBus, MetricsProvider {
   public void close(Handler<AsyncResult<Void>> completionHandler) {
     checkStarted();
     unregisterAll();
+    replyHandlers.close();
     if (metrics != null) {
       metrics.close();
     }
@@ -216,21 +297,19 @@ public class EventBusImpl implements EventBus, MetricsProvider {
     return msg;
   }
 
-  protected <T> void addRegistration(String address, HandlerRegistration<T> registration,
-                                     boolean replyHandler, boolean localOnly) {
+  protected <T> void addRegistration(String address, HandlerRegistration<T> registration, boolean localOnly) {
     Objects.requireNonNull(registration.getHandler(), "handler");
-    boolean newAddress = addLocalRegistration(address, registration, replyHandler, localOnly);
-    addRegistration(newAddress, address, replyHandler, localOnly, registration::setResult);
+    boolean newAddress = addLocalRegistration(address, registration, localOnly);
+    addRegistration(newAddress, address, localOnly, registration::setResult);
   }
 
-  protected <T> void addRegistration(boolean newAddress, String address,
-                                     boolean replyHandler, boolean localOnly,
+  protected <T> void addRegistration(boolean newAddress, String address, boolean localOnly,
                                      Handler<AsyncResult<Void>> completionHandler) {
     completionHandler.handle(Future.succeededFuture());
   }
 
   protected <T> boolean addLocalRegistration(String address, HandlerRegistration<T> registration,
-                                             boolean replyHandler, boolean localOnly) {
+                                             boolean localOnly) {
     Objects.requireNonNull(address, "address");
 
     Context context = Vertx.currentContext();
@@ -243,18 +322,25 @@ public class EventBusImpl implements EventBus, MetricsProvider {
 
     boolean newAddress = false;
 
-    HandlerHolder holder = new HandlerHolder<>(metrics, registration, replyHandler, localOnly, context);
+    HandlerHolder holder = new HandlerHolder<>(metrics, registration, localOnly, context,
+      options.getLocalDeliveryBatchSize());
 
-    Handlers handlers = handlerMap.get(address);
-    if (handlers == null) {
-      handlers = new Handlers();
-      Handlers prevHandlers = handlerMap.putIfAbsent(address, handlers);
-      if (prevHandlers != null) {
-        handlers = prevHandlers;
+    if (registration.isWildcard()) {
+      newAddress = wildcardHandlers.add(address, holder);
+    } else {
+      Handlers handlers = handlerMap.get(address);
+      if (handlers == null) {
+        handlers = new Handlers();
+        Handlers prevHandlers = handlerMap.putIfAbsent(address, handlers);
+        if (prevHandlers != null) {
+          handlers = prevHandlers;
+        } else {
+          registrationEpoch.incrementAndGet();
+        }
+        newAddress = true;
       }
-      newAddress = true;
+      handlers.add(holder);
     }
-    handlers.list.add(holder);
 
     if (hasContext) {
       HandlerEntry entry = new HandlerEntry<>(address, registration);
@@ -275,6 +361,15 @@ public class EventBusImpl implements EventBus, MetricsProvider {
   }
 
   protected <T> HandlerHolder removeLocalRegistration(String address, HandlerRegistration<T> handler) {
+    if (handler.isWildcard()) {
+      HandlerHolder holder = wildcardHandlers.remove(address, handler);
+      if (holder != null) {
+        holder.setRemoved();
+        holder.getContext().removeCloseHook(new HandlerEntry<>(address, handler));
+      }
+      // Wildcard consumers are local, there is no subscription to remove
+      return null;
+    }
     Handlers handlers = handlerMap.get(address);
     HandlerHolder lastHolder = null;
     if (handlers != null) {
@@ -285,10 +380,11 @@ public class EventBusImpl implements EventBus, MetricsProvider {
         for (int i = 0; i < size; i++) {
           HandlerHolder holder = handlers.list.get(i);
           if (holder.getHandler() == handler) {
-            handlers.list.remove(i);
+            handlers.remove(i);
             holder.setRemoved();
             if (handlers.list.isEmpty()) {
               handlerMap.remove(address);
+              registrationEpoch.incrementAndGet();
               lastHolder = holder;
             }
             holder.getContext().removeCloseHook(new HandlerEntry<>(address, holder.getHandler()));
@@ -305,34 +401,32 @@ public class EventBusImpl implements EventBus, MetricsProvider {
     if (replyMessage.address() == null) {
       throw new IllegalStateException("address not specified");
     } else {
-      HandlerRegistration<T> replyHandlerRegistration = createReplyHandlerRegistration(replyMessage, options, replyHandler);
-      new ReplySendContextImpl<>(replyMessage, options, replyHandlerRegistration, replierMessage).next();
+      if (options != null) {
+        replyMessage.setSharedBody(options.isSharedBody());
+        replyMessage.setHandlerChooser(options.getHandlerChooser());
+      }
+      ReplyHandler<T> replyHandlerEntry = createReplyHandler(replyMessage, options, replyHandler);
+      if (interceptors.length == 0) {
+        // Fast path, no send context
+        sendReply(replyMessage, replyHandlerEntry, replierMessage);
+      } else {
+        new ReplySendContextImpl<>(replyMessage, options, replyHandlerEntry, replierMessage).next();
+      }
     }
   }
 
-  protected <T> void sendReply(SendContextImpl<T> sendContext, MessageImpl replierMessage) {
-    sendOrPub(sendContext);
+  protected <T> void sendReply(MessageImpl message, ReplyHandler<T> replyHandler, MessageImpl replierMessage) {
+    sendOrPub(message, replyHandler);
   }
 
-  protected <T> void sendOrPub(SendContextImpl<T> sendContext) {
-    MessageImpl message = sendContext.message;
+  /**
+   * Send or publish a message once it went through the interceptors.
+   *
+   * @param replyHandler  the reply handler of the message or {@code null}
+   */
+  protected <T> void sendOrPub(MessageImpl message, ReplyHandler<T> replyHandler) {
     metrics.messageSent(message.address(), !message.send(), true, false);
-    deliverMessageLocally(sendContext);
-  }
-
-  protected <T> Handler<Message<T>> convertHandler(Handler<AsyncResult<Message<T>>> handler) {
-    return reply -> {
-      Future<Message<T>> result;
-      if (reply.body() instanceof ReplyException) {
-        // This is kind of clunky - but hey-ho
-        ReplyException exception = (ReplyException) reply.body();
-        metrics.replyFailure(reply.address(), exception.failureType());
-        result = Future.failedFuture(exception);
-      } else {
-        result = Future.succeededFuture(reply);
-      }
-      handler.handle(result);
-    };
+    deliverMessageLocally(message, replyHandler);
   }
 
   protected void callCompletionHandlerAsync(Handler<AsyncResult<Void>> completionHandler) {
@@ -343,37 +437,79 @@ public class EventBusImpl implements EventBus, MetricsProvider {
     }
   }
 
-  protected <T> void deliverMessageLocally(SendContextImpl<T> sendContext) {
-    if (!deliverMessageLocally(sendContext.message)) {
+  protected <T> void deliverMessageLocally(MessageImpl message, ReplyHandler<T> replyHandler) {
+    if (!deliverMessageLocally(message)) {
       // no handlers
-      metrics.replyFailure(sendContext.message.address, ReplyFailure.NO_HANDLERS);
-      if (sendContext.handlerRegistration != null) {
-        sendContext.handlerRegistration.sendAsyncResultFailure(ReplyFailure.NO_HANDLERS, "No handlers for address "
-                                                               + sendContext.message.address);
+      sendCredit(message);
+      metrics.replyFailure(message.address, ReplyFailure.NO_HANDLERS);
+      if (replyHandler != null) {
+        replyHandlers.fail(replyHandler, ReplyFailure.NO_HANDLERS, "No handlers for address " + message.address);
       }
     }
   }
 
+  /**
+   * Give back the credit of a flow controlled message that is dropped, or its producer would stall.
+   */
+  protected void sendCredit(Message<?> message) {
+    String creditsAddress = message.headers().get(MessageProducerImpl.CREDIT_ADDRESS_HEADER_NAME);
+    if (creditsAddress != null) {
+      send(creditsAddress, 1);
+    }
+  }
+
   protected boolean isMessageLocal(MessageImpl msg) {
     return true;
   }
 
   protected <T> boolean deliverMessageLocally(MessageImpl msg) {
     msg.setBus(this);
-    Handlers handlers = handlerMap.get(msg.address());
-    if (handlers != null) {
+    if (msg.address().startsWith(ReplyHandlers.REPLY_ADDRESS_PREFIX)) {
+      ReplyHandler<?> replyHandler = replyHandlers.remove(msg.address());
+      if (replyHandler != null) {
+        metrics.messageReceived(msg.address(), !msg.send(), isMessageLocal(msg), 1);
+        replyHandler.deliver(msg);
+        return true;
+      }
+    }
+    AddressHandle addressHandle = msg.addressHandle();
+    Handlers handlers = addressHandle != null ? addressHandle.handlers() : handlerMap.get(msg.address());
+    // Exact addresses are a single map lookup, the trie is only walked when wildcard consumers are registered
+    List<Handlers> matches = wildcardHandlers.isEmpty() ? null : wildcardHandlers.match(msg.address());
+    if (handlers != null || matches != null) {
       if (msg.send()) {
-        //Choose one
-        HandlerHolder holder = handlers.choose();
+        //Choose one, the consumers of the exact address take precedence over the most specific pattern
+        HandlerChooser chooser = msg.handlerChooser() != null ? msg.handlerChooser() : options.getHandlerChooser();
+        HandlerHolder holder = handlers != null ? choose(handlers, chooser, msg.address()) : null;
+        if (holder == null && matches != null) {
+          for (int i = 0; i < matches.size() && holder == null; i++) {
+            holder = choose(matches.get(i), chooser, msg.address());
+          }
+        }
         metrics.messageReceived(msg.address(), !msg.send(), isMessageLocal(msg), holder != null ? 1 : 0);
         if (holder != null) {
           deliverToHandler(msg, holder);
         }
       } else {
         // Publish
-        metrics.messageReceived(msg.address(), !msg.send(), isMessageLocal(msg), handlers.list.size());
-        for (HandlerHolder holder: handlers.list) {
-          deliverToHandler(msg, holder);
+        int count = handlers != null ? handlers.list.size() : 0;
+        if (matches != null) {
+          for (int i = 0; i < matches.size(); i++) {
+            count += matches.get(i).list.size();
+          }
+        }
+        metrics.messageReceived(msg.address(), !msg.send(), isMessageLocal(msg), count);
+        if (handlers != null) {
+          for (HandlerHolder holder: handlers.list) {
+            deliverToHandler(msg, holder);
+          }
+        }
+        if (matches != null) {
+          for (int i = 0; i < matches.size(); i++) {
+            for (HandlerHolder holder: matches.get(i).list) {
+              deliverToHandler(msg, holder);
+            }
+          }
         }
       }
       return true;
@@ -383,53 +519,90 @@ public class EventBusImpl implements EventBus, MetricsProvider {
     }
   }
 
+  private static HandlerHolder choose(Handlers handlers, HandlerChooser chooser, String address) {
+    return chooser != null ? handlers.choose(chooser, address) : handlers.choose();
+  }
+
   protected void checkStarted() {
     if (!started) {
       throw new IllegalStateException("Event Bus is not started");
     }
   }
 
-  protected String generateReplyAddress() {
-    return Long.toString(replySequence.incrementAndGet());
+  protected String generateReplyAddress(long id) {
+    return ReplyHandlers.REPLY_ADDRESS_PREFIX + id;
   }
 
-  private <T> HandlerRegistration<T> createReplyHandlerRegistration(MessageImpl message,
-                                                                    DeliveryOptions options,
-                                                                    Handler<AsyncResult<Message<T>>> replyHandler) {
+  private <T> ReplyHandler<T> createReplyHandler(MessageImpl message,
+                                                 DeliveryOptions options,
+                                                 Handler<AsyncResult<Message<T>>> replyHandler) {
     if (replyHandler != null) {
-      long timeout = options.getSendTimeout();
-      String replyAddress = generateReplyAddress();
+      long id = replyHandlers.nextId();
+      String replyAddress = generateReplyAddress(id);
       message.setReplyAddress(replyAddress);
-      Handler<Message<T>> simpleReplyHandler = convertHandler(replyHandler);
-      HandlerRegistration<T> registration =
-        new HandlerRegistration<>(vertx, metrics, this, replyAddress, message.address, true, replyHandler, timeout);
-      registration.handler(simpleReplyHandler);
-      return registration;
+      Context context = Vertx.currentContext();
+      boolean hasContext = context != null;
+      if (!hasContext) {
+        // Embedded
+        context = vertx.getOrCreateContext();
+      }
+      // The reply is dropped when the context is closed, like a consumer registered on it
+      return replyHandlers.add(id, replyAddress, message.address, context, hasContext, replyHandler,
+        options.getSendTimeout());
     } else {
       return null;
     }
   }
 
+  /**
+   * Resolve an address for sending many messages to it, see {@link AddressHandle}.
+   *
+   * @param address  the address
+   * @return the address handle
+   */
+  public AddressHandle addressHandle(String address) {
+    Objects.requireNonNull(address, "address");
+    return new AddressHandle(this, address);
+  }
+
+  long registrationEpoch() {
+    return registrationEpoch.get();
+  }
+
+  <T> void sendOrPub(AddressHandle addressHandle, boolean send, Object body, DeliveryOptions options,
+                     Handler<AsyncResult<Message<T>>> replyHandler) {
+    MessageImpl message = createMessage(send, addressHandle.address(), options.getHeaders(), body, options.getCodecName());
+    message.setAddressHandle(addressHandle);
+    sendOrPubInternal(message, options, replyHandler);
+  }
+
   private <T> void sendOrPubInternal(MessageImpl message, DeliveryOptions options,
                                      Handler<AsyncResult<Message<T>>> replyHandler) {
     checkStarted();
-    HandlerRegistration<T> replyHandlerRegistration = createReplyHandlerRegistration(message, options, replyHandler);
-    SendContextImpl<T> sendContext = new SendContextImpl<>(message, options, replyHandlerRegistration);
-    sendContext.next();
+    message.setSharedBody(options.isSharedBody());
+    message.setHandlerChooser(options.getHandlerChooser());
+    ReplyHandler<T> replyHandlerEntry = createReplyHandler(message, options, replyHandler);
+    if (interceptors.length == 0) {
+      // Fast path, the send context is only needed by the interceptors
+      sendOrPub(message, replyHandlerEntry);
+    } else {
+      new SendContextImpl<>(message, options, replyHandlerEntry).next();
+    }
   }
 
   protected class SendContextImpl<T> implements SendContext<T> {
 
     public final MessageImpl message;
     public final DeliveryOptions options;
-    public final HandlerRegistration<T> handlerRegistration;
-    public final Iterator<Handler<SendContext>> iter;
+    public final ReplyHandler<T> replyHandler;
+    private final Handler<SendContext>[] interceptors;
+    private int interceptorIdx;
 
-    public SendContextImpl(MessageImpl message, DeliveryOptions options, HandlerRegistration<T> handlerRegistration) {
+    public SendContextImpl(MessageImpl message, DeliveryOptions options, ReplyHandler<T> replyHandler) {
       this.message = message;
       this.options = options;
-      this.handlerRegistration = handlerRegistration;
-      this.iter = interceptors.iterator();
+      this.replyHandler = replyHandler;
+      this.interceptors = EventBusImpl.this.interceptors;
     }
 
     @Override
@@ -437,17 +610,21 @@ public class EventBusImpl implements EventBus, MetricsProvider {
       return message;
     }
 
+    protected Handler<SendContext> nextInterceptor() {
+      return interceptorIdx < interceptors.length ? interceptors[interceptorIdx++] : null;
+    }
+
     @Override
     public void next() {
-      if (iter.hasNext()) {
-        Handler<SendContext> handler = iter.next();
+      Handler<SendContext> handler = nextInterceptor();
+      if (handler != null) {
         try {
           handler.handle(this);
         } catch (Throwable t) {
           log.error("Failure in interceptor", t);
         }
       } else {
-        sendOrPub(this);
+        sendOrPub(message, replyHandler);
       }
     }
 
@@ -461,19 +638,19 @@ public class EventBusImpl implements EventBus, MetricsProvider {
 
     private final MessageImpl replierMessage;
 
-    public ReplySendContextImpl(MessageImpl message, DeliveryOptions options, HandlerRegistration<T> handlerRegistration,
+    public ReplySendContextImpl(MessageImpl message, DeliveryOptions options, ReplyHandler<T> replyHandler,
                                 MessageImpl replierMessage) {
-      super(message, options, handlerRegistration);
+      super(message, options, replyHandler);
       this.replierMessage = replierMessage;
     }
 
     @Override
     public void next() {
-      if (iter.hasNext()) {
-        Handler<SendContext> handler = iter.next();
+      Handler<SendContext> handler = nextInterceptor();
+      if (handler != null) {
         handler.handle(this);
       } else {
-        sendReply(this, replierMessage);
+        sendReply(message, replyHandler, replierMessage);
       }
     }
   }
@@ -486,6 +663,11 @@ public class EventBusImpl implements EventBus, MetricsProvider {
         holder.getHandler().unregister(true);
       }
     }
+    for (Handlers handlers: wildcardHandlers.handlers()) {
+      for (HandlerHolder holder: handlers.list) {
+        holder.getHandler().unregister(true);
+      }
+    }
   }
 
   private <T> void deliverToHandler(MessageImpl msg, HandlerHolder<T> holder) {
@@ -497,19 +679,7 @@ public class EventBusImpl implements EventBus, MetricsProvider {
       metrics.scheduleMessage(holder.getHandler().getMetric(), msg.isLocal());
     }
 
-    holder.getContext().runOnContext((v) -> {
-      // Need to check handler is still there - the handler might have been removed after the message were sent but
-      // before it was received
-      try {
-        if (!holder.isRemoved()) {
-          holder.getHandler().handle(copied);
-        }
-      } finally {
-        if (holder.isReplyHandler()) {
-          holder.getHandler().unregister();
-        }
-      }
-    });
+    holder.deliver(copied);
   }
 
   public class HandlerEntry<T> implements Closeable {
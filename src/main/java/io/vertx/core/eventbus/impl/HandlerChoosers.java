@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2011-2016 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.core.eventbus.impl;
+
+import io.netty.channel.EventLoop;
+import io.vertx.core.Context;
+import io.vertx.core.impl.ContextInternal;
+import io.vertx.core.spi.eventbus.HandlerChooser;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The built-in {@link HandlerChooser} implementations.
+ * <p>
+ * They are stateless: ties are broken by starting the scan at a random index, so the choice doesn't depend on a
+ * counter shared between the event loops.
+ */
+public final class HandlerChoosers {
+
+  public static final HandlerChooser CONTEXT_AFFINE = HandlerChoosers::contextAffine;
+  public static final HandlerChooser LEAST_PENDING = HandlerChoosers::leastPending;
+  public static final HandlerChooser POWER_OF_TWO_CHOICES = HandlerChoosers::powerOfTwoChoices;
+
+  private HandlerChoosers() {
+  }
+
+  private static int contextAffine(String address, Context sender, List<? extends HandlerChooser.Candidate> candidates) {
+    int size = candidates.size();
+    int start = size == 1 ? 0 : ThreadLocalRandom.current().nextInt(size);
+    if (sender instanceof ContextInternal) {
+      EventLoop eventLoop = ((ContextInternal) sender).nettyEventLoop();
+      for (int i = 0; i < size; i++) {
+        int idx = (start + i) % size;
+        Context context = candidates.get(idx).context();
+        if (context == sender) {
+          return idx;
+        }
+        // A worker consumer does not run on its event loop
+        if (context.isEventLoopContext() && ((ContextInternal) context).nettyEventLoop() == eventLoop) {
+          return idx;
+        }
+      }
+    }
+    return start;
+  }
+
+  private static int leastPending(String address, Context sender, List<? extends HandlerChooser.Candidate> candidates) {
+    int size = candidates.size();
+    int start = size == 1 ? 0 : ThreadLocalRandom.current().nextInt(size);
+    int chosen = start;
+    int min = Integer.MAX_VALUE;
+    for (int i = 0; i < size; i++) {
+      int idx = (start + i) % size;
+      int pending = candidates.get(idx).pendingMessages();
+      if (pending < min) {
+        min = pending;
+        chosen = idx;
+        if (pending == 0) {
+          break;
+        }
+      }
+    }
+    return chosen;
+  }
+
+  private static int powerOfTwoChoices(String address, Context sender, List<? extends HandlerChooser.Candidate> candidates) {
+    int size = candidates.size();
+    if (size == 1) {
+      return 0;
+    }
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int first = random.nextInt(size);
+    // A second distinct index
+    int second = (first + 1 + random.nextInt(size - 1)) % size;
+    return candidates.get(second).pendingMessages() < candidates.get(first).pendingMessages() ? second : first;
+  }
+}
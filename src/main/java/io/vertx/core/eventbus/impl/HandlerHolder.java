@@ -1,27 +1,122 @@
 package io.vertx.core.eventbus.impl;
 
 import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.impl.ContextInternal;
+import io.vertx.core.spi.eventbus.HandlerChooser;
 import io.vertx.core.spi.metrics.EventBusMetrics;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
 /**
  * @author <a href="http://tfox.org">Tim Fox</a>
  */
-public class HandlerHolder<T> {
+public class HandlerHolder<T> implements HandlerChooser.Candidate {
 
   private final EventBusMetrics metrics;
   private final Context context;
   private final HandlerRegistration<T> handler;
-  private final boolean replyHandler;
   private final boolean localOnly;
+  private final int batchSize;
+  private final Queue<Message<T>> deliveries;
+  private final AtomicBoolean scheduled;
+  private final Handler<Void> drainTask;
+  // The ordered lanes of a consumer handling its messages in parallel
+  private final Function<Message<T>, ?> keyExtractor;
+  private final Executor[] lanes;
+  // Messages delivered and not yet handled, the queue size is not constant time
+  private final AtomicInteger inFlight = new AtomicInteger();
   private boolean removed;
 
-  public HandlerHolder(EventBusMetrics metrics, HandlerRegistration<T> handler, boolean replyHandler, boolean localOnly,
-                       Context context) {
+  public HandlerHolder(EventBusMetrics metrics, HandlerRegistration<T> handler, boolean localOnly, Context context,
+                       int batchSize) {
     this.metrics = metrics;
     this.context = context;
     this.handler = handler;
-    this.replyHandler = replyHandler;
     this.localOnly = localOnly;
+    this.batchSize = batchSize;
+    Function<Message<T>, ?> keyExtractor = handler.keyExtractor();
+    if (keyExtractor != null && !context.isEventLoopContext()) {
+      this.keyExtractor = keyExtractor;
+      this.lanes = new Executor[handler.parallelism()];
+      for (int i = 0; i < lanes.length; i++) {
+        lanes[i] = ((ContextInternal) context).createOrderedWorkerExecutor();
+      }
+      handler.setLanes(lanes);
+    } else {
+      this.keyExtractor = null;
+      this.lanes = null;
+    }
+    // A multi-threaded worker handles the messages concurrently, so they can't be drained by a single task
+    if (lanes != null || context.isMultiThreadedWorkerContext()) {
+      this.deliveries = null;
+      this.scheduled = null;
+      this.drainTask = null;
+    } else {
+      this.deliveries = new ConcurrentLinkedQueue<>();
+      this.scheduled = new AtomicBoolean();
+      this.drainTask = v -> drain();
+    }
+  }
+
+  /**
+   * Deliver a message to the handler on its context. Messages sent from any thread are queued and a single task
+   * is scheduled on the context to deliver up to {@code batchSize} of them, rather than one task per message.
+   * <p>
+   * The messages of a consumer ordered by key are dispatched to the lane of their key instead.
+   */
+  void deliver(Message<T> message) {
+    inFlight.incrementAndGet();
+    if (lanes != null) {
+      Object key = keyExtractor.apply(message);
+      int lane = key != null ? (key.hashCode() & 0x7FFFFFFF) % lanes.length : 0;
+      lanes[lane].execute(() -> handle(message, lane));
+    } else if (deliveries == null) {
+      context.runOnContext(v -> handle(message, -1));
+    } else {
+      deliveries.add(message);
+      if (scheduled.compareAndSet(false, true)) {
+        context.runOnContext(drainTask);
+      }
+    }
+  }
+
+  private void drain() {
+    try {
+      for (int i = 0; i < batchSize; i++) {
+        Message<T> message = deliveries.poll();
+        if (message == null) {
+          break;
+        }
+        handle(message, -1);
+      }
+    } finally {
+      // A failure is reported by the context, the remaining messages are delivered by the next task
+      scheduled.set(false);
+      if (!deliveries.isEmpty() && scheduled.compareAndSet(false, true)) {
+        context.runOnContext(drainTask);
+      }
+    }
+  }
+
+  private void handle(Message<T> message, int lane) {
+    // Need to check handler is still there - the handler might have been removed after the message were sent but
+    // before it was received
+    try {
+      if (!isRemoved()) {
+        handler.handle(message, lane);
+      } else {
+        handler.sendCredit(message);
+      }
+    } finally {
+      inFlight.decrementAndGet();
+    }
   }
 
   // We use a synchronized block to protect removed as it can be unregistered from a different thread
@@ -62,12 +157,18 @@ public class HandlerHolder<T> {
     return context;
   }
 
-  public HandlerRegistration<T> getHandler() {
-    return handler;
+  @Override
+  public Context context() {
+    return context;
+  }
+
+  @Override
+  public int pendingMessages() {
+    return inFlight.get() + handler.pendingMessages();
   }
 
-  public boolean isReplyHandler() {
-    return replyHandler;
+  public HandlerRegistration<T> getHandler() {
+    return handler;
   }
 
   public boolean isLocalOnly() {
@@ -3,8 +3,6 @@ package io.vertx.core.eventbus.impl;
 import io.vertx.core.*;
 import io.vertx.core.eventbus.Message;
 import io.vertx.core.eventbus.MessageConsumer;
-import io.vertx.core.eventbus.ReplyException;
-import io.vertx.core.eventbus.ReplyFailure;
 import io.vertx.core.eventbus.impl.clustered.ClusteredMessage;
 import io.vertx.core.impl.Arguments;
 import io.vertx.core.logging.Logger;
@@ -15,6 +13,8 @@ import io.vertx.core.streams.ReadStream;
 import java.util.ArrayDeque;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 /*
  * This class is optimised for performance when used on the same event loop it was created on.
@@ -33,10 +33,8 @@ public class HandlerRegistration<T> implements MessageConsumer<T>, Handler<Messa
   private final EventBusMetrics metrics;
   private final EventBusImpl eventBus;
   private final String address;
-  private final String repliedAddress;
   private final boolean localOnly;
-  private final Handler<AsyncResult<Message<T>>> asyncResultHandler;
-  private long timeoutID = -1;
+  private final boolean wildcard;
   private boolean registered;
   private Handler<Message<T>> handler;
   private Context handlerContext;
@@ -46,33 +44,48 @@ public class HandlerRegistration<T> implements MessageConsumer<T>, Handler<Messa
   private Handler<Message<T>> discardHandler;
   private int maxBufferedMessages = DEFAULT_MAX_BUFFERED_MESSAGES;
   private final Queue<Message<T>> pending = new ArrayDeque<>(8);
+  // The pending messages of a consumer ordered by key are queued per lane, a lane only delivers its own messages so
+  // the messages of a key are never handled by another lane
+  private Executor[] lanes;
+  private Queue<Message<T>>[] lanePending;
+  private int pendingCount;
+  // The number of pending messages, read by the handler choosers of any thread without locking the registration
+  private volatile int pendingSize;
   private boolean paused;
   private Object metric;
+  private Function<Message<T>, ?> keyExtractor;
+  private int parallelism;
 
   public HandlerRegistration(Vertx vertx, EventBusMetrics metrics, EventBusImpl eventBus, String address,
-                             String repliedAddress, boolean localOnly,
-                             Handler<AsyncResult<Message<T>>> asyncResultHandler, long timeout) {
+                             boolean localOnly) {
+    this(vertx, metrics, eventBus, address, localOnly, false);
+  }
+
+  public HandlerRegistration(Vertx vertx, EventBusMetrics metrics, EventBusImpl eventBus, String address,
+                             boolean localOnly, boolean wildcard) {
     this.vertx = vertx;
     this.metrics = metrics;
     this.eventBus = eventBus;
     this.address = address;
-    this.repliedAddress = repliedAddress;
     this.localOnly = localOnly;
-    this.asyncResultHandler = asyncResultHandler;
-    if (timeout != -1) {
-      timeoutID = vertx.setTimer(timeout, tid -> {
-        metrics.replyFailure(address, ReplyFailure.TIMEOUT);
-        sendAsyncResultFailure(ReplyFailure.TIMEOUT, "Timed out after waiting " + timeout + "(ms) for a reply. address: " + address);
-      });
-    }
+    this.wildcard = wildcard;
   }
 
   @Override
   public synchronized MessageConsumer<T> setMaxBufferedMessages(int maxBufferedMessages) {
     Arguments.require(maxBufferedMessages >= 0, "Max buffered messages cannot be negative");
-    while (pending.size() > maxBufferedMessages) {
-      pending.poll();
+    int lane = -1;
+    while (pendingCount > maxBufferedMessages) {
+      Message<T> message = pending(lane).poll();
+      if (message != null) {
+        pendingCount--;
+        // Give back the credit of a discarded flow controlled message, or its producer would stall
+        sendCredit(message);
+      } else {
+        lane++;
+      }
     }
+    pendingSize = pendingCount;
     this.maxBufferedMessages = maxBufferedMessages;
     return this;
   }
@@ -87,6 +100,48 @@ public class HandlerRegistration<T> implements MessageConsumer<T>, Handler<Messa
     return address;
   }
 
+  @Override
+  public MessageConsumer<T> orderedBy(String headerName, int parallelism) {
+    Objects.requireNonNull(headerName, "headerName");
+    return orderedBy(msg -> msg.headers().get(headerName), parallelism);
+  }
+
+  @Override
+  public synchronized MessageConsumer<T> orderedBy(Function<Message<T>, ?> keyExtractor, int parallelism) {
+    Objects.requireNonNull(keyExtractor, "keyExtractor");
+    Arguments.require(parallelism >= 1, "Parallelism must be >= 1");
+    if (registered) {
+      throw new IllegalStateException("The consumer is already registered");
+    }
+    this.keyExtractor = keyExtractor;
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  /**
+   * @return the key extractor of a consumer handling its messages in parallel or {@code null}
+   */
+  synchronized Function<Message<T>, ?> keyExtractor() {
+    return keyExtractor;
+  }
+
+  synchronized int parallelism() {
+    return parallelism;
+  }
+
+  @SuppressWarnings("unchecked")
+  synchronized void setLanes(Executor[] lanes) {
+    this.lanes = lanes;
+    this.lanePending = new Queue[lanes.length];
+    for (int i = 0; i < lanes.length; i++) {
+      lanePending[i] = new ArrayDeque<>(8);
+    }
+  }
+
+  private Queue<Message<T>> pending(int lane) {
+    return lane < 0 ? pending : lanePending[lane];
+  }
+
   @Override
   public synchronized void completionHandler(Handler<AsyncResult<Void>> completionHandler) {
     Objects.requireNonNull(completionHandler);
@@ -113,15 +168,7 @@ public class HandlerRegistration<T> implements MessageConsumer<T>, Handler<Messa
     doUnregister(null, callEndHandler);
   }
 
-  public void sendAsyncResultFailure(ReplyFailure failure, String msg) {
-    unregister();
-    asyncResultHandler.handle(Future.failedFuture(new ReplyException(failure, msg)));
-  }
-
   private void doUnregister(Handler<AsyncResult<Void>> completionHandler, boolean callEndHandler) {
-    if (timeoutID != -1) {
-      vertx.cancelTimer(timeoutID);
-    }
     if (endHandler != null && callEndHandler) {
       Handler<Void> theEndHandler = endHandler;
       Handler<AsyncResult<Void>> handler = completionHandler;
@@ -132,6 +179,7 @@ public class HandlerRegistration<T> implements MessageConsumer<T>, Handler<Messa
         }
       };
     }
+    discardPending();
     if (registered) {
       registered = false;
       eventBus.removeRegistration(address, this, completionHandler);
@@ -140,6 +188,18 @@ public class HandlerRegistration<T> implements MessageConsumer<T>, Handler<Messa
     }
   }
 
+  // The buffered messages are never handled once unregistered
+  private synchronized void discardPending() {
+    for (int lane = -1; pendingCount > 0; lane++) {
+      Message<T> message;
+      while ((message = pending(lane).poll()) != null) {
+        pendingCount--;
+        sendCredit(message);
+      }
+    }
+    pendingSize = 0;
+  }
+
   private void callCompletionHandlerAsync(Handler<AsyncResult<Void>> completionHandler) {
     if (completionHandler != null) {
       vertx.runOnContext(v -> completionHandler.handle(Future.succeededFuture()));
@@ -154,24 +214,34 @@ public class HandlerRegistration<T> implements MessageConsumer<T>, Handler<Messa
     this.result = result;
     if (completionHandler != null) {
       if (result.succeeded()) {
-        metric = metrics.handlerRegistered(address, repliedAddress);
+        metric = metrics.handlerRegistered(address, null);
       }
       Handler<AsyncResult<Void>> callback = completionHandler;
       vertx.runOnContext(v -> callback.handle(result));
     } else if (result.failed()) {
       log.error("Failed to propagate registration for handler " + handler + " and address " + address);
     } else {
-      metric = metrics.handlerRegistered(address, repliedAddress);
+      metric = metrics.handlerRegistered(address, null);
     }
   }
 
   @Override
   public void handle(Message<T> message) {
+    handle(message, -1);
+  }
+
+  /**
+   * Handle a message of a lane of a consumer ordered by key, or of no lane when {@code lane} is {@code -1}.
+   */
+  void handle(Message<T> message, int lane) {
     Handler<Message<T>> theHandler;
     synchronized (this) {
+      Queue<Message<T>> queue = pending(lane);
       if (paused) {
-        if (pending.size() < maxBufferedMessages) {
-          pending.add(message);
+        // A flow controlled message is never discarded, the producer stops sending when it runs out of credits
+        if (pendingCount < maxBufferedMessages || message.headers().contains(MessageProducerImpl.CREDIT_ADDRESS_HEADER_NAME)) {
+          queue.add(message);
+          pendingSize = ++pendingCount;
         } else {
           if (discardHandler != null) {
             discardHandler.handle(message);
@@ -181,20 +251,20 @@ public class HandlerRegistration<T> implements MessageConsumer<T>, Handler<Messa
         }
         return;
       } else {
-        if (pending.size() > 0) {
-          pending.add(message);
-          message = pending.poll();
+        if (!queue.isEmpty()) {
+          queue.add(message);
+          message = queue.poll();
         }
         theHandler = handler;
       }
     }
-    deliver(theHandler, message);
+    deliver(theHandler, message, lane);
   }
 
-  private void deliver(Handler<Message<T>> theHandler, Message<T> message) {
+  private void deliver(Handler<Message<T>> theHandler, Message<T> message, int lane) {
     // Handle the message outside the sync block
     // https://bugs.eclipse.org/bugs/show_bug.cgi?id=473714
-    checkNextTick();
+    checkNextTick(lane);
     boolean local = true;
     if (message instanceof ClusteredMessage) {
       // A bit hacky
@@ -203,10 +273,7 @@ public class HandlerRegistration<T> implements MessageConsumer<T>, Handler<Messa
         local = false;
       }
     }
-    String creditsAddress = message.headers().get(MessageProducerImpl.CREDIT_ADDRESS_HEADER_NAME);
-    if (creditsAddress != null) {
-      eventBus.send(creditsAddress, 1);
-    }
+    sendCredit(message);
     try {
       metrics.beginHandleMessage(metric, local);
       theHandler.handle(message);
@@ -218,21 +285,32 @@ public class HandlerRegistration<T> implements MessageConsumer<T>, Handler<Messa
     }
   }
 
-  private synchronized void checkNextTick() {
+  void sendCredit(Message<T> message) {
+    eventBus.sendCredit(message);
+  }
+
+  private synchronized void checkNextTick(int lane) {
     // Check if there are more pending messages in the queue that can be processed next time around
-    if (!pending.isEmpty()) {
-      handlerContext.runOnContext(v -> {
-        Message<T> message;
-        Handler<Message<T>> theHandler;
-        synchronized (HandlerRegistration.this) {
-          if (paused || (message = pending.poll()) == null) {
-            return;
-          }
-          theHandler = handler;
-        }
-        deliver(theHandler, message);
-      });
+    if (!pending(lane).isEmpty()) {
+      if (lane < 0) {
+        handlerContext.runOnContext(v -> deliverPending(lane));
+      } else {
+        lanes[lane].execute(() -> deliverPending(lane));
+      }
+    }
+  }
+
+  private void deliverPending(int lane) {
+    Message<T> message;
+    Handler<Message<T>> theHandler;
+    synchronized (this) {
+      if (paused || (message = pending(lane).poll()) == null) {
+        return;
+      }
+      pendingSize = --pendingCount;
+      theHandler = handler;
     }
+    deliver(theHandler, message, lane);
   }
 
   /*
@@ -247,7 +325,7 @@ public class HandlerRegistration<T> implements MessageConsumer<T>, Handler<Messa
     this.handler = handler;
     if (this.handler != null && !registered) {
       registered = true;
-      eventBus.addRegistration(address, this, repliedAddress != null, localOnly);
+      eventBus.addRegistration(address, this, localOnly);
     } else if (this.handler == null && registered) {
       // This will set registered to false
       this.unregister();
@@ -277,7 +355,12 @@ public class HandlerRegistration<T> implements MessageConsumer<T>, Handler<Messa
   public synchronized MessageConsumer<T> resume() {
     if (paused) {
       paused = false;
-      checkNextTick();
+      checkNextTick(-1);
+      if (lanes != null) {
+        for (int i = 0; i < lanes.length; i++) {
+          checkNextTick(i);
+        }
+      }
     }
     return this;
   }
@@ -299,6 +382,20 @@ public class HandlerRegistration<T> implements MessageConsumer<T>, Handler<Messa
     return this;
   }
 
+  /**
+   * @return the number of messages buffered while the consumer is paused
+   */
+  public int pendingMessages() {
+    return pendingSize;
+  }
+
+  /**
+   * @return {@code true} when the address is a pattern, see {@link io.vertx.core.eventbus.EventBus#wildcardConsumer(String)}
+   */
+  public boolean isWildcard() {
+    return wildcard;
+  }
+
   public Handler<Message<T>> getHandler() {
     return handler;
   }
@@ -1,5 +1,10 @@
 package io.vertx.core.eventbus.impl;
 
+import io.vertx.core.Vertx;
+import io.vertx.core.spi.eventbus.HandlerChooser;
+
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -11,6 +16,27 @@ public class Handlers {
 
   private final AtomicInteger pos = new AtomicInteger(0);
   public final List<HandlerHolder> list = new CopyOnWriteArrayList<>();
+  // Immutable copy of the list given to the handler choosers, it is updated when the list changes
+  private volatile List<HandlerHolder> candidates = Collections.emptyList();
+
+  public synchronized void add(HandlerHolder holder) {
+    list.add(holder);
+    candidates = Collections.unmodifiableList(Arrays.asList(list.toArray(new HandlerHolder[0])));
+  }
+
+  public synchronized void remove(int index) {
+    list.remove(index);
+    candidates = Collections.unmodifiableList(Arrays.asList(list.toArray(new HandlerHolder[0])));
+  }
+
+  public HandlerHolder choose(HandlerChooser chooser, String address) {
+    List<HandlerHolder> snapshot = candidates;
+    if (snapshot.isEmpty()) {
+      return null;
+    }
+    int idx = chooser.choose(address, Vertx.currentContext(), snapshot);
+    return idx >= 0 && idx < snapshot.size() ? snapshot.get(idx) : null;
+  }
 
   public HandlerHolder choose() {
     while (true) {
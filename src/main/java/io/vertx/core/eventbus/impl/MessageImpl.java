@@ -23,6 +23,7 @@ import io.vertx.core.eventbus.*;
 import io.vertx.core.http.CaseInsensitiveHeaders;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
+import io.vertx.core.spi.eventbus.HandlerChooser;
 
 import java.util.List;
 import java.util.Map;
@@ -42,6 +43,14 @@ public class MessageImpl<U, V> implements Message<V> {
   protected U sentBody;
   protected V receivedBody;
   protected boolean send;
+  protected boolean sharedBody;
+  // The body of a message sent with a primitive send, it is boxed only when body() is called. A double is held as
+  // its raw long bits
+  protected boolean primitiveBody;
+  protected long primitiveBits;
+  private V sharedReceivedBody;
+  private HandlerChooser handlerChooser;
+  private AddressHandle addressHandle;
 
   public MessageImpl() {
   }
@@ -72,9 +81,16 @@ public class MessageImpl<U, V> implements Message<V> {
     }
     if (other.sentBody != null) {
       this.sentBody = other.sentBody;
-      this.receivedBody = messageCodec.transform(other.sentBody);
+      if (other.sharedBody) {
+        this.receivedBody = other.sharedReceivedBody();
+      } else {
+        this.receivedBody = messageCodec.transform(other.sentBody);
+      }
     }
+    this.primitiveBody = other.primitiveBody;
+    this.primitiveBits = other.primitiveBits;
     this.send = other.send;
+    this.sharedBody = other.sharedBody;
   }
 
   public MessageImpl<U, V> copyBeforeReceive() {
@@ -97,12 +113,65 @@ public class MessageImpl<U, V> implements Message<V> {
 
   @Override
   public V body() {
-    if (receivedBody == null && sentBody != null) {
-      receivedBody = messageCodec.transform(sentBody);
+    if (receivedBody == null) {
+      if (sentBody != null) {
+        receivedBody = messageCodec.transform(sentBody);
+      } else if (primitiveBody) {
+        receivedBody = boxPrimitiveBody();
+      }
     }
     return receivedBody;
   }
 
+  @Override
+  public int intBody() {
+    if (primitiveBody) {
+      return messageCodec == CodecManager.DOUBLE_MESSAGE_CODEC ? (int) Double.longBitsToDouble(primitiveBits) : (int) primitiveBits;
+    }
+    return ((Number) body()).intValue();
+  }
+
+  @Override
+  public long longBody() {
+    if (primitiveBody) {
+      return messageCodec == CodecManager.DOUBLE_MESSAGE_CODEC ? (long) Double.longBitsToDouble(primitiveBits) : primitiveBits;
+    }
+    return ((Number) body()).longValue();
+  }
+
+  @Override
+  public double doubleBody() {
+    if (primitiveBody) {
+      return messageCodec == CodecManager.DOUBLE_MESSAGE_CODEC ? Double.longBitsToDouble(primitiveBits) : (double) primitiveBits;
+    }
+    return ((Number) body()).doubleValue();
+  }
+
+  /**
+   * Set the body of a message sent with a primitive send.
+   *
+   * @param codec  the codec of the boxed type, one of the int, long or double system codecs
+   * @param bits  the value, or the raw long bits of a double
+   */
+  @SuppressWarnings("unchecked")
+  public void setPrimitiveBody(MessageCodec codec, long bits) {
+    this.messageCodec = codec;
+    this.sentBody = null;
+    this.primitiveBody = true;
+    this.primitiveBits = bits;
+  }
+
+  @SuppressWarnings("unchecked")
+  private V boxPrimitiveBody() {
+    if (messageCodec == CodecManager.INT_MESSAGE_CODEC) {
+      return (V) Integer.valueOf((int) primitiveBits);
+    } else if (messageCodec == CodecManager.LONG_MESSAGE_CODEC) {
+      return (V) Long.valueOf(primitiveBits);
+    } else {
+      return (V) Double.valueOf(Double.longBitsToDouble(primitiveBits));
+    }
+  }
+
   @Override
   public String replyAddress() {
     return replyAddress;
@@ -118,12 +187,12 @@ public class MessageImpl<U, V> implements Message<V> {
 
   @Override
   public void reply(Object message) {
-    reply(message, new DeliveryOptions(), null);
+    reply(message, EventBusImpl.DEFAULT_OPTIONS, null);
   }
 
   @Override
   public <R> void reply(Object message, Handler<AsyncResult<Message<R>>> replyHandler) {
-    reply(message, new DeliveryOptions(), replyHandler);
+    reply(message, EventBusImpl.DEFAULT_OPTIONS, replyHandler);
   }
 
   @Override
@@ -146,6 +215,26 @@ public class MessageImpl<U, V> implements Message<V> {
     return send;
   }
 
+  public void setSharedBody(boolean sharedBody) {
+    this.sharedBody = sharedBody;
+  }
+
+  public HandlerChooser handlerChooser() {
+    return handlerChooser;
+  }
+
+  public void setHandlerChooser(HandlerChooser handlerChooser) {
+    this.handlerChooser = handlerChooser;
+  }
+
+  public AddressHandle addressHandle() {
+    return addressHandle;
+  }
+
+  public void setAddressHandle(AddressHandle addressHandle) {
+    this.addressHandle = addressHandle;
+  }
+
   public MessageCodec<U, V> codec() {
     return messageCodec;
   }
@@ -163,4 +252,12 @@ public class MessageImpl<U, V> implements Message<V> {
   protected boolean isLocal() {
     return true;
   }
+
+  // Copies are created by the sending thread, so the shared body is computed at most once per message
+  private V sharedReceivedBody() {
+    if (sharedReceivedBody == null) {
+      sharedReceivedBody = CodecManager.sharedBody(messageCodec, sentBody);
+    }
+    return sharedReceivedBody;
+  }
 }
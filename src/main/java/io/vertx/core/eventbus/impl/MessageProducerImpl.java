@@ -20,33 +20,49 @@ import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.*;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
 
 import java.util.ArrayDeque;
 import java.util.Queue;
 import java.util.UUID;
 
 /**
+ * A point-to-point producer is flow controlled with credits: it starts with as many credits as its write queue
+ * max size, each send consumes a credit and the consumer grants it back when the message is handled. When it runs
+ * out of credits, the messages are queued until credits are granted, and {@link #writeQueueFull()} returns
+ * {@code true} until then. The consumer never discards a flow controlled message (see {@link HandlerRegistration}),
+ * so a paused consumer buffers at most the window of each producer.
+ * <p>
+ * A publishing producer is not flow controlled.
+ *
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
  */
 public class MessageProducerImpl<T> implements MessageProducer<T> {
 
+  private static final Logger log = LoggerFactory.getLogger(MessageProducerImpl.class);
+
   public static final String CREDIT_ADDRESS_HEADER_NAME = "__vertx.credit";
 
   private final Vertx vertx;
   private final EventBus bus;
   private final boolean send;
   private final String address;
-  private final Queue<T> pending = new ArrayDeque<>();
+  private final AddressHandle addressHandle;
+  private final Queue<PendingMessage<T>> pending = new ArrayDeque<>();
   private final MessageConsumer<Integer> creditConsumer;
   private DeliveryOptions options;
   private int maxSize = DEFAULT_WRITE_QUEUE_MAX_SIZE;
   private int credits = DEFAULT_WRITE_QUEUE_MAX_SIZE;
   private Handler<Void> drainHandler;
+  // Messages are queued until the credit consumer can be reached
+  private boolean ready;
 
   public MessageProducerImpl(Vertx vertx, String address, boolean send, DeliveryOptions options) {
     this.vertx = vertx;
     this.bus = vertx.eventBus();
     this.address = address;
+    this.addressHandle = bus instanceof EventBusImpl ? ((EventBusImpl) bus).addressHandle(address) : null;
     this.send = send;
     this.options = options;
     if (send) {
@@ -55,8 +71,20 @@ public class MessageProducerImpl<T> implements MessageProducer<T> {
         doReceiveCredit(msg.body());
       });
       options.addHeader(CREDIT_ADDRESS_HEADER_NAME, creditAddress);
+      if (vertx.isClustered()) {
+        // The credits of a remote consumer are lost if they are sent before the registration is propagated
+        creditConsumer.completionHandler(ar -> {
+          if (ar.failed()) {
+            log.error("Failed to register the credit consumer of the producer for " + address, ar.cause());
+          }
+          setReady();
+        });
+      } else {
+        ready = true;
+      }
     } else {
       creditConsumer = null;
+      ready = true;
     }
   }
 
@@ -92,6 +120,7 @@ public class MessageProducerImpl<T> implements MessageProducer<T> {
     int delta = s - maxSize;
     maxSize = s;
     credits += delta;
+    sendPending();
     return this;
   }
 
@@ -99,6 +128,8 @@ public class MessageProducerImpl<T> implements MessageProducer<T> {
   public synchronized MessageProducer<T> write(T data) {
     if (send) {
       doSend(data, null);
+    } else if (addressHandle != null) {
+      addressHandle.publish(data, options);
     } else {
       bus.publish(address, data, options);
     }
@@ -107,7 +138,7 @@ public class MessageProducerImpl<T> implements MessageProducer<T> {
 
   @Override
   public synchronized boolean writeQueueFull() {
-    return credits == 0;
+    return credits <= 0;
   }
 
   @Override
@@ -141,33 +172,63 @@ public class MessageProducerImpl<T> implements MessageProducer<T> {
   }
 
   private synchronized <R> void doSend(T data, Handler<AsyncResult<Message<R>>> replyHandler) {
-    if (credits > 0) {
+    if (credits > 0 && ready && pending.isEmpty()) {
       credits--;
-      if (replyHandler == null) {
-        bus.send(address, data, options);
-      } else {
-        bus.send(address, data, options, replyHandler);
-      }
+      sendNow(data, replyHandler);
     } else {
-      pending.add(data);
+      // A queued message also takes a credit, so the write queue is full until the queue is flushed
+      credits--;
+      pending.add(new PendingMessage<>(data, replyHandler));
     }
   }
 
-  private synchronized void doReceiveCredit(int credit) {
-    credits += credit;
-    while (credits > 0) {
-      T data = pending.poll();
-      if (data == null) {
+  private <R> void sendNow(T data, Handler<AsyncResult<Message<R>>> replyHandler) {
+    if (addressHandle != null) {
+      addressHandle.send(data, options, replyHandler);
+    } else if (replyHandler == null) {
+      bus.send(address, data, options);
+    } else {
+      bus.send(address, data, options, replyHandler);
+    }
+  }
+
+  private synchronized void setReady() {
+    ready = true;
+    sendPending();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void sendPending() {
+    // Queued messages already took their credit
+    int available = credits + pending.size();
+    while (available > 0 && ready) {
+      PendingMessage<T> message = pending.poll();
+      if (message == null) {
         break;
-      } else {
-        credits--;
-        bus.send(address, data, options);
       }
+      available--;
+      sendNow(message.data, message.replyHandler);
     }
+  }
+
+  private synchronized void doReceiveCredit(int credit) {
+    credits += credit;
+    sendPending();
     final Handler<Void> theDrainHandler = drainHandler;
     if (theDrainHandler != null && credits >= maxSize / 2) {
       this.drainHandler = null;
       vertx.runOnContext(v -> theDrainHandler.handle(null));
     }
   }
+
+  private static class PendingMessage<T> {
+
+    final T data;
+    final Handler replyHandler;
+
+    PendingMessage(T data, Handler replyHandler) {
+      this.data = data;
+      this.replyHandler = replyHandler;
+    }
+  }
 }
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2011-2016 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.core.eventbus.impl;
+
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Closeable;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.core.spi.metrics.EventBusMetrics;
+
+/**
+ * A pending reply, held by {@link ReplyHandlers} until the reply arrives, the send fails or the timeout expires.
+ * <p>
+ * Whoever removes the handler from the table owns its completion, so it is completed exactly once.
+ * <p>
+ * A reply handler created on a context is a close hook of the context, the reply is dropped when the context is
+ * closed, e.g. when its verticle is undeployed.
+ */
+public class ReplyHandler<T> implements TimerTask, Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(ReplyHandler.class);
+
+  private final ReplyHandlers table;
+  private final EventBusMetrics metrics;
+  final long id;
+  final String address;
+  private final Context context;
+  private final Handler<AsyncResult<Message<T>>> handler;
+  private final long timeout;
+  private final boolean closeHook;
+  private final Object metric;
+  private volatile Timeout timeoutTask;
+
+  ReplyHandler(ReplyHandlers table, EventBusMetrics metrics, long id, String address, String repliedAddress,
+               Context context, boolean closeHook, Handler<AsyncResult<Message<T>>> handler, long timeout) {
+    this.table = table;
+    this.metrics = metrics;
+    this.id = id;
+    this.address = address;
+    this.context = context;
+    this.handler = handler;
+    this.timeout = timeout;
+    this.closeHook = closeHook;
+    this.metric = metrics.handlerRegistered(address, repliedAddress);
+  }
+
+  public String address() {
+    return address;
+  }
+
+  Object metric() {
+    return metric;
+  }
+
+  void setTimeoutTask(Timeout timeoutTask) {
+    this.timeoutTask = timeoutTask;
+  }
+
+  @Override
+  public void run(Timeout t) {
+    // Called by the timer thread
+    if (table.remove(this)) {
+      removeCloseHook();
+      context.runOnContext(v -> {
+        metrics.replyFailure(address, ReplyFailure.TIMEOUT);
+        complete(ReplyFailure.TIMEOUT, "Timed out after waiting " + timeout + "(ms) for a reply. address: " + address);
+      });
+    }
+  }
+
+  /**
+   * Fail the reply, the handler must have been removed from the table already.
+   */
+  void fail(ReplyFailure failure, String msg) {
+    cancelTimeout();
+    removeCloseHook();
+    complete(failure, msg);
+  }
+
+  /**
+   * Fail the reply on the context of the sender, the handler must have been removed from the table already.
+   */
+  void failOnContext(ReplyFailure failure, String msg) {
+    cancelTimeout();
+    removeCloseHook();
+    context.runOnContext(v -> {
+      metrics.replyFailure(address, failure);
+      complete(failure, msg);
+    });
+  }
+
+  private void complete(ReplyFailure failure, String msg) {
+    metrics.handlerUnregistered(metric);
+    handler.handle(Future.failedFuture(new ReplyException(failure, msg)));
+  }
+
+  /**
+   * Deliver the reply on the context of the sender, the handler must have been removed from the table already.
+   */
+  void deliver(MessageImpl msg) {
+    cancelTimeout();
+    removeCloseHook();
+    boolean local = msg.isLocal();
+    @SuppressWarnings("unchecked")
+    Message<T> reply = msg.copyBeforeReceive();
+    if (metrics.isEnabled()) {
+      metrics.scheduleMessage(metric, local);
+    }
+    context.runOnContext(v -> handle(reply, local));
+  }
+
+  private void handle(Message<T> reply, boolean local) {
+    try {
+      metrics.beginHandleMessage(metric, local);
+      if (reply.body() instanceof ReplyException) {
+        ReplyException exception = (ReplyException) reply.body();
+        metrics.replyFailure(reply.address(), exception.failureType());
+        handler.handle(Future.failedFuture(exception));
+      } else {
+        handler.handle(Future.succeededFuture(reply));
+      }
+      metrics.endHandleMessage(metric, null);
+    } catch (Exception e) {
+      log.error("Failed to handleMessage", e);
+      metrics.endHandleMessage(metric, e);
+      throw e;
+    } finally {
+      metrics.handlerUnregistered(metric);
+    }
+  }
+
+  void cancelTimeout() {
+    Timeout t = timeoutTask;
+    if (t != null) {
+      t.cancel();
+    }
+  }
+
+  void addCloseHook() {
+    if (closeHook) {
+      context.addCloseHook(this);
+    }
+  }
+
+  void removeCloseHook() {
+    if (closeHook) {
+      context.removeCloseHook(this);
+    }
+  }
+
+  // Called by the context on undeploy, the handler is not called
+  @Override
+  public void close(Handler<AsyncResult<Void>> completionHandler) {
+    if (table.remove(this)) {
+      cancelTimeout();
+      metrics.handlerUnregistered(metric);
+    }
+    completionHandler.handle(Future.succeededFuture());
+  }
+}
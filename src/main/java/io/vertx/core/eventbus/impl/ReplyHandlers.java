@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2011-2016 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.core.eventbus.impl;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.collection.LongObjectHashMap;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.spi.metrics.EventBusMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The table of pending replies of an event bus.
+ * <p>
+ * Replies don't go through the handler map: a reply handler is stored under a numeric id in one of the stripes of
+ * the table, the id is encoded in the reply address (see {@link #REPLY_ADDRESS_PREFIX}) so the handler is found
+ * without any registration. Timeouts are swept by a hashed wheel timer created on the first timed reply, instead of
+ * scheduling a Vert.x timer for each request.
+ */
+public class ReplyHandlers {
+
+  public static final String REPLY_ADDRESS_PREFIX = "__vertx.reply.";
+
+  private static final int STRIPES = 16;
+  private static final long TICK_DURATION_MS = 10;
+
+  private final EventBusMetrics metrics;
+  private final AtomicLong sequence = new AtomicLong();
+  private final LongObjectHashMap<ReplyHandler<?>>[] stripes;
+  private volatile HashedWheelTimer timer;
+  private boolean closed;
+
+  @SuppressWarnings("unchecked")
+  public ReplyHandlers(EventBusMetrics metrics) {
+    this.metrics = metrics;
+    this.stripes = new LongObjectHashMap[STRIPES];
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new LongObjectHashMap<>();
+    }
+  }
+
+  public long nextId() {
+    return sequence.incrementAndGet();
+  }
+
+  /**
+   * Add a reply handler to the table.
+   *
+   * @param id  the id from {@link #nextId()}
+   * @param address  the reply address, it must be {@link #REPLY_ADDRESS_PREFIX} followed by the id, optionally followed
+   *                 by a dot and a suffix
+   * @param repliedAddress  the address of the request
+   * @param context  the context the reply is handled on
+   * @param closeHook  whether the reply is dropped when the context is closed
+   * @param handler  the handler
+   * @param timeout  the timeout in ms, or {@code -1} for no timeout
+   * @return the reply handler
+   */
+  public <T> ReplyHandler<T> add(long id, String address, String repliedAddress, Context context, boolean closeHook,
+                                 Handler<AsyncResult<Message<T>>> handler, long timeout) {
+    ReplyHandler<T> replyHandler = new ReplyHandler<>(this, metrics, id, address, repliedAddress, context, closeHook,
+      handler, timeout);
+    // Before the handler can be completed, so its close hook is always removed
+    replyHandler.addCloseHook();
+    LongObjectHashMap<ReplyHandler<?>> stripe = stripe(id);
+    synchronized (stripe) {
+      stripe.put(id, replyHandler);
+    }
+    if (timeout != -1) {
+      HashedWheelTimer t = timer();
+      if (t != null) {
+        try {
+          replyHandler.setTimeoutTask(t.newTimeout(replyHandler, timeout, TimeUnit.MILLISECONDS));
+        } catch (IllegalStateException ignore) {
+          // Closed concurrently
+        }
+      }
+    }
+    return replyHandler;
+  }
+
+  /**
+   * Remove the handler for a reply address.
+   *
+   * @return the handler or {@code null} when there is no pending reply for this address
+   */
+  public ReplyHandler<?> remove(String address) {
+    long id = parseId(address);
+    if (id < 0) {
+      return null;
+    }
+    LongObjectHashMap<ReplyHandler<?>> stripe = stripe(id);
+    synchronized (stripe) {
+      ReplyHandler<?> replyHandler = stripe.get(id);
+      // Check the whole address, it may contain more than the id
+      if (replyHandler == null || !replyHandler.address.equals(address)) {
+        return null;
+      }
+      stripe.remove(id);
+      return replyHandler;
+    }
+  }
+
+  /**
+   * Remove a handler from the table.
+   *
+   * @return {@code true} if the handler was still in the table
+   */
+  boolean remove(ReplyHandler<?> replyHandler) {
+    LongObjectHashMap<ReplyHandler<?>> stripe = stripe(replyHandler.id);
+    synchronized (stripe) {
+      if (stripe.get(replyHandler.id) == replyHandler) {
+        stripe.remove(replyHandler.id);
+        return true;
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Fail a reply handler if it is still pending.
+   */
+  public void fail(ReplyHandler<?> replyHandler, ReplyFailure failure, String msg) {
+    if (remove(replyHandler)) {
+      replyHandler.fail(failure, msg);
+    }
+  }
+
+  /**
+   * Fail a reply handler on the context of its sender if it is still pending, it can be called from any thread.
+   */
+  public void failOnContext(ReplyHandler<?> replyHandler, ReplyFailure failure, String msg) {
+    if (remove(replyHandler)) {
+      replyHandler.failOnContext(failure, msg);
+    }
+  }
+
+  /**
+   * Drop all the pending replies, their handlers won't be called.
+   */
+  public void close() {
+    HashedWheelTimer t;
+    synchronized (this) {
+      closed = true;
+      t = timer;
+    }
+    if (t != null) {
+      t.stop();
+    }
+    List<ReplyHandler<?>> removed = new ArrayList<>();
+    for (LongObjectHashMap<ReplyHandler<?>> stripe : stripes) {
+      synchronized (stripe) {
+        removed.addAll(stripe.values());
+        stripe.clear();
+      }
+    }
+    for (ReplyHandler<?> replyHandler : removed) {
+      replyHandler.removeCloseHook();
+      metrics.handlerUnregistered(replyHandler.metric());
+    }
+  }
+
+  public int size() {
+    int size = 0;
+    for (LongObjectHashMap<ReplyHandler<?>> stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.size();
+      }
+    }
+    return size;
+  }
+
+  private LongObjectHashMap<ReplyHandler<?>> stripe(long id) {
+    return stripes[(int) (id & (STRIPES - 1))];
+  }
+
+  private HashedWheelTimer timer() {
+    HashedWheelTimer t = timer;
+    if (t == null) {
+      synchronized (this) {
+        if (timer == null && !closed) {
+          timer = new HashedWheelTimer(r -> {
+            Thread thread = new Thread(r, "vert.x-eventbus-reply-timeout");
+            thread.setDaemon(true);
+            return thread;
+          }, TICK_DURATION_MS, TimeUnit.MILLISECONDS);
+        }
+        t = timer;
+      }
+    }
+    return t;
+  }
+
+  static long parseId(String address) {
+    int len = address.length();
+    int start = REPLY_ADDRESS_PREFIX.length();
+    if (!address.startsWith(REPLY_ADDRESS_PREFIX) || len == start) {
+      return -1;
+    }
+    long id = 0;
+    for (int i = start; i < len; i++) {
+      char c = address.charAt(i);
+      if (c == '.' && i > start) {
+        break;
+      }
+      if (c < '0' || c > '9' || i - start > 18) {
+        return -1;
+      }
+      id = id * 10 + (c - '0');
+    }
+    return id;
+  }
+}
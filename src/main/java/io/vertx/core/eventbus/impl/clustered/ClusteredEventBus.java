@@ -16,10 +16,13 @@
 
 package io.vertx.core.eventbus.impl.clustered;
 
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.vertx.core.*;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.EventBusOptions;
 import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.core.eventbus.ReplyFailure;
 import io.vertx.core.eventbus.impl.*;
 import io.vertx.core.impl.HAManager;
 import io.vertx.core.impl.VertxInternal;
@@ -27,16 +30,19 @@ import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import io.vertx.core.net.*;
+import io.vertx.core.net.impl.NetServerImpl;
 import io.vertx.core.net.impl.ServerID;
-import io.vertx.core.parsetools.RecordParser;
+import io.vertx.core.net.impl.SocketAddressImpl;
 import io.vertx.core.spi.cluster.AsyncMultiMap;
 import io.vertx.core.spi.cluster.ChoosableIterable;
 import io.vertx.core.spi.cluster.ClusterManager;
 
+import java.util.HashSet;
 import java.util.Objects;
-import java.util.UUID;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * An event bus implementation that clusters with other Vert.x nodes
@@ -50,32 +56,51 @@ public class ClusteredEventBus extends EventBusImpl {
   public static final String CLUSTER_PUBLIC_HOST_PROP_NAME = "vertx.cluster.public.host";
   public static final String CLUSTER_PUBLIC_PORT_PROP_NAME = "vertx.cluster.public.port";
 
-  private static final Buffer PONG = Buffer.buffer(new byte[] { (byte)1 });
+  // Tells the clients that this node reads the version 2 of the wire protocol
+  private static final Buffer PONG = Buffer.buffer(new byte[] { WireProtocol.PONG_V2 });
   private static final String SERVER_ID_HA_KEY = "server_id";
   private static final String SUBS_MAP_NAME = "__vertx.subs";
+  // The maximum backoff of an unreachable node, as a multiple of the configured backoff
+  private static final int MAX_BACKOFF_FACTOR = 32;
 
   private final ClusterManager clusterManager;
   private final HAManager haManager;
-  private final ConcurrentMap<ServerID, ConnectionHolder> connections = new ConcurrentHashMap<>();
+  // The connections to the other nodes, one map per connection index
+  private final ConcurrentMap<ServerID, ConnectionHolder>[] connections;
   private final Context sendNoContext;
+  // The nodes a connection failed to, the messages sent to them are dropped until their backoff expires
+  private final ConcurrentMap<ServerID, Backoff> unreachablePeers = new ConcurrentHashMap<>();
+  // The nodes of the cluster this node sent messages to or received messages from, until they crash
+  private final Set<ServerID> members = ConcurrentHashMap.newKeySet();
 
-  private EventBusOptions options;
   private AsyncMultiMap<String, ServerID> subs;
+  private SubsCache subsCache;
   private ServerID serverID;
+  private ReplyAddresses replyAddresses;
   private NetServer server;
+  private long heartbeatTimerID = -1;
 
   public ClusteredEventBus(VertxInternal vertx,
                            VertxOptions options,
                            ClusterManager clusterManager,
                            HAManager haManager) {
-    super(vertx);
-    this.options = options.getEventBusOptions();
+    super(vertx, options.getEventBusOptions());
     this.clusterManager = clusterManager;
     this.haManager = haManager;
     this.sendNoContext = vertx.getOrCreateContext();
+    this.connections = createConnectionMaps(this.options.getConnectionsPerPeer());
     setNodeCrashedHandler(haManager);
   }
 
+  @SuppressWarnings("unchecked")
+  private static ConcurrentMap<ServerID, ConnectionHolder>[] createConnectionMaps(int connectionsPerPeer) {
+    ConcurrentMap<ServerID, ConnectionHolder>[] maps = new ConcurrentMap[connectionsPerPeer];
+    for (int i = 0; i < maps.length; i++) {
+      maps[i] = new ConcurrentHashMap<>();
+    }
+    return maps;
+  }
+
   private NetServerOptions getServerOptions() {
     NetServerOptions serverOptions = new NetServerOptions(this.options.toJson());
     setCertOptions(serverOptions, options.getKeyCertOptions());
@@ -116,7 +141,14 @@ public class ClusteredEventBus extends EventBusImpl {
     clusterManager.<String, ServerID>getAsyncMultiMap(SUBS_MAP_NAME, ar2 -> {
       if (ar2.succeeded()) {
         subs = ar2.result();
-        server = vertx.createNetServer(getServerOptions());
+        subsCache = new SubsCache(subs);
+        server = new NetServerImpl(vertx, getServerOptions()) {
+          @Override
+          protected void initChannel(ChannelPipeline pipeline) {
+            // Slices the frames out of the received bytes, the socket handler gets a buffer per frame
+            pipeline.addLast("frameDecoder", new LengthFieldBasedFrameDecoder(options.getMaxFrameSize(), 0, 4, 0, 4));
+          }
+        };
 
         server.connectHandler(getServerHandler());
         server.listen(asyncResult -> {
@@ -124,6 +156,8 @@ public class ClusteredEventBus extends EventBusImpl {
             int serverPort = getClusterPublicPort(options, server.actualPort());
             String serverHost = getClusterPublicHost(options);
             serverID = new ServerID(serverPort, serverHost);
+            replyAddresses = new ReplyAddresses(serverID);
+            startHeartbeat();
             haManager.addDataToAHAInfo(SERVER_ID_HA_KEY, new JsonObject().put("host", serverID.host).put("port", serverID.port));
             if (resultHandler != null) {
               started = true;
@@ -149,6 +183,12 @@ public class ClusteredEventBus extends EventBusImpl {
 
   @Override
   public void close(Handler<AsyncResult<Void>> completionHandler) {
+    if (heartbeatTimerID != -1) {
+      vertx.cancelTimer(heartbeatTimerID);
+    }
+    if (subsCache != null) {
+      subsCache.close();
+    }
     super.close(ar1 -> {
       if (server != null) {
         server.close(ar -> {
@@ -156,8 +196,10 @@ public class ClusteredEventBus extends EventBusImpl {
             log.error("Failed to close server", ar.cause());
           }
           // Close all outbound connections explicitly - don't rely on context hooks
-          for (ConnectionHolder holder: connections.values()) {
-            holder.close();
+          for (ConcurrentMap<ServerID, ConnectionHolder> map : connections) {
+            for (ConnectionHolder holder : map.values()) {
+              holder.close();
+            }
           }
           if (completionHandler != null) {
             completionHandler.handle(ar);
@@ -182,12 +224,14 @@ public class ClusteredEventBus extends EventBusImpl {
   }
 
   @Override
-  protected <T> void addRegistration(boolean newAddress, String address,
-                                     boolean replyHandler, boolean localOnly,
+  protected <T> void addRegistration(boolean newAddress, String address, boolean localOnly,
                                      Handler<AsyncResult<Void>> completionHandler) {
-    if (newAddress && subs != null && !replyHandler && !localOnly) {
+    if (newAddress && subs != null && !localOnly) {
       // Propagate the information
-      subs.add(address, serverID, completionHandler);
+      subs.add(address, serverID, ar -> {
+        subsCache.invalidate(address);
+        completionHandler.handle(ar);
+      });
     } else {
       completionHandler.handle(Future.succeededFuture());
     }
@@ -197,28 +241,40 @@ public class ClusteredEventBus extends EventBusImpl {
   protected <T> void removeRegistration(HandlerHolder lastHolder, String address,
                                         Handler<AsyncResult<Void>> completionHandler) {
     if (lastHolder != null && subs != null && !lastHolder.isLocalOnly()) {
-      removeSub(address, serverID, completionHandler);
+      removeSub(address, serverID, ar -> {
+        subsCache.invalidate(address);
+        if (completionHandler != null) {
+          completionHandler.handle(ar);
+        }
+      });
     } else {
       callCompletionHandlerAsync(completionHandler);
     }
   }
 
   @Override
-  protected <T> void sendReply(SendContextImpl<T> sendContext, MessageImpl replierMessage) {
-    clusteredSendReply(((ClusteredMessage) replierMessage).getSender(), sendContext);
+  protected <T> void sendReply(MessageImpl message, ReplyHandler<T> replyHandler, MessageImpl replierMessage) {
+    sendToNode(((ClusteredMessage) replierMessage).getSender(), message, replyHandler);
   }
 
   @Override
-  protected <T> void sendOrPub(SendContextImpl<T> sendContext) {
-    String address = sendContext.message.address();
+  protected <T> void sendOrPub(MessageImpl message, ReplyHandler<T> replyHandler) {
+    String address = message.address();
+    ServerID replyNode = ReplyAddresses.parseNode(address);
+    if (replyNode != null && (replyNode.equals(serverID) || members.contains(replyNode))) {
+      // A reply address is handled by the node it names, no need to look up the subscriptions. The address can be
+      // forged, so only a node of the cluster is trusted, otherwise the subscriptions are looked up
+      sendToNode(replyNode, message, replyHandler);
+      return;
+    }
     Handler<AsyncResult<ChoosableIterable<ServerID>>> resultHandler = asyncResult -> {
       if (asyncResult.succeeded()) {
         ChoosableIterable<ServerID> serverIDs = asyncResult.result();
         if (serverIDs != null && !serverIDs.isEmpty()) {
-          sendToSubs(serverIDs, sendContext);
+          sendToSubs(serverIDs, message, replyHandler);
         } else {
-          metrics.messageSent(address, !sendContext.message.send(), true, false);
-          deliverMessageLocally(sendContext);
+          metrics.messageSent(address, !message.send(), true, false);
+          deliverMessageLocally(message, replyHandler);
         }
       } else {
         log.error("Failed to send message", asyncResult.cause());
@@ -227,17 +283,17 @@ public class ClusteredEventBus extends EventBusImpl {
     if (Vertx.currentContext() == null) {
       // Guarantees the order when there is no current context
       sendNoContext.runOnContext(v -> {
-        subs.get(address, resultHandler);
+        subsCache.get(address, resultHandler);
       });
     } else {
-      subs.get(address, resultHandler);
+      subsCache.get(address, resultHandler);
     }
   }
 
   @Override
-  protected String generateReplyAddress() {
-    // The address is a cryptographically secure id that can't be guessed
-    return UUID.randomUUID().toString();
+  protected String generateReplyAddress(long id) {
+    // The address contains a token that can't be guessed and the node handling the reply
+    return replyAddresses.generate(id);
   }
 
   @Override
@@ -251,8 +307,10 @@ public class ClusteredEventBus extends EventBusImpl {
       JsonObject jsid = haInfo.getJsonObject(SERVER_ID_HA_KEY);
       if (jsid != null) {
         ServerID sid = new ServerID(jsid.getInteger("port"), jsid.getString("host"));
+        members.remove(sid);
         if (subs != null) {
           subs.removeAllForValue(sid, res -> {
+            subsCache.invalidate(null);
           });
         }
       }
@@ -280,96 +338,170 @@ public class ClusteredEventBus extends EventBusImpl {
 
   private Handler<NetSocket> getServerHandler() {
     return socket -> {
-      RecordParser parser = RecordParser.newFixed(4, null);
-      Handler<Buffer> handler = new Handler<Buffer>() {
-        int size = -1;
-        public void handle(Buffer buff) {
-          if (size == -1) {
-            size = buff.getInt(0);
-            parser.fixedSizeMode(size);
-          } else {
-            ClusteredMessage received = new ClusteredMessage();
-            received.readFromWire(buff, codecManager);
-            metrics.messageRead(received.address(), buff.length());
-            parser.fixedSizeMode(4);
-            size = -1;
-            if (received.codec() == CodecManager.PING_MESSAGE_CODEC) {
-              // Just send back pong directly on connection
-              socket.write(PONG);
-            } else {
-              deliverMessageLocally(received);
-            }
-          }
+      WireProtocol.Decoder decoder = new WireProtocol.Decoder(options.getMaxFrameSize());
+      socket.handler(buff -> {
+        // The buffer is a single frame without its length, the body is decoded when a handler reads it
+        ClusteredMessage received = new ClusteredMessage();
+        try {
+          received.readFromWire(buff, codecManager, decoder);
+        } catch (RuntimeException e) {
+          // The state of the connection is lost with the frame, e.g. its interned strings, the next frames are dropped
+          log.error("Invalid frame received from " + socket.remoteAddress() + ", closing the connection", e);
+          socket.handler(null);
+          socket.close();
+          return;
+        }
+        metrics.messageRead(received.address(), buff.length());
+        ServerID sender = received.getSender();
+        if (!members.contains(sender)) {
+          members.add(sender);
+        }
+        if (received.codec() == CodecManager.PING_MESSAGE_CODEC) {
+          // Just send back pong directly on connection
+          socket.write(PONG);
+        } else {
+          deliverMessageLocally(received);
         }
-      };
-      parser.setOutput(handler);
-      socket.handler(parser);
+      });
+      socket.exceptionHandler(t -> {
+        // E.g. a frame larger than the maximum frame size, the rest of the stream can't be read
+        log.error("Closing the connection from " + socket.remoteAddress(), t);
+        socket.close();
+      });
+      socket.closeHandler(v -> decoder.close());
     };
   }
 
-  private <T> void sendToSubs(ChoosableIterable<ServerID> subs, SendContextImpl<T> sendContext) {
-    String address = sendContext.message.address();
-    if (sendContext.message.send()) {
+  private <T> void sendToSubs(ChoosableIterable<ServerID> subs, MessageImpl message, ReplyHandler<T> replyHandler) {
+    String address = message.address();
+    if (message.send()) {
       // Choose one
       ServerID sid = subs.choose();
       if (!sid.equals(serverID)) {  //We don't send to this node
         metrics.messageSent(address, false, false, true);
-        sendRemote(sid, sendContext.message);
+        sendRemote(sid, (ClusteredMessage) message, replyHandler);
       } else {
         metrics.messageSent(address, false, true, false);
-        deliverMessageLocally(sendContext);
+        deliverMessageLocally(message, replyHandler);
       }
     } else {
-      // Publish
+      // Publish, the payload is encoded once for all the nodes
       boolean local = false;
       boolean remote = false;
-      for (ServerID sid : subs) {
-        if (!sid.equals(serverID)) {  //We don't send to this node
-          remote = true;
-          sendRemote(sid, sendContext.message);
-        } else {
-          local = true;
+      ClusteredMessage clusteredMessage = (ClusteredMessage) message;
+      SharedPayload payload = new SharedPayload(clusteredMessage, options.getCompressionThreshold(), metrics);
+      Set<ServerID> nodes = new HashSet<>();
+      try {
+        for (ServerID sid : subs) {
+          if (!nodes.add(sid)) {
+            // The subscriptions can contain a node more than once
+            continue;
+          }
+          if (!sid.equals(serverID)) {  //We don't send to this node
+            remote = true;
+            sendRemote(sid, clusteredMessage, payload, null);
+          } else {
+            local = true;
+          }
         }
+      } finally {
+        payload.release();
       }
       metrics.messageSent(address, true, local, remote);
       if (local) {
-        deliverMessageLocally(sendContext);
+        deliverMessageLocally(message, replyHandler);
       }
     }
   }
 
-  private <T> void clusteredSendReply(ServerID replyDest, SendContextImpl<T> sendContext) {
-    MessageImpl message = sendContext.message;
+  private <T> void sendToNode(ServerID node, MessageImpl message, ReplyHandler<T> replyHandler) {
     String address = message.address();
-    if (!replyDest.equals(serverID)) {
-      metrics.messageSent(address, false, false, true);
-      sendRemote(replyDest, message);
+    if (!node.equals(serverID)) {
+      metrics.messageSent(address, !message.send(), false, true);
+      sendRemote(node, (ClusteredMessage) message, replyHandler);
     } else {
-      metrics.messageSent(address, false, true, false);
-      deliverMessageLocally(sendContext);
+      metrics.messageSent(address, !message.send(), true, false);
+      deliverMessageLocally(message, replyHandler);
+    }
+  }
+
+  private void sendRemote(ServerID theServerID, ClusteredMessage message, ReplyHandler<?> replyHandler) {
+    SharedPayload payload = new SharedPayload(message, options.getCompressionThreshold(), metrics);
+    try {
+      sendRemote(theServerID, message, payload, replyHandler);
+    } finally {
+      payload.release();
     }
   }
 
-  private void sendRemote(ServerID theServerID, MessageImpl message) {
+  private void sendRemote(ServerID theServerID, ClusteredMessage message, SharedPayload payload,
+                          ReplyHandler<?> replyHandler) {
     // We need to deal with the fact that connecting can take some time and is async, and we cannot
     // block to wait for it. So we add any sends to a pending list if not connected yet.
     // Once we connect we send them.
     // This can also be invoked concurrently from different threads, so it gets a little
     // tricky
-    ConnectionHolder holder = connections.get(theServerID);
+    // The messages of an address always use the same connection, so they are received in order
+    int index = connections.length == 1 ? 0 : (message.address().hashCode() & 0x7FFFFFFF) % connections.length;
+    ConcurrentMap<ServerID, ConnectionHolder> map = connections[index];
+    ConnectionHolder holder = map.get(theServerID);
     if (holder == null) {
+      Backoff backoff = unreachablePeers.get(theServerID);
+      if (backoff != null && backoff.retryTime - System.nanoTime() > 0) {
+        // Fail fast instead of connecting for each message, the first message sent after the backoff connects again
+        messageDropped(theServerID, message, replyHandler, "Node " + theServerID + " is unreachable");
+        return;
+      }
       // When process is creating a lot of connections this can take some time
       // so increase the timeout
-      holder = new ConnectionHolder(this, theServerID, options);
-      ConnectionHolder prevHolder = connections.putIfAbsent(theServerID, holder);
+      holder = new ConnectionHolder(this, theServerID, index, options);
+      ConnectionHolder prevHolder = map.putIfAbsent(theServerID, holder);
       if (prevHolder != null) {
         // Another one sneaked in
         holder = prevHolder;
       } else {
+        members.add(theServerID);
         holder.connect();
       }
     }
-    holder.writeMessage((ClusteredMessage)message);
+    holder.writeMessage(message, payload, replyHandler);
+  }
+
+  /**
+   * A message was not sent to a node, its sender doesn't wait for the reply timeout.
+   */
+  void messageDropped(ServerID node, ClusteredMessage message, ReplyHandler<?> replyHandler, String reason) {
+    metrics.messageDropped(message.address(), new SocketAddressImpl(node.port, node.host));
+    sendCredit(message);
+    if (replyHandler != null) {
+      replyHandlers.failOnContext(replyHandler, ReplyFailure.NO_HANDLERS, reason);
+    }
+  }
+
+  void peerUnreachable(ServerID node) {
+    long initialBackoff = options.getUnreachablePeerBackoff();
+    if (initialBackoff == 0) {
+      return;
+    }
+    long backoff;
+    while (true) {
+      Backoff prev = unreachablePeers.get(node);
+      if (prev != null && prev.retryTime - System.nanoTime() > 0) {
+        // Another connection to the node failed during the same backoff, e.g. with several connections per peer
+        return;
+      }
+      backoff = prev == null ? initialBackoff : Math.min(prev.backoff * 2, initialBackoff * MAX_BACKOFF_FACTOR);
+      Backoff next = new Backoff(backoff);
+      if (prev == null ? unreachablePeers.putIfAbsent(node, next) == null : unreachablePeers.replace(node, prev, next)) {
+        break;
+      }
+    }
+    log.warn("Node " + node + " is unreachable, the messages sent to it are dropped during " + backoff + " ms");
+    metrics.peerUnreachable(new SocketAddressImpl(node.port, node.host), backoff);
+  }
+
+  void peerReachable(ServerID node) {
+    unreachablePeers.remove(node);
   }
 
   private void removeSub(String subName, ServerID theServerID, Handler<AsyncResult<Void>> completionHandler) {
@@ -391,8 +523,21 @@ public class ClusteredEventBus extends EventBusImpl {
     });
   }
 
-  ConcurrentMap<ServerID, ConnectionHolder> connections() {
-    return connections;
+  private void startHeartbeat() {
+    // A single timer checks the liveness of all the connections, instead of timers per connection
+    long period = Math.max(1, Math.min(options.getClusterPingInterval(), options.getClusterPingReplyInterval()) / 2);
+    heartbeatTimerID = vertx.setPeriodic(period, id -> {
+      long now = System.nanoTime();
+      for (ConcurrentMap<ServerID, ConnectionHolder> map : connections) {
+        for (ConnectionHolder holder : map.values()) {
+          holder.checkLiveness(now);
+        }
+      }
+    });
+  }
+
+  ConcurrentMap<ServerID, ConnectionHolder> connections(int index) {
+    return connections[index];
   }
 
   VertxInternal vertx() {
@@ -403,5 +548,14 @@ public class ClusteredEventBus extends EventBusImpl {
     return options;
   }
 
-}
+  private static class Backoff {
+
+    final long backoff;
+    final long retryTime;
 
+    Backoff(long backoff) {
+      this.backoff = backoff;
+      this.retryTime = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff);
+    }
+  }
+}
@@ -23,6 +23,7 @@ import io.vertx.core.eventbus.MessageCodec;
 import io.vertx.core.eventbus.impl.CodecManager;
 import io.vertx.core.eventbus.impl.EventBusImpl;
 import io.vertx.core.eventbus.impl.MessageImpl;
+import io.vertx.core.eventbus.impl.ReplyHandlers;
 import io.vertx.core.http.CaseInsensitiveHeaders;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
@@ -38,13 +39,12 @@ public class ClusteredMessage<U, V> extends MessageImpl<U, V> {
 
   private static final Logger log = LoggerFactory.getLogger(ClusteredMessage.class);
 
-  private static final byte WIRE_PROTOCOL_VERSION = 1;
-
   private ServerID sender;
   private Buffer wireBuffer;
   private int bodyPos;
   private int headersPos;
   private boolean fromWire;
+  private byte wireVersion;
 
   public ClusteredMessage() {
   }
@@ -62,6 +62,7 @@ public class ClusteredMessage<U, V> extends MessageImpl<U, V> {
       this.wireBuffer = other.wireBuffer;
       this.bodyPos = other.bodyPos;
       this.headersPos = other.headersPos;
+      this.wireVersion = other.wireVersion;
     }
     this.fromWire = other.fromWire;
   }
@@ -92,7 +93,7 @@ public class ClusteredMessage<U, V> extends MessageImpl<U, V> {
       // The message has been read from the wire
       decodeBody();
     }
-    return receivedBody;
+    return super.body();
   }
 
   @Override
@@ -103,38 +104,126 @@ public class ClusteredMessage<U, V> extends MessageImpl<U, V> {
   public Buffer encodeToWire() {
     int length = 1024; // TODO make this configurable
     Buffer buffer = Buffer.buffer(length);
+    encodeToWire(buffer);
+    return buffer;
+  }
+
+  /**
+   * Append the message to a buffer as a version 1 frame, the buffer may already hold other messages.
+   *
+   * @param buffer  the buffer
+   */
+  public void encodeToWire(Buffer buffer) {
+    int start = buffer.length();
+    encodeEnvelope(buffer, null, false);
+    encodePayload(buffer, WireProtocol.VERSION_1);
+    buffer.setInt(start, buffer.length() - start - 4);
+  }
+
+  /**
+   * Append the start of a frame to a buffer: a placeholder for the frame length followed by the version, the codec,
+   * the addresses and the sender. The envelope depends on the state of the connection, unlike the payload.
+   *
+   * @param buffer  the buffer
+   * @param encoder  the state of a version 2 connection, {@code null} for a version 1 frame
+   * @param compressed  whether the payload of the version 2 frame is compressed
+   */
+  void encodeEnvelope(Buffer buffer, WireProtocol.Encoder encoder, boolean compressed) {
     buffer.appendInt(0);
-    buffer.appendByte(WIRE_PROTOCOL_VERSION);
     byte systemCodecID = messageCodec.systemCodecID();
-    buffer.appendByte(systemCodecID);
-    if (systemCodecID == -1) {
-      // User codec
-      writeString(buffer, messageCodec.name());
+    if (encoder == null) {
+      buffer.appendByte(WireProtocol.VERSION_1);
+      buffer.appendByte(systemCodecID);
+      if (systemCodecID == -1) {
+        // User codec
+        writeString(buffer, messageCodec.name());
+      }
+      buffer.appendByte(send ? (byte)0 : (byte)1);
+      writeString(buffer, address);
+      if (replyAddress != null) {
+        writeString(buffer, replyAddress);
+      } else {
+        buffer.appendInt(0);
+      }
+      buffer.appendInt(sender.port);
+      writeString(buffer, sender.host);
+    } else {
+      boolean writeSender = encoder.writeSender();
+      int flags = (send ? WireProtocol.FLAG_SEND : 0) |
+        (replyAddress != null ? WireProtocol.FLAG_REPLY_ADDRESS : 0) |
+        (writeSender ? WireProtocol.FLAG_SENDER : 0) |
+        (compressed ? WireProtocol.FLAG_COMPRESSED : 0);
+      buffer.appendByte(WireProtocol.VERSION_2);
+      buffer.appendByte((byte) flags);
+      buffer.appendByte(systemCodecID);
+      if (systemCodecID == -1) {
+        encoder.appendInterned(buffer, messageCodec.name());
+      }
+      if (address.startsWith(ReplyHandlers.REPLY_ADDRESS_PREFIX)) {
+        // A reply address is used once, it would fill the interned strings of the connection
+        encoder.appendNotInterned(buffer, address);
+      } else {
+        encoder.appendInterned(buffer, address);
+      }
+      if (replyAddress != null) {
+        WireProtocol.appendString(buffer, replyAddress);
+      }
+      if (writeSender) {
+        WireProtocol.appendVarInt(buffer, sender.port);
+        WireProtocol.appendString(buffer, sender.host);
+      }
     }
-    buffer.appendByte(send ? (byte)0 : (byte)1);
-    writeString(buffer, address);
-    if (replyAddress != null) {
-      writeString(buffer, replyAddress);
+  }
+
+  /**
+   * Append the end of a frame to a buffer: the headers and the body.
+   *
+   * @param buffer  the buffer
+   * @param version  the version of the frame
+   */
+  void encodePayload(Buffer buffer, byte version) {
+    if (version == WireProtocol.VERSION_1) {
+      encodeHeaders(buffer);
     } else {
-      buffer.appendInt(0);
+      encodeCompactHeaders(buffer);
     }
-    buffer.appendInt(sender.port);
-    writeString(buffer, sender.host);
-    encodeHeaders(buffer);
     writeBody(buffer);
-    buffer.setInt(0, buffer.length() - 4);
-    return buffer;
   }
 
   public void readFromWire(Buffer buffer, CodecManager codecManager) {
-    int pos = 0;
+    readFromWire(buffer, codecManager, null);
+  }
+
+  /**
+   * Read a frame of any version.
+   *
+   * @param buffer  the frame, without its length
+   * @param codecManager  the codec manager
+   * @param decoder  the state of the connection, version 2 frames can't be read without it
+   */
+  void readFromWire(Buffer buffer, CodecManager codecManager, WireProtocol.Decoder decoder) {
     // Overall Length already read when passed in here
-    byte protocolVersion = buffer.getByte(pos);
-    if (protocolVersion > WIRE_PROTOCOL_VERSION) {
+    byte protocolVersion = buffer.getByte(0);
+    if (protocolVersion > WireProtocol.VERSION_2) {
       throw new IllegalStateException("Invalid wire protocol version " + protocolVersion +
-                                      " should be <= " + WIRE_PROTOCOL_VERSION);
+                                      " should be <= " + WireProtocol.VERSION_2);
     }
-    pos++;
+    if (protocolVersion == WireProtocol.VERSION_2) {
+      if (decoder == null) {
+        throw new IllegalStateException("Wire protocol version " + protocolVersion + " requires a connection");
+      }
+      wireBuffer = readCompactFromWire(buffer, codecManager, decoder);
+    } else {
+      readV1FromWire(buffer, codecManager);
+      wireBuffer = buffer;
+    }
+    wireVersion = protocolVersion;
+    decodePrimitiveBody(wireBuffer);
+    fromWire = true;
+  }
+
+  private void readV1FromWire(Buffer buffer, CodecManager codecManager) {
+    int pos = 1;
     byte systemCodecCode = buffer.getByte(pos);
     pos++;
     if (systemCodecCode == -1) {
@@ -143,13 +232,10 @@ public class ClusteredMessage<U, V> extends MessageImpl<U, V> {
       pos += 4;
       byte[] bytes = buffer.getBytes(pos, pos + length);
       String codecName = new String(bytes, CharsetUtil.UTF_8);
-      messageCodec = codecManager.getCodec(codecName);
-      if (messageCodec == null) {
-        throw new IllegalStateException("No message codec registered with name " + codecName);
-      }
+      messageCodec = lookupUserCodec(codecManager, codecName);
       pos += length;
     } else {
-      messageCodec = codecManager.systemCodecs()[systemCodecCode];
+      messageCodec = lookupSystemCodec(codecManager, systemCodecCode);
     }
     byte bsend = buffer.getByte(pos);
     send = bsend == 0;
@@ -178,8 +264,59 @@ public class ClusteredMessage<U, V> extends MessageImpl<U, V> {
     pos += headersLength;
     bodyPos = pos;
     sender = new ServerID(senderPort, senderHost);
-    wireBuffer = buffer;
-    fromWire = true;
+  }
+
+  // Returns the frame holding the payload, it is another frame when the payload is compressed
+  private Buffer readCompactFromWire(Buffer buffer, CodecManager codecManager, WireProtocol.Decoder decoder) {
+    decoder.reset(buffer, 1);
+    int flags = decoder.readByte();
+    byte systemCodecCode = decoder.readByte();
+    if (systemCodecCode == -1) {
+      messageCodec = lookupUserCodec(codecManager, decoder.readInterned());
+    } else {
+      messageCodec = lookupSystemCodec(codecManager, systemCodecCode);
+    }
+    send = (flags & WireProtocol.FLAG_SEND) != 0;
+    address = decoder.readInterned();
+    if ((flags & WireProtocol.FLAG_REPLY_ADDRESS) != 0) {
+      replyAddress = decoder.readString();
+    }
+    if ((flags & WireProtocol.FLAG_SENDER) != 0) {
+      int senderPort = decoder.readVarInt();
+      decoder.sender(new ServerID(senderPort, decoder.readString()));
+    }
+    sender = decoder.sender();
+    if (sender == null) {
+      throw new IllegalStateException("No sender for the connection");
+    }
+    if ((flags & WireProtocol.FLAG_COMPRESSED) != 0) {
+      buffer = decoder.inflate();
+    }
+    // Skip the headers, they are decoded lazily
+    int pos = decoder.pos();
+    int numHeaders = decoder.readVarInt();
+    headersPos = numHeaders > 0 ? pos : 0;
+    for (int i = 0; i < numHeaders * 2; i++) {
+      decoder.skip(decoder.readVarInt());
+    }
+    bodyPos = decoder.pos();
+    return buffer;
+  }
+
+  private static MessageCodec lookupSystemCodec(CodecManager codecManager, byte systemCodecCode) {
+    MessageCodec[] codecs = codecManager.systemCodecs();
+    if (systemCodecCode < 0 || systemCodecCode >= codecs.length) {
+      throw new IllegalStateException("Invalid system codec " + systemCodecCode);
+    }
+    return codecs[systemCodecCode];
+  }
+
+  private static MessageCodec lookupUserCodec(CodecManager codecManager, String codecName) {
+    MessageCodec codec = codecManager.getCodec(codecName);
+    if (codec == null) {
+      throw new IllegalStateException("No message codec registered with name " + codecName);
+    }
+    return codec;
   }
 
   private void decodeBody() {
@@ -187,6 +324,20 @@ public class ClusteredMessage<U, V> extends MessageImpl<U, V> {
     bodyPos = 0;
   }
 
+  // An int, long or double body is read without boxing, it is boxed if the consumer calls body()
+  private void decodePrimitiveBody(Buffer buffer) {
+    if (messageCodec == CodecManager.INT_MESSAGE_CODEC) {
+      setPrimitiveBody(messageCodec, buffer.getInt(bodyPos));
+    } else if (messageCodec == CodecManager.LONG_MESSAGE_CODEC) {
+      setPrimitiveBody(messageCodec, buffer.getLong(bodyPos));
+    } else if (messageCodec == CodecManager.DOUBLE_MESSAGE_CODEC) {
+      setPrimitiveBody(messageCodec, Double.doubleToRawLongBits(buffer.getDouble(bodyPos)));
+    } else {
+      return;
+    }
+    bodyPos = 0;
+  }
+
   private void encodeHeaders(Buffer buffer) {
     if (headers != null && !headers.isEmpty()) {
       int headersLengthPos = buffer.length();
@@ -205,6 +356,10 @@ public class ClusteredMessage<U, V> extends MessageImpl<U, V> {
   }
 
   private void decodeHeaders() {
+    if (wireVersion == WireProtocol.VERSION_2) {
+      decodeCompactHeaders();
+      return;
+    }
     int length = wireBuffer.getInt(headersPos);
     if (length != 4) {
       headersPos += 4;
@@ -228,8 +383,50 @@ public class ClusteredMessage<U, V> extends MessageImpl<U, V> {
     headersPos = 0;
   }
 
+  private void encodeCompactHeaders(Buffer buffer) {
+    if (headers != null && !headers.isEmpty()) {
+      List<Map.Entry<String, String>> entries = headers.entries();
+      WireProtocol.appendVarInt(buffer, entries.size());
+      for (Map.Entry<String, String> entry: entries) {
+        WireProtocol.appendString(buffer, entry.getKey());
+        WireProtocol.appendString(buffer, entry.getValue());
+      }
+    } else {
+      WireProtocol.appendVarInt(buffer, 0);
+    }
+  }
+
+  private void decodeCompactHeaders() {
+    int pos = headersPos;
+    int numHeaders = WireProtocol.getVarInt(wireBuffer, pos);
+    pos += WireProtocol.varIntSize(numHeaders);
+    headers = new CaseInsensitiveHeaders();
+    for (int i = 0; i < numHeaders; i++) {
+      int keyLength = WireProtocol.getVarInt(wireBuffer, pos);
+      pos += WireProtocol.varIntSize(keyLength);
+      String key = wireBuffer.getString(pos, pos + keyLength);
+      pos += keyLength;
+      int valLength = WireProtocol.getVarInt(wireBuffer, pos);
+      pos += WireProtocol.varIntSize(valLength);
+      String val = wireBuffer.getString(pos, pos + valLength);
+      pos += valLength;
+      headers.add(key, val);
+    }
+    headersPos = 0;
+  }
+
   private void writeBody(Buffer buff) {
-    messageCodec.encodeToWire(buff, sentBody);
+    if (primitiveBody) {
+      if (messageCodec == CodecManager.INT_MESSAGE_CODEC) {
+        buff.appendInt((int) primitiveBits);
+      } else if (messageCodec == CodecManager.LONG_MESSAGE_CODEC) {
+        buff.appendLong(primitiveBits);
+      } else {
+        buff.appendDouble(Double.longBitsToDouble(primitiveBits));
+      }
+    } else {
+      messageCodec.encodeToWire(buff, sentBody);
+    }
   }
 
   private void writeString(Buffer buff, String str) {
@@ -1,9 +1,9 @@
 package io.vertx.core.eventbus.impl.clustered;
 
-import io.vertx.core.Vertx;
-import io.vertx.core.VertxOptions;
+import io.netty.buffer.ByteBuf;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.EventBusOptions;
+import io.vertx.core.eventbus.impl.ReplyHandler;
 import io.vertx.core.eventbus.impl.codecs.PingMessageCodec;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
@@ -11,11 +11,16 @@ import io.vertx.core.net.NetClient;
 import io.vertx.core.net.NetClientOptions;
 import io.vertx.core.net.NetSocket;
 import io.vertx.core.net.impl.NetClientImpl;
+import io.vertx.core.net.impl.NetSocketImpl;
+import io.vertx.core.net.impl.PartialPooledByteBufAllocator;
 import io.vertx.core.net.impl.ServerID;
 import io.vertx.core.spi.metrics.EventBusMetrics;
 
-import java.util.ArrayDeque;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author <a href="http://tfox.org">Tim Fox</a>
@@ -26,23 +31,40 @@ class ConnectionHolder {
 
   private static final String PING_ADDRESS = "__vertx_ping";
 
+  // The maximum number of messages written before a flush, so a drain doesn't hold the event loop for too long
+  private static final int MAX_BATCH_SIZE = 256;
+
   private final ClusteredEventBus eventBus;
   private final NetClient client;
   private final ServerID serverID;
-  private final Vertx vertx;
+  private final int index;
   private final EventBusMetrics metrics;
+  private final int maxPendingMessages;
 
-  private Queue<ClusteredMessage> pending;
-  private NetSocket socket;
+  // The encoded messages, written and flushed in batches on the event loop of the socket
+  private final Queue<PendingMessage> pending = new ConcurrentLinkedQueue<>();
+  // The number of messages not flushed yet, it can exceed the limit by the number of concurrent senders
+  private final AtomicInteger pendingCount = new AtomicInteger();
+  private final AtomicBoolean drainScheduled = new AtomicBoolean();
+  private final Runnable drainTask = this::drain;
+  // The state of the version 2 protocol, used by the drain
+  private final WireProtocol.Encoder encoder = new WireProtocol.Encoder();
+  private volatile byte protocolVersion = WireProtocol.VERSION_1;
+  private volatile NetSocketImpl socket;
+  private volatile boolean closed;
   private boolean connected;
-  private long timeoutID = -1;
-  private long pingTimeoutID = -1;
+  // The liveness of the connection, checked by the heartbeat of the event bus: the last time a pong was received
+  // and the time the pending ping was sent
+  private volatile long lastPong;
+  private volatile boolean pingPending;
+  private volatile long pingTime;
 
-  ConnectionHolder(ClusteredEventBus eventBus, ServerID serverID, EventBusOptions options) {
+  ConnectionHolder(ClusteredEventBus eventBus, ServerID serverID, int index, EventBusOptions options) {
     this.eventBus = eventBus;
     this.serverID = serverID;
-    this.vertx = eventBus.vertx();
+    this.index = index;
     this.metrics = eventBus.getMetrics();
+    this.maxPendingMessages = options.getMaxPendingMessages();
     NetClientOptions clientOptions = new NetClientOptions(options.toJson());
     ClusteredEventBus.setCertOptions(clientOptions, options.getKeyCertOptions());
     ClusteredEventBus.setTrustOptions(clientOptions, options.getTrustOptions());
@@ -55,79 +77,173 @@ class ConnectionHolder {
     }
     client.connect(serverID.port, serverID.host, res -> {
       if (res.succeeded()) {
+        eventBus.peerReachable(serverID);
         connected(res.result());
       } else {
+        eventBus.peerUnreachable(serverID);
         close();
       }
     });
   }
 
-  // TODO optimise this (contention on monitor)
-  synchronized void writeMessage(ClusteredMessage message) {
-    if (connected) {
-      Buffer data = message.encodeToWire();
-      metrics.messageWritten(message.address(), data.length());
-      socket.write(data);
-    } else {
-      if (pending == null) {
-        pending = new ArrayDeque<>();
-      }
-      pending.add(message);
+  /**
+   * @param replyHandler  the reply handler of the message, failed when the message is dropped, or {@code null}
+   */
+  void writeMessage(ClusteredMessage message, SharedPayload payload, ReplyHandler<?> replyHandler) {
+    if (maxPendingMessages != -1 && pendingCount.get() >= maxPendingMessages) {
+      eventBus.messageDropped(serverID, message, replyHandler, "Too many messages pending for " + serverID);
+      return;
+    }
+    // The payload is encoded on the sending thread so the message is sent as it is now, the envelope depends on
+    // the state of the connection and is encoded by the drain
+    byte version = protocolVersion;
+    pendingCount.incrementAndGet();
+    pending.add(new PendingMessage(message, payload.retainedDuplicate(version), version, payload.compressed(version),
+      replyHandler));
+    if (closed) {
+      releasePending();
+    } else if (socket != null) {
+      scheduleDrain();
     }
   }
 
-  void close() {
-    if (timeoutID != -1) {
-      vertx.cancelTimer(timeoutID);
+  private void scheduleDrain() {
+    if (drainScheduled.compareAndSet(false, true)) {
+      socket.eventLoop().execute(drainTask);
+    }
+  }
+
+  private void drain() {
+    // Clear the flag first, a message added during the drain schedules another one
+    drainScheduled.set(false);
+    if (closed) {
+      releasePending();
+      return;
+    }
+    int numberOfMessages = 0;
+    int numberOfBytes = 0;
+    PendingMessage msg;
+    // Stop writing when the peer doesn't read fast enough, the drain handler of the socket resumes it
+    while (numberOfMessages < MAX_BATCH_SIZE && !socket.writeQueueFull() && (msg = pending.poll()) != null) {
+      ByteBuf envelope = PartialPooledByteBufAllocator.INSTANCE.directBuffer(64);
+      msg.message.encodeEnvelope(Buffer.buffer(envelope), msg.version == WireProtocol.VERSION_2 ? encoder : null,
+        msg.compressed);
+      int length = envelope.readableBytes() + msg.payload.readableBytes();
+      envelope.setInt(0, length - 4);
+      metrics.messageWritten(msg.message.address(), length);
+      numberOfBytes += length;
+      numberOfMessages++;
+      socket.writeWithoutFlush(envelope);
+      socket.writeWithoutFlush(msg.payload);
     }
-    if (pingTimeoutID != -1) {
-      vertx.cancelTimer(pingTimeoutID);
+    if (numberOfMessages > 0) {
+      metrics.messageBatchWritten(numberOfMessages, numberOfBytes);
+      socket.flush();
+      pendingCount.addAndGet(-numberOfMessages);
     }
+    if (!pending.isEmpty() && !socket.writeQueueFull()) {
+      scheduleDrain();
+    }
+  }
+
+  private void releasePending() {
+    // The senders don't wait for the reply timeout of a message that can't be written anymore
+    PendingMessage msg;
+    while ((msg = pending.poll()) != null) {
+      pendingCount.decrementAndGet();
+      msg.payload.release();
+      eventBus.messageDropped(serverID, msg.message, msg.replyHandler, "Connection to " + serverID + " closed");
+    }
+  }
+
+  void close() {
+    closed = true;
+    releasePending();
     try {
       client.close();
     } catch (Exception ignore) {
     }
     // The holder can be null or different if the target server is restarted with same serverid
     // before the cleanup for the previous one has been processed
-    if (eventBus.connections().remove(serverID, this)) {
+    if (eventBus.connections(index).remove(serverID, this)) {
       log.debug("Cluster connection closed: " + serverID + " holder " + this);
     }
   }
 
-  private void schedulePing() {
+  /**
+   * Check the liveness of the connection, called periodically by the event bus for all its connections.
+   * <p>
+   * A ping is sent when no pong was received during the ping interval, whether messages are written or not: the writes
+   * to a dead peer can still succeed locally. The connection is closed when the pong doesn't come back during the ping
+   * reply interval.
+   *
+   * @param now  the current {@link System#nanoTime()}
+   */
+  void checkLiveness(long now) {
+    if (socket == null || closed) {
+      // The connect timeout applies while connecting
+      return;
+    }
     EventBusOptions options = eventBus.options();
-    pingTimeoutID = vertx.setTimer(options.getClusterPingInterval(), id1 -> {
-      // If we don't get a pong back in time we close the connection
-      timeoutID = vertx.setTimer(options.getClusterPingReplyInterval(), id2 -> {
+    if (pingPending) {
+      if (now - pingTime >= TimeUnit.MILLISECONDS.toNanos(options.getClusterPingReplyInterval())) {
         // Didn't get pong in time - consider connection dead
         log.warn("No pong from server " + serverID + " - will consider it dead");
+        eventBus.peerUnreachable(serverID);
         close();
-      });
-      ClusteredMessage pingMessage =
-        new ClusteredMessage<>(serverID, PING_ADDRESS, null, null, null, new PingMessageCodec(), true, eventBus);
-      Buffer data = pingMessage.encodeToWire();
-      socket.write(data);
-    });
+      }
+    } else if (now - lastPong >= TimeUnit.MILLISECONDS.toNanos(options.getClusterPingInterval())) {
+      ping();
+    }
+  }
+
+  private void ping() {
+    // If we don't get a pong back in time the heartbeat closes the connection
+    pingTime = System.nanoTime();
+    pingPending = true;
+    ClusteredMessage pingMessage =
+      new ClusteredMessage<>(serverID, PING_ADDRESS, null, null, null, new PingMessageCodec(), true, eventBus);
+    Buffer data = pingMessage.encodeToWire();
+    socket.write(data);
   }
 
   private synchronized void connected(NetSocket socket) {
-    this.socket = socket;
+    lastPong = System.nanoTime();
+    this.socket = (NetSocketImpl) socket;
     connected = true;
     socket.exceptionHandler(t -> close());
     socket.closeHandler(v -> close());
+    // The socket became writable again
+    socket.drainHandler(v -> scheduleDrain());
     socket.handler(data -> {
-      // Got a pong back
-      vertx.cancelTimer(timeoutID);
-      schedulePing();
+      // Got a pong back, a server supporting the version 2 of the protocol tells it in its pongs
+      if (data.getByte(data.length() - 1) == WireProtocol.PONG_V2) {
+        protocolVersion = WireProtocol.VERSION_2;
+      }
+      lastPong = System.nanoTime();
+      pingPending = false;
     });
-    // Start a pinger
-    schedulePing();
-    for (ClusteredMessage message : pending) {
-      Buffer data = message.encodeToWire();
-      metrics.messageWritten(message.address(), data.length());
-      socket.write(data);
-    }
-    pending.clear();
+    // The first ping is sent now to negotiate the protocol version
+    ping();
+    // Write the messages sent while connecting
+    scheduleDrain();
   }
 
+  private static class PendingMessage {
+
+    final ClusteredMessage message;
+    final ByteBuf payload;
+    final byte version;
+    final boolean compressed;
+    final ReplyHandler<?> replyHandler;
+
+    PendingMessage(ClusteredMessage message, ByteBuf payload, byte version, boolean compressed,
+                   ReplyHandler<?> replyHandler) {
+      this.message = message;
+      this.payload = payload;
+      this.version = version;
+      this.compressed = compressed;
+      this.replyHandler = replyHandler;
+    }
+  }
 }
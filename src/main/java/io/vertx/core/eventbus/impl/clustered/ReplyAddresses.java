@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2011-2016 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.core.eventbus.impl.clustered;
+
+import io.vertx.core.eventbus.impl.ReplyHandlers;
+import io.vertx.core.net.impl.ServerID;
+
+import java.security.SecureRandom;
+
+/**
+ * The reply addresses of a clustered node: {@code __vertx.reply.<id>.<token>.<port>.<host>}.
+ * <p>
+ * The token can't be guessed from the id or from other reply addresses: it is the SipHash-2-4 of the id with a key
+ * drawn once per node from {@link SecureRandom}, so no random number is generated per request. The port and the host
+ * identify the node, a message sent to a reply address is routed to its node without looking up the subscriptions.
+ */
+class ReplyAddresses {
+
+  private final long k0;
+  private final long k1;
+  private final String suffix;
+
+  ReplyAddresses(ServerID serverID) {
+    SecureRandom random = new SecureRandom();
+    this.k0 = random.nextLong();
+    this.k1 = random.nextLong();
+    this.suffix = "." + serverID.port + "." + serverID.host;
+  }
+
+  String generate(long id) {
+    return ReplyHandlers.REPLY_ADDRESS_PREFIX + id + "." + Long.toHexString(token(id)) + suffix;
+  }
+
+  /**
+   * @return the node of a reply address, or {@code null} when the address is not a reply address of this format
+   */
+  static ServerID parseNode(String address) {
+    if (!address.startsWith(ReplyHandlers.REPLY_ADDRESS_PREFIX)) {
+      return null;
+    }
+    // Skip the id and the token
+    int tokenPos = address.indexOf('.', ReplyHandlers.REPLY_ADDRESS_PREFIX.length());
+    int portPos = tokenPos == -1 ? -1 : address.indexOf('.', tokenPos + 1);
+    int hostPos = portPos == -1 ? -1 : address.indexOf('.', portPos + 1);
+    if (hostPos == -1 || hostPos == portPos + 1 || hostPos == address.length() - 1 || hostPos - portPos > 6) {
+      return null;
+    }
+    int port = 0;
+    for (int i = portPos + 1; i < hostPos; i++) {
+      char c = address.charAt(i);
+      if (c < '0' || c > '9') {
+        return null;
+      }
+      port = port * 10 + (c - '0');
+    }
+    return new ServerID(port, address.substring(hostPos + 1));
+  }
+
+  // SipHash-2-4 of a single 8 bytes word
+  private long token(long m) {
+    long v0 = k0 ^ 0x736f6d6570736575L;
+    long v1 = k1 ^ 0x646f72616e646f6dL;
+    long v2 = k0 ^ 0x6c7967656e657261L;
+    long v3 = k1 ^ 0x7465646279746573L;
+    long b = 8L << 56;
+    for (int block = 0; block < 2; block++) {
+      long w = block == 0 ? m : b;
+      v3 ^= w;
+      for (int i = 0; i < 2; i++) {
+        v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+        v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+        v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+        v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+      }
+      v0 ^= w;
+    }
+    v2 ^= 0xff;
+    for (int i = 0; i < 4; i++) {
+      v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+      v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+      v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+      v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+    }
+    return v0 ^ v1 ^ v2 ^ v3;
+  }
+}
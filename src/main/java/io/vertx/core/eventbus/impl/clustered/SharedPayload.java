@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2011-2016 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.core.eventbus.impl.clustered;
+
+import io.netty.buffer.ByteBuf;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.impl.PartialPooledByteBufAllocator;
+import io.vertx.core.spi.metrics.EventBusMetrics;
+
+/**
+ * The payload of a message sent to one or more nodes, the headers and the body.
+ * <p>
+ * The payload is encoded at most once per version of the protocol, each connection writes a retained duplicate of
+ * it. The sender must {@link #release()} it once the message is written to all the connections.
+ * <p>
+ * It is used by the sending thread only.
+ */
+class SharedPayload {
+
+  private final ClusteredMessage message;
+  private final int compressionThreshold;
+  private final EventBusMetrics metrics;
+  private ByteBuf v1;
+  private ByteBuf v2;
+  private boolean v2Compressed;
+
+  SharedPayload(ClusteredMessage message, int compressionThreshold, EventBusMetrics metrics) {
+    this.message = message;
+    this.compressionThreshold = compressionThreshold;
+    this.metrics = metrics;
+  }
+
+  /**
+   * @return a duplicate of the payload for the {@code version}, it must be released by the caller
+   */
+  ByteBuf retainedDuplicate(byte version) {
+    if (version == WireProtocol.VERSION_1) {
+      if (v1 == null) {
+        v1 = encode(version);
+      }
+      return v1.retainedDuplicate();
+    }
+    if (v2 == null) {
+      v2 = encode(version);
+      // Only the version 2 of the protocol supports compression
+      if (compressionThreshold != -1 && v2.readableBytes() > compressionThreshold) {
+        ByteBuf deflated = WireProtocol.deflate(v2);
+        if (deflated != null) {
+          metrics.messageCompressed(message.address(), v2.readableBytes(), deflated.readableBytes());
+          v2.release();
+          v2 = deflated;
+          v2Compressed = true;
+        }
+      }
+    }
+    return v2.retainedDuplicate();
+  }
+
+  /**
+   * @return whether the payload for the {@code version} is compressed
+   */
+  boolean compressed(byte version) {
+    return version == WireProtocol.VERSION_2 && v2Compressed;
+  }
+
+  void release() {
+    if (v1 != null) {
+      v1.release();
+      v1 = null;
+    }
+    if (v2 != null) {
+      v2.release();
+      v2 = null;
+    }
+  }
+
+  private ByteBuf encode(byte version) {
+    ByteBuf payload = PartialPooledByteBufAllocator.INSTANCE.directBuffer();
+    try {
+      message.encodePayload(Buffer.buffer(payload), version);
+    } catch (RuntimeException e) {
+      payload.release();
+      throw e;
+    }
+    return payload;
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2011-2016 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.core.eventbus.impl.clustered;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.net.impl.ServerID;
+import io.vertx.core.spi.cluster.AsyncMultiMap;
+import io.vertx.core.spi.cluster.ChoosableIterable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A node local cache of the subscriptions multimap, so sending to an address doesn't get its subscriptions from the
+ * cluster for every message.
+ * <p>
+ * An address is looked up in the cluster once, the sends made during the lookup wait for it in order. The entry of an
+ * address is removed when the multimap notifies a change of the address, it is looked up again by the next send.
+ * <p>
+ * When the multimap doesn't notify its changes, every send gets the subscriptions from the cluster.
+ * <p>
+ * A send to a resolved address doesn't lock, only the sends made during the lookup of the address do.
+ */
+class SubsCache {
+
+  private final AsyncMultiMap<String, ServerID> subs;
+  private final Handler<String> changeHandler = this::invalidate;
+  private final boolean enabled;
+  private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+  SubsCache(AsyncMultiMap<String, ServerID> subs) {
+    this.subs = subs;
+    this.enabled = subs.changeHandler(changeHandler);
+  }
+
+  void get(String address, Handler<AsyncResult<ChoosableIterable<ServerID>>> resultHandler) {
+    if (!enabled) {
+      subs.get(address, resultHandler);
+      return;
+    }
+    Entry entry = entries.get(address);
+    if (entry == null) {
+      Entry lookup = new Entry();
+      entry = entries.putIfAbsent(address, lookup);
+      if (entry == null) {
+        lookup.waiters.add(resultHandler);
+        subs.get(address, ar -> lookup.resolve(address, ar));
+        return;
+      }
+    }
+    entry.handle(resultHandler);
+  }
+
+  /**
+   * Invalidate the subscriptions of an address, or of all the addresses when {@code address} is {@code null}.
+   */
+  void invalidate(String address) {
+    if (address != null) {
+      entries.remove(address);
+    } else {
+      entries.clear();
+    }
+  }
+
+  /**
+   * Stop caching, the multimap doesn't notify its changes to this cache anymore.
+   */
+  void close() {
+    if (enabled) {
+      subs.removeChangeHandler(changeHandler);
+      entries.clear();
+    }
+  }
+
+  private class Entry {
+
+    // The handlers waiting for the lookup, null once resolved, the result is set before
+    private volatile List<Handler<AsyncResult<ChoosableIterable<ServerID>>>> waiters = new ArrayList<>();
+    private volatile AsyncResult<ChoosableIterable<ServerID>> result;
+
+    void handle(Handler<AsyncResult<ChoosableIterable<ServerID>>> resultHandler) {
+      if (waiters != null) {
+        synchronized (this) {
+          if (waiters != null) {
+            waiters.add(resultHandler);
+            return;
+          }
+        }
+      }
+      resultHandler.handle(result);
+    }
+
+    // The waiters are called with the lock held and cleared after, so a send made during the resolution waits for
+    // the lock and can't overtake a send waiting for the lookup
+    synchronized void resolve(String address, AsyncResult<ChoosableIterable<ServerID>> ar) {
+      if (ar.failed() || ar.result() == null) {
+        // Don't keep it, the next send looks it up again
+        entries.remove(address, this);
+      }
+      result = ar;
+      for (Handler<AsyncResult<ChoosableIterable<ServerID>>> waiter : waiters) {
+        waiter.handle(ar);
+      }
+      waiters = null;
+    }
+  }
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) 2011-2016 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.core.eventbus.impl.clustered;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.CharsetUtil;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.impl.PartialPooledByteBufAllocator;
+import io.vertx.core.net.impl.ServerID;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The wire protocol of the clustered event bus connections.
+ * <p>
+ * Version 1 frames carry the full strings of a message envelope and the sender of the message. Version 2 frames are
+ * compact: lengths are varints, addresses and codec names are interned per connection and the sender is sent once
+ * per connection.
+ * <p>
+ * A connection starts with version 1, the server answers the pings of a connection with {@link #PONG_V2} and the
+ * client then switches to version 2. A server reads the frames of both versions, a version 1 server answers with
+ * {@link #PONG_V1} so the client keeps using version 1.
+ * <p>
+ * A version 2 frame is made of:
+ * <ul>
+ *   <li>the frame length (int)</li>
+ *   <li>the version (byte)</li>
+ *   <li>the flags (byte): {@link #FLAG_SEND}, {@link #FLAG_REPLY_ADDRESS}, {@link #FLAG_SENDER},
+ *   {@link #FLAG_COMPRESSED}</li>
+ *   <li>the system codec id (byte), followed by the interned codec name when it is {@code -1}</li>
+ *   <li>the interned address</li>
+ *   <li>the reply address string, when flagged</li>
+ *   <li>the sender port (varint) and host string, when flagged</li>
+ *   <li>the number of headers (varint), followed by the name and value strings of each header</li>
+ *   <li>the body, encoded by the message codec</li>
+ * </ul>
+ * <p>
+ * When the frame is compressed, the headers and the body are replaced by their length (varint) followed by their
+ * raw deflate compression.
+ * <p>
+ * A string is its length (varint) followed by its UTF-8 bytes. An interned string is a reference (varint): {@code 0}
+ * followed by a string that is not interned, {@code 1} followed by a string that gets the next id of the connection,
+ * or {@code id + 2} for a string interned before.
+ */
+final class WireProtocol {
+
+  static final byte VERSION_1 = 1;
+  static final byte VERSION_2 = 2;
+
+  static final byte PONG_V1 = 1;
+  static final byte PONG_V2 = 2;
+
+  static final int FLAG_SEND = 1;
+  static final int FLAG_REPLY_ADDRESS = 2;
+  static final int FLAG_SENDER = 4;
+  static final int FLAG_COMPRESSED = 8;
+
+  private static final int NOT_INTERNED = 0;
+  private static final int INTERNED_DEFINITION = 1;
+  private static final int INTERNED_REFERENCE = 2;
+
+  // Bounds the memory used by each connection when many distinct addresses are used
+  private static final int MAX_INTERNED_STRINGS = 4096;
+
+  private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED, true));
+
+  private WireProtocol() {
+  }
+
+  /**
+   * Compress the payload of a frame, the headers and the body.
+   *
+   * @return the compressed payload, or {@code null} when it is not smaller than the payload
+   */
+  static ByteBuf deflate(ByteBuf payload) {
+    int length = payload.readableBytes();
+    byte[] input = new byte[length];
+    payload.getBytes(payload.readerIndex(), input);
+    Deflater deflater = DEFLATER.get();
+    deflater.reset();
+    deflater.setInput(input);
+    deflater.finish();
+    ByteBuf compressed = PartialPooledByteBufAllocator.INSTANCE.directBuffer(length);
+    Buffer buffer = Buffer.buffer(compressed);
+    appendVarInt(buffer, length);
+    byte[] chunk = new byte[Math.min(length, 8192)];
+    while (!deflater.finished()) {
+      buffer.appendBytes(chunk, 0, deflater.deflate(chunk));
+      if (compressed.readableBytes() >= length) {
+        compressed.release();
+        return null;
+      }
+    }
+    return compressed;
+  }
+
+  static void appendVarInt(Buffer buffer, int value) {
+    while ((value & ~0x7F) != 0) {
+      buffer.appendByte((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    buffer.appendByte((byte) value);
+  }
+
+  static int getVarInt(Buffer buffer, int pos) {
+    int value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = buffer.getByte(pos++);
+      value |= (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return value;
+  }
+
+  /**
+   * @return the number of bytes of an encoded varint
+   */
+  static int varIntSize(int value) {
+    int size = 1;
+    while ((value & ~0x7F) != 0) {
+      value >>>= 7;
+      size++;
+    }
+    return size;
+  }
+
+  static void appendString(Buffer buffer, String str) {
+    byte[] bytes = str.getBytes(CharsetUtil.UTF_8);
+    appendVarInt(buffer, bytes.length);
+    buffer.appendBytes(bytes);
+  }
+
+  /**
+   * The state of the writing side of a version 2 connection, it must be used from the event loop of the connection.
+   */
+  static final class Encoder {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private boolean senderSent;
+
+    /**
+     * @return {@code true} the first time it is called, the sender must be written once per connection
+     */
+    boolean writeSender() {
+      if (senderSent) {
+        return false;
+      }
+      senderSent = true;
+      return true;
+    }
+
+    void appendInterned(Buffer buffer, String str) {
+      Integer id = ids.get(str);
+      if (id != null) {
+        appendVarInt(buffer, id + INTERNED_REFERENCE);
+      } else if (ids.size() < MAX_INTERNED_STRINGS) {
+        ids.put(str, ids.size());
+        appendVarInt(buffer, INTERNED_DEFINITION);
+        appendString(buffer, str);
+      } else {
+        appendNotInterned(buffer, str);
+      }
+    }
+
+    /**
+     * Append a string that is used once, e.g. a reply address, it doesn't take an id of the connection.
+     */
+    void appendNotInterned(Buffer buffer, String str) {
+      appendVarInt(buffer, NOT_INTERNED);
+      appendString(buffer, str);
+    }
+  }
+
+  /**
+   * The state of the reading side of a connection, it reads a frame at a time from the event loop of the connection.
+   */
+  static final class Decoder {
+
+    private final List<String> strings = new ArrayList<>();
+    private final int maxFrameSize;
+    private Inflater inflater;
+    private ServerID sender;
+    private Buffer buffer;
+    private int pos;
+
+    /**
+     * @param maxFrameSize  the maximum size of a frame, a compressed frame can't be inflated beyond it
+     */
+    Decoder(int maxFrameSize) {
+      this.maxFrameSize = maxFrameSize;
+    }
+
+    void reset(Buffer buffer, int pos) {
+      this.buffer = buffer;
+      this.pos = pos;
+    }
+
+    int pos() {
+      return pos;
+    }
+
+    void skip(int length) {
+      pos += length;
+    }
+
+    byte readByte() {
+      return buffer.getByte(pos++);
+    }
+
+    int readVarInt() {
+      int value = getVarInt(buffer, pos);
+      pos += varIntSize(value);
+      return value;
+    }
+
+    String readString() {
+      int length = readVarInt();
+      if (length < 0 || length > buffer.length() - pos) {
+        throw new IllegalStateException("Invalid string length " + length);
+      }
+      String str = buffer.getString(pos, pos + length);
+      pos += length;
+      return str;
+    }
+
+    String readInterned() {
+      int ref = readVarInt();
+      if (ref < 0) {
+        throw new IllegalStateException("Invalid interned string reference " + ref);
+      }
+      if (ref >= INTERNED_REFERENCE) {
+        int id = ref - INTERNED_REFERENCE;
+        if (id >= strings.size()) {
+          throw new IllegalStateException("Invalid interned string reference " + ref);
+        }
+        return strings.get(id);
+      }
+      String str = readString();
+      if (ref == INTERNED_DEFINITION) {
+        strings.add(str);
+      }
+      return str;
+    }
+
+    /**
+     * Decompress the payload of the frame, it starts at the current position.
+     *
+     * @return a frame made of the envelope of the frame followed by the decompressed payload
+     * @throws IllegalStateException when the decompressed frame would be larger than the maximum frame size
+     */
+    Buffer inflate() {
+      int payloadPos = pos;
+      int length = readVarInt();
+      // The length is read from the wire, it is checked before it is allocated
+      if (length < 0 || length > maxFrameSize - payloadPos) {
+        throw new IllegalStateException("Decompressed frame larger than the maximum frame size " + maxFrameSize);
+      }
+      byte[] input = buffer.getBytes(pos, buffer.length());
+      if (inflater == null) {
+        inflater = new Inflater(true);
+      }
+      inflater.reset();
+      inflater.setInput(input);
+      byte[] output = new byte[length];
+      try {
+        int inflated = 0;
+        while (inflated < length) {
+          int n = inflater.inflate(output, inflated, length - inflated);
+          if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+            throw new IllegalStateException("Truncated compressed payload");
+          }
+          inflated += n;
+        }
+      } catch (DataFormatException e) {
+        throw new IllegalStateException("Invalid compressed payload", e);
+      }
+      Buffer frame = buffer.getBuffer(0, payloadPos).appendBytes(output);
+      reset(frame, payloadPos);
+      return frame;
+    }
+
+    void close() {
+      if (inflater != null) {
+        inflater.end();
+      }
+    }
+
+    ServerID sender() {
+      return sender;
+    }
+
+    void sender(ServerID sender) {
+      this.sender = sender;
+    }
+  }
+}
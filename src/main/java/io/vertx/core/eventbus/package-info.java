@@ -141,6 +141,23 @@
  * {@link examples.EventBusExamples#example3}
  * ----
  *
+ * ==== Wildcard Handlers
+ *
+ * A handler can be registered for all the addresses matching a pattern with
+ * {@link io.vertx.core.eventbus.EventBus#wildcardConsumer(String, io.vertx.core.Handler)}. The segments of an address
+ * are separated by dots, in a pattern +*+ matches exactly one segment and a final +#+ matches zero or more segments.
+ *
+ * [source,$lang]
+ * ----
+ * {@link examples.EventBusExamples#exampleWildcardConsumer}
+ * ----
+ *
+ * A published message is delivered to all the matching handlers. A sent message is delivered to a handler of its
+ * exact address when there is one, otherwise to a handler of the most specific matching pattern.
+ *
+ * Wildcard handlers are local to the node: like handlers registered with
+ * {@link io.vertx.core.eventbus.EventBus#localConsumer}, they are not propagated across the cluster.
+ *
  * ==== Un-registering Handlers
  *
  * To unregister a handler, call {@link io.vertx.core.eventbus.MessageConsumer#unregister}.
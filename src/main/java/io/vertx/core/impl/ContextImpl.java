@@ -61,13 +61,23 @@ public abstract class ContextImpl implements ContextInternal {
 
   protected ContextImpl(VertxInternal vertx, WorkerPool internalBlockingPool, WorkerPool workerPool, String deploymentID, JsonObject config,
                         ClassLoader tccl) {
+    this(vertx, null, internalBlockingPool, workerPool, deploymentID, config, tccl);
+  }
+
+  /**
+   * @param eventLoop the event loop of the context, or {@code null} for the next event loop of Vert.x
+   */
+  protected ContextImpl(VertxInternal vertx, EventLoop eventLoop, WorkerPool internalBlockingPool, WorkerPool workerPool,
+                        String deploymentID, JsonObject config, ClassLoader tccl) {
     if (DISABLE_TCCL && !tccl.getClass().getName().equals("sun.misc.Launcher$AppClassLoader")) {
       log.warn("You have disabled TCCL checks but you have a custom TCCL to set.");
     }
     this.deploymentID = deploymentID;
     this.config = config;
     EventLoopGroup group = vertx.getEventLoopGroup();
-    if (group != null) {
+    if (eventLoop != null) {
+      this.eventLoop = eventLoop;
+    } else if (group != null) {
       this.eventLoop = group.next();
     } else {
       this.eventLoop = null;
@@ -122,6 +132,23 @@ public abstract class ContextImpl implements ContextInternal {
     return new WorkerExecutorImpl(this, workerPool, false);
   }
 
+  @Override
+  public Executor createOrderedWorkerExecutor() {
+    if (isEventLoopContext()) {
+      throw new IllegalStateException("Not a worker context");
+    }
+    Executor orderedExec = workerPool.createOrderedExecutor();
+    PoolMetrics metrics = workerPool.metrics();
+    return task -> {
+      try {
+        // The tasks of the executor don't run on the same thread as the other tasks of the context
+        orderedExec.execute(wrapTask(null, v -> task.run(), false, metrics));
+      } catch (RejectedExecutionException ignore) {
+        // Pool is already shut down
+      }
+    };
+  }
+
   public void runCloseHooks(Handler<AsyncResult<Void>> completionHandler) {
     closeHooks.run(completionHandler);
     // Now remove context references from threads
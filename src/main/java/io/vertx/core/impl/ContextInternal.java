@@ -21,6 +21,8 @@ import io.vertx.core.Context;
 import io.vertx.core.Vertx;
 import io.vertx.core.WorkerExecutor;
 
+import java.util.concurrent.Executor;
+
 /**
  * This interface provides an api for vert.x core internal use only
  * It is not part of the public API and should not be used by
@@ -49,6 +51,15 @@ public interface ContextInternal extends Context {
    */
   WorkerExecutor createWorkerExecutor();
 
+  /**
+   * Create an executor running its tasks in order on the worker pool of a worker context, the tasks run on this
+   * context. The tasks of distinct executors run in parallel, also with the other tasks of the context.
+   *
+   * @return a new ordered executor
+   * @throws IllegalStateException when this context is an event loop context
+   */
+  Executor createOrderedWorkerExecutor();
+
   /**
    * Execute the context task and switch on this context if necessary, this also associates the
    * current thread with the current context so {@link Vertx#currentContext()} returns this context.<p/>
@@ -16,6 +16,7 @@
 
 package io.vertx.core.impl;
 
+import io.netty.channel.EventLoop;
 import io.vertx.core.*;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
@@ -417,11 +418,14 @@ public class DeploymentManager {
     
     AtomicInteger deployCount = new AtomicInteger();
     AtomicBoolean failureReported = new AtomicBoolean();
+    String affinity = options.getEventLoopAffinity();
+    int instance = 0;
     for (Verticle verticle: verticles) {
       WorkerExecutorImpl workerExec = poolName != null ? vertx.createSharedWorkerExecutor(poolName, options.getWorkerPoolSize()) : null;
       WorkerPool pool = workerExec != null ? workerExec.getPool() : null;
-      ContextImpl context = options.isWorker() ? vertx.createWorkerContext(options.isMultiThreaded(), deploymentID, pool, conf, tccl) :
-        vertx.createEventLoopContext(deploymentID, pool, conf, tccl);
+      EventLoop eventLoop = affinity != null ? vertx.affinityEventLoop(affinity, instance++) : null;
+      ContextImpl context = options.isWorker() ? vertx.createWorkerContext(options.isMultiThreaded(), deploymentID, eventLoop, pool, conf, tccl) :
+        vertx.createEventLoopContext(deploymentID, eventLoop, pool, conf, tccl);
       if (workerExec != null) {
         context.addCloseHook(workerExec);
       }
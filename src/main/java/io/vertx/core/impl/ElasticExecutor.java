@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2011-2016 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.core.impl;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of threads that starts a thread for a task submitted while all its threads are busy, up to its maximum
+ * size, and queues the tasks beyond it.
+ * <p>
+ * A {@link ThreadPoolExecutor} only starts threads beyond its core size when its queue is full, so the queue refuses
+ * the tasks while the pool can grow and the tasks refused by a pool at its maximum size are queued anyway.
+ */
+class ElasticExecutor extends ThreadPoolExecutor {
+
+  // The tasks submitted and not completed yet, running or queued
+  private final AtomicInteger submitted = new AtomicInteger();
+
+  ElasticExecutor(int coreSize, int maxSize, ThreadFactory threadFactory) {
+    super(coreSize, maxSize, 60L, TimeUnit.SECONDS, new Queue(), threadFactory, (task, executor) -> {
+      if (executor.isShutdown()) {
+        throw new RejectedExecutionException("Executor is shut down");
+      }
+      ((Queue) executor.getQueue()).force(task);
+    });
+    ((Queue) getQueue()).executor = this;
+  }
+
+  @Override
+  public void execute(Runnable task) {
+    submitted.incrementAndGet();
+    try {
+      super.execute(task);
+    } catch (RejectedExecutionException e) {
+      submitted.decrementAndGet();
+      throw e;
+    }
+  }
+
+  @Override
+  protected void afterExecute(Runnable task, Throwable t) {
+    submitted.decrementAndGet();
+  }
+
+  private static class Queue extends LinkedBlockingQueue<Runnable> {
+
+    private ElasticExecutor executor;
+
+    @Override
+    public boolean offer(Runnable task) {
+      int poolSize = executor.getPoolSize();
+      if (poolSize < executor.getMaximumPoolSize() && executor.submitted.get() > poolSize) {
+        // All the threads are busy, the executor starts a new one
+        return false;
+      }
+      return super.offer(task);
+    }
+
+    void force(Runnable task) {
+      super.offer(task);
+    }
+  }
+}
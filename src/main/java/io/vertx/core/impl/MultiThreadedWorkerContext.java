@@ -16,6 +16,7 @@
 
 package io.vertx.core.impl;
 
+import io.netty.channel.EventLoop;
 import io.vertx.core.Handler;
 import io.vertx.core.json.JsonObject;
 
@@ -29,6 +30,11 @@ public class MultiThreadedWorkerContext extends WorkerContext {
     super(vertx, internalBlockingPool, workerPool, deploymentID, config, tccl);
   }
 
+  public MultiThreadedWorkerContext(VertxInternal vertx, EventLoop eventLoop, WorkerPool internalBlockingPool,
+                                    WorkerPool workerPool, String deploymentID, JsonObject config, ClassLoader tccl) {
+    super(vertx, eventLoop, internalBlockingPool, workerPool, deploymentID, config, tccl);
+  }
+
   @Override
   public void executeAsync(Handler<Void> task) {
     workerPool.executor().execute(wrapTask(null, task, false, workerPool.metrics()));
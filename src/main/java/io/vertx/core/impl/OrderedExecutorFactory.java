@@ -17,11 +17,13 @@
 
 package io.vertx.core.impl;
 
+import io.netty.util.internal.PlatformDependent;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 
-import java.util.LinkedList;
+import java.util.Queue;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * A factory for producing executors that run all tasks in order, which delegate to a single common executor instance.
@@ -61,13 +63,19 @@ public class OrderedExecutorFactory {
    * <p/>
    * More specifically, any call B to the {@link #execute(Runnable)} method that happens-after another call A to the
    * same method, will result in B's task running after A's.
+   * <p/>
+   * The tasks are added to a lock-free multi producer single consumer queue, a single runner dispatched to the parent
+   * executor runs the queued tasks. It runs at most {@link #MAX_TASKS_PER_RUN} tasks before it is dispatched again,
+   * so a busy executor doesn't hold a thread of the parent executor.
    */
   private static final class OrderedExecutor implements Executor {
-    // @protectedby tasks
-    private final LinkedList<Runnable> tasks = new LinkedList<>();
 
-    // @protectedby tasks
-    private boolean running;
+    static final int MAX_TASKS_PER_RUN = 1024;
+
+    private final Queue<Runnable> tasks = PlatformDependent.newMpscQueue();
+
+    // Whether the runner is dispatched to the parent executor
+    private final AtomicBoolean running = new AtomicBoolean();
 
     private final Executor parent;
 
@@ -80,23 +88,28 @@ public class OrderedExecutorFactory {
      */
     public OrderedExecutor(Executor parent) {
       this.parent = parent;
-      runner = () -> {
-        for (; ; ) {
-          final Runnable task;
-          synchronized (tasks) {
-            task = tasks.poll();
-            if (task == null) {
-              running = false;
-              return;
-            }
-          }
-          try {
-            task.run();
-          } catch (Throwable t) {
-            log.error("Caught unexpected Throwable", t);
+      runner = this::run;
+    }
+
+    private void run() {
+      for (int i = 0; i < MAX_TASKS_PER_RUN; i++) {
+        Runnable task = tasks.poll();
+        if (task == null) {
+          running.set(false);
+          // A task added after the poll didn't dispatch the runner as it was still running
+          if (tasks.isEmpty() || !running.compareAndSet(false, true)) {
+            return;
           }
+          continue;
+        }
+        try {
+          task.run();
+        } catch (Throwable t) {
+          log.error("Caught unexpected Throwable", t);
         }
-      };
+      }
+      // Dispatch the runner again so the other tasks of the parent executor can run, it stays running
+      parent.execute(runner);
     }
 
     /**
@@ -105,12 +118,9 @@ public class OrderedExecutorFactory {
      * @param command the task to run.
      */
     public void execute(Runnable command) {
-      synchronized (tasks) {
-        tasks.add(command);
-        if (!running) {
-          running = true;
-          parent.execute(runner);
-        }
+      tasks.add(command);
+      if (running.compareAndSet(false, true)) {
+        parent.execute(runner);
       }
     }
   }
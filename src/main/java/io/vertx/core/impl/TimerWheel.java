@@ -0,0 +1,374 @@
+/*
+ * Copyright (c) 2011-2016 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.core.impl;
+
+import io.netty.channel.EventLoop;
+import io.netty.util.collection.LongObjectHashMap;
+import io.netty.util.concurrent.ScheduledFuture;
+import io.netty.util.internal.PlatformDependent;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A hierarchical timing wheel running the timers of an event loop, with a resolution of 1 ms.
+ * <p>
+ * The wheel has 4 levels of 256 slots: a slot of level 0 lasts 1 ms and a slot of the next levels lasts a whole turn
+ * of the previous level, the wheel covers 2^32 ms. A timer is linked to the slot of its deadline in the lowest level
+ * that can hold it, the timers of a slot of an upper level are moved to the lower levels when the wheel reaches the
+ * slot. Scheduling and cancelling a timer is constant time.
+ * <p>
+ * The slots are confined to the event loop, the timers scheduled or cancelled from other threads are handed over to
+ * it with lock-free queues. The event loop only wakes up for the next slot of level 0 holding timers, or else for the
+ * next slot of level 1, and not at all when the wheel has no timers.
+ * <p>
+ * The id of a timer ends with the index of its wheel, so the timer can be found from its id.
+ */
+class TimerWheel {
+
+  private static final Logger log = LoggerFactory.getLogger(TimerWheel.class);
+
+  private static final int SLOT_BITS = 8;
+  private static final int SLOTS = 1 << SLOT_BITS;
+  private static final int SLOT_MASK = SLOTS - 1;
+  private static final int LEVELS = 4;
+
+  private final EventLoop eventLoop;
+  private final long index;
+  private final int indexBits;
+  private final long startTime = System.nanoTime();
+  private final AtomicLong sequence = new AtomicLong();
+  // The timers by id, until they're removed
+  private final LongObjectHashMap<Timer> timers = new LongObjectHashMap<>();
+  private final Queue<Timer> added = PlatformDependent.newMpscQueue();
+  private final Queue<Timer> cancelled = PlatformDependent.newMpscQueue();
+  private final AtomicBoolean drainScheduled = new AtomicBoolean();
+  private final Runnable drainTask = () -> {
+    drainScheduled.set(false);
+    run();
+  };
+  private final Runnable wakeupTask = () -> {
+    wakeup = null;
+    run();
+  };
+
+  // Confined to the event loop
+  private final Timer[] slots = new Timer[LEVELS * SLOTS];
+  // The last tick run, in ms since the start time
+  private long tick;
+  private int size;
+  private int level0Size;
+  private ScheduledFuture<?> wakeup;
+  private long wakeupTick;
+
+  TimerWheel(EventLoop eventLoop, int index, int indexBits) {
+    this.eventLoop = eventLoop;
+    this.index = index;
+    this.indexBits = indexBits;
+  }
+
+  long nextId() {
+    return (sequence.getAndIncrement() << indexBits) | index;
+  }
+
+  /**
+   * Schedule a timer, it can be called from any thread.
+   *
+   * @param id  the id of the timer, from {@link #nextId()}
+   * @param delay  the delay in ms
+   * @param periodic  whether the timer runs every {@code delay} ms
+   * @param task  the task run on the event loop when the timer expires
+   * @return the timer
+   */
+  Timer schedule(long id, long delay, boolean periodic, Runnable task) {
+    // Round up the current time so a timer never runs before its delay
+    long deadline = (System.nanoTime() - startTime + 999_999) / 1_000_000 + delay;
+    Timer timer = new Timer(this, id, periodic ? delay : 0, task, deadline);
+    synchronized (timers) {
+      timers.put(id, timer);
+    }
+    if (eventLoop.inEventLoop()) {
+      fastForward();
+      link(timer);
+      scheduleWakeup();
+    } else {
+      added.add(timer);
+      if (drainScheduled.compareAndSet(false, true)) {
+        eventLoop.execute(drainTask);
+      }
+    }
+    return timer;
+  }
+
+  /**
+   * Remove a timer from the timers of the wheel, it can be called from any thread. It doesn't cancel the timer.
+   *
+   * @return the timer or {@code null} if it was removed already
+   */
+  Timer remove(long id) {
+    synchronized (timers) {
+      return timers.remove(id);
+    }
+  }
+
+  private void cancelled(Timer timer) {
+    if (eventLoop.inEventLoop()) {
+      unlink(timer);
+    } else {
+      // Unlinked by the next run of the wheel, the timer won't run anyway
+      cancelled.add(timer);
+    }
+  }
+
+  private void run() {
+    fastForward();
+    Timer timer;
+    while ((timer = added.poll()) != null) {
+      if (timer.state == Timer.SCHEDULED) {
+        link(timer);
+      }
+    }
+    while ((timer = cancelled.poll()) != null) {
+      unlink(timer);
+    }
+    advance(currentTick());
+    scheduleWakeup();
+  }
+
+  private long currentTick() {
+    return (System.nanoTime() - startTime) / 1_000_000;
+  }
+
+  // Don't go through the ticks elapsed while the wheel had no timers
+  private void fastForward() {
+    if (size == 0) {
+      tick = Math.max(tick, currentTick() - 1);
+    }
+  }
+
+  private void advance(long target) {
+    while (tick < target) {
+      if (size == 0) {
+        tick = target;
+        return;
+      }
+      if (level0Size == 0) {
+        // Skip to the next slot of level 1
+        long next = (tick | SLOT_MASK) + 1;
+        if (next > target) {
+          tick = target;
+          return;
+        }
+        tick = next - 1;
+      }
+      long next = tick + 1;
+      for (int level = LEVELS - 1; level > 0; level--) {
+        int shift = level * SLOT_BITS;
+        if ((next & ((1L << shift) - 1)) == 0) {
+          cascade(level * SLOTS + (int) ((next >>> shift) & SLOT_MASK));
+        }
+      }
+      tick = next;
+      expire((int) (next & SLOT_MASK));
+    }
+  }
+
+  // Move the timers of a slot of an upper level to the lower levels
+  private void cascade(int slot) {
+    Timer timer = detach(slot);
+    while (timer != null) {
+      Timer next = timer.next;
+      timer.next = null;
+      if (timer.state == Timer.SCHEDULED) {
+        link(timer);
+      }
+      timer = next;
+    }
+  }
+
+  private void expire(int slot) {
+    Timer timer = detach(slot);
+    while (timer != null) {
+      Timer next = timer.next;
+      timer.next = null;
+      if (timer.period > 0) {
+        if (timer.state == Timer.SCHEDULED) {
+          runTask(timer);
+          timer.deadline += timer.period;
+          if (timer.state == Timer.SCHEDULED) {
+            link(timer);
+          }
+        }
+      } else if (Timer.STATE.compareAndSet(timer, Timer.SCHEDULED, Timer.EXPIRED)) {
+        runTask(timer);
+      }
+      timer = next;
+    }
+  }
+
+  private void runTask(Timer timer) {
+    try {
+      timer.task.run();
+    } catch (Throwable t) {
+      log.error("Caught unexpected Throwable", t);
+    }
+  }
+
+  private void link(Timer timer) {
+    // The next tick to run, a late timer runs at the next tick
+    long base = tick + 1;
+    long deadline = Math.max(timer.deadline, base);
+    int slot = -1;
+    for (int level = 0; level < LEVELS; level++) {
+      int shift = level * SLOT_BITS;
+      if ((deadline >>> shift) - (base >>> shift) < SLOTS) {
+        slot = level * SLOTS + (int) ((deadline >>> shift) & SLOT_MASK);
+        break;
+      }
+    }
+    if (slot == -1) {
+      // Beyond the wheel, it is moved down again when the wheel reaches the last slot of the top level
+      int shift = (LEVELS - 1) * SLOT_BITS;
+      slot = (LEVELS - 1) * SLOTS + (int) (((base >>> shift) + SLOT_MASK) & SLOT_MASK);
+    }
+    Timer head = slots[slot];
+    timer.next = head;
+    timer.prev = null;
+    if (head != null) {
+      head.prev = timer;
+    }
+    slots[slot] = timer;
+    timer.slot = slot;
+    size++;
+    if (slot < SLOTS) {
+      level0Size++;
+    }
+  }
+
+  private void unlink(Timer timer) {
+    int slot = timer.slot;
+    if (slot == -1) {
+      return;
+    }
+    if (timer.prev != null) {
+      timer.prev.next = timer.next;
+    } else {
+      slots[slot] = timer.next;
+    }
+    if (timer.next != null) {
+      timer.next.prev = timer.prev;
+    }
+    timer.prev = null;
+    timer.next = null;
+    timer.slot = -1;
+    size--;
+    if (slot < SLOTS) {
+      level0Size--;
+    }
+  }
+
+  // Unlink all the timers of a slot, the timers keep their next link
+  private Timer detach(int slot) {
+    Timer head = slots[slot];
+    slots[slot] = null;
+    for (Timer timer = head; timer != null; timer = timer.next) {
+      timer.prev = null;
+      timer.slot = -1;
+      size--;
+      if (slot < SLOTS) {
+        level0Size--;
+      }
+    }
+    return head;
+  }
+
+  private void scheduleWakeup() {
+    if (size == 0) {
+      return;
+    }
+    // The end of the turn of level 0, when the timers of the upper levels are moved down
+    long turnEnd = (tick | SLOT_MASK) + 1;
+    long next;
+    if (level0Size > 0) {
+      next = tick + 1;
+      while (slots[(int) (next & SLOT_MASK)] == null) {
+        next++;
+      }
+      if (size > level0Size) {
+        // A timer of an upper level can expire before the timers of level 0
+        next = Math.min(next, turnEnd);
+      }
+    } else {
+      next = turnEnd;
+    }
+    if (wakeup != null) {
+      if (wakeupTick <= next) {
+        return;
+      }
+      wakeup.cancel(false);
+    }
+    wakeupTick = next;
+    long delay = next * 1_000_000 - (System.nanoTime() - startTime);
+    wakeup = eventLoop.schedule(wakeupTask, Math.max(0, delay), TimeUnit.NANOSECONDS);
+  }
+
+  static final class Timer {
+
+    private static final AtomicIntegerFieldUpdater<Timer> STATE =
+      AtomicIntegerFieldUpdater.newUpdater(Timer.class, "state");
+    private static final int SCHEDULED = 0;
+    private static final int EXPIRED = 1;
+    private static final int CANCELLED = 2;
+
+    private final TimerWheel wheel;
+    final long id;
+    final Runnable task;
+    private final long period;
+    private volatile int state;
+    // Confined to the event loop
+    private long deadline;
+    private int slot = -1;
+    private Timer prev;
+    private Timer next;
+
+    private Timer(TimerWheel wheel, long id, long period, Runnable task, long deadline) {
+      this.wheel = wheel;
+      this.id = id;
+      this.period = period;
+      this.task = task;
+      this.deadline = deadline;
+    }
+
+    /**
+     * Cancel the timer, it can be called from any thread.
+     *
+     * @return {@code true} if the timer was cancelled, {@code false} if it expired or was cancelled before
+     */
+    boolean cancel() {
+      if (!STATE.compareAndSet(this, SCHEDULED, CANCELLED)) {
+        return false;
+      }
+      wheel.cancelled(this);
+      return true;
+    }
+  }
+}
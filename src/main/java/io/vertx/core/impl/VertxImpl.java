@@ -21,6 +21,7 @@ import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.resolver.AddressResolverGroup;
 import io.netty.util.ResourceLeakDetector;
+import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.GenericFutureListener;
 import io.vertx.core.*;
 import io.vertx.core.Future;
@@ -54,6 +55,7 @@ import io.vertx.core.net.impl.NetServerImpl;
 import io.vertx.core.net.impl.ServerID;
 import io.vertx.core.shareddata.SharedData;
 import io.vertx.core.shareddata.impl.SharedDataImpl;
+import io.vertx.core.spi.ThreadAffinity;
 import io.vertx.core.spi.VerticleFactory;
 import io.vertx.core.spi.VertxMetricsFactory;
 import io.vertx.core.spi.cluster.ClusterManager;
@@ -92,6 +94,14 @@ public class VertxImpl implements VertxInternal, MetricsProvider {
   private final VertxMetrics metrics;
   private final ConcurrentMap<Long, InternalTimerHandler> timeouts = new ConcurrentHashMap<>();
   private final AtomicLong timeoutCounter = new AtomicLong(0);
+  // The timing wheels of the event loops, null when the event loops schedule the timers
+  private final TimerWheel[] timerWheels;
+  private final Map<EventLoop, TimerWheel> timerWheelsByEventLoop;
+  private final long timerWheelIndexMask;
+  private final EventLoop[] eventLoops;
+  // The first event loop of each affinity, the affinities are spread over the event loops
+  private final ConcurrentMap<String, Integer> eventLoopAffinities = new ConcurrentHashMap<>();
+  private final AtomicInteger eventLoopAffinityCounter = new AtomicInteger();
   private final ClusterManager clusterManager;
   private final DeploymentManager deploymentManager;
   private final FileResolver fileResolver;
@@ -112,6 +122,10 @@ public class VertxImpl implements VertxInternal, MetricsProvider {
   private final Map<String, SharedWorkerPool> namedWorkerPools;
   private final int defaultWorkerPoolSize;
   private final long defaultWorkerMaxExecTime;
+  private final boolean workerPoolElastic;
+  private final int workerPoolMaxSize;
+  private final boolean workerPoolWorkStealing;
+  private final ThreadAffinity threadAffinity;
   private final CloseHooks closeHooks;
 
   VertxImpl() {
@@ -127,12 +141,37 @@ public class VertxImpl implements VertxInternal, MetricsProvider {
     if (Vertx.currentContext() != null) {
       log.warn("You're already on a Vert.x context, are you sure you want to create a new Vertx instance?");
     }
+    if (options.isWorkerPoolElastic() && options.isWorkerPoolWorkStealing()) {
+      throw new IllegalArgumentException("The worker pools can't be both elastic and work-stealing");
+    }
     closeHooks = new CloseHooks(log);
+    threadAffinity = options.getThreadAffinity();
     checker = new BlockedThreadChecker(options.getBlockedThreadCheckInterval(), options.getWarningExceptionTime());
-    eventLoopThreadFactory = new VertxThreadFactory("vert.x-eventloop-thread-", checker, false, options.getMaxEventLoopExecuteTime());
+    eventLoopThreadFactory = new VertxThreadFactory("vert.x-eventloop-thread-", checker, false, options.getMaxEventLoopExecuteTime(), threadAffinity);
     eventLoopGroup = new NioEventLoopGroup(options.getEventLoopPoolSize(), eventLoopThreadFactory);
     eventLoopGroup.setIoRatio(NETTY_IO_RATIO);
-    ThreadFactory acceptorEventLoopThreadFactory = new VertxThreadFactory("vert.x-acceptor-thread-", checker, false, options.getMaxEventLoopExecuteTime());
+    eventLoops = new EventLoop[options.getEventLoopPoolSize()];
+    int eventLoopIndex = 0;
+    for (EventExecutor executor : eventLoopGroup) {
+      eventLoops[eventLoopIndex++] = (EventLoop) executor;
+    }
+    if (options.isTimerWheelEnabled()) {
+      // The id of a timer ends with the index of its wheel
+      int indexBits = 32 - Integer.numberOfLeadingZeros(eventLoops.length - 1);
+      timerWheels = new TimerWheel[eventLoops.length];
+      timerWheelsByEventLoop = new IdentityHashMap<>();
+      timerWheelIndexMask = (1L << indexBits) - 1;
+      for (int index = 0; index < eventLoops.length; index++) {
+        TimerWheel wheel = new TimerWheel(eventLoops[index], index, indexBits);
+        timerWheels[index] = wheel;
+        timerWheelsByEventLoop.put(eventLoops[index], wheel);
+      }
+    } else {
+      timerWheels = null;
+      timerWheelsByEventLoop = null;
+      timerWheelIndexMask = 0;
+    }
+    ThreadFactory acceptorEventLoopThreadFactory = new VertxThreadFactory("vert.x-acceptor-thread-", checker, false, options.getMaxEventLoopExecuteTime(), threadAffinity);
     // The acceptor event loop thread needs to be from a different pool otherwise can get lags in accepted connections
     // under a lot of load
     acceptorEventLoopGroup = new NioEventLoopGroup(1, acceptorEventLoopThreadFactory);
@@ -140,11 +179,15 @@ public class VertxImpl implements VertxInternal, MetricsProvider {
 
     metrics = initialiseMetrics(options);
 
-    ExecutorService workerExec = Executors.newFixedThreadPool(options.getWorkerPoolSize(),
-        new VertxThreadFactory("vert.x-worker-thread-", checker, true, options.getMaxWorkerExecuteTime()));
-    PoolMetrics workerPoolMetrics = isMetricsEnabled() ? metrics.createMetrics(workerExec, "worker", "vert.x-worker-thread", options.getWorkerPoolSize()) : null;
-    ExecutorService internalBlockingExec = Executors.newFixedThreadPool(options.getInternalBlockingPoolSize(),
-        new VertxThreadFactory("vert.x-internal-blocking-", checker, true, options.getMaxWorkerExecuteTime()));
+    workerPoolElastic = options.isWorkerPoolElastic();
+    workerPoolMaxSize = options.getWorkerPoolMaxSize();
+    workerPoolWorkStealing = options.isWorkerPoolWorkStealing();
+    ExecutorService workerExec = createWorkerExecutor("vert.x-worker-thread-", options.getWorkerPoolSize(), options.getMaxWorkerExecuteTime());
+    PoolMetrics workerPoolMetrics = isMetricsEnabled() ? metrics.createMetrics(workerExec, "worker", "vert.x-worker-thread", maxWorkerPoolSize(options.getWorkerPoolSize())) : null;
+    ThreadFactory internalBlockingThreadFactory = new VertxThreadFactory("vert.x-internal-blocking-", checker, true, options.getMaxWorkerExecuteTime(), threadAffinity);
+    ExecutorService internalBlockingExec = workerPoolWorkStealing ?
+        new WorkStealingExecutor(options.getInternalBlockingPoolSize(), internalBlockingThreadFactory) :
+        Executors.newFixedThreadPool(options.getInternalBlockingPoolSize(), internalBlockingThreadFactory);
     PoolMetrics internalBlockingPoolMetrics = isMetricsEnabled() ? metrics.createMetrics(internalBlockingExec, "worker", "vert.x-internal-blocking", options.getInternalBlockingPoolSize()) : null;
     internalBlockingPool = new WorkerPool(internalBlockingExec, internalBlockingPoolMetrics);
     namedWorkerPools = new HashMap<>();
@@ -182,7 +225,7 @@ public class VertxImpl implements VertxInternal, MetricsProvider {
     if (options.isClustered()) {
       eventBus = new ClusteredEventBus(this, options, clusterManager, haManager);
     } else {
-      eventBus = new EventBusImpl(this);
+      eventBus = new EventBusImpl(this, options.getEventBusOptions());
     }
     eventBus.start(ar2 -> {
       if (ar2.succeeded()) {
@@ -335,7 +378,7 @@ public class VertxImpl implements VertxInternal, MetricsProvider {
   }
 
   public boolean cancelTimer(long id) {
-    InternalTimerHandler handler = timeouts.remove(id);
+    InternalTimerHandler handler = removeTimeout(id);
     if (handler != null) {
       handler.context.removeCloseHook(handler);
       return handler.cancel();
@@ -344,22 +387,48 @@ public class VertxImpl implements VertxInternal, MetricsProvider {
     }
   }
 
+  private InternalTimerHandler removeTimeout(long id) {
+    if (timerWheels == null) {
+      return timeouts.remove(id);
+    }
+    int index = (int) (id & timerWheelIndexMask);
+    TimerWheel.Timer timer = index < timerWheels.length ? timerWheels[index].remove(id) : null;
+    return timer != null ? (InternalTimerHandler) timer.task : null;
+  }
+
   public EventLoopContext createEventLoopContext(String deploymentID, WorkerPool workerPool, JsonObject config, ClassLoader tccl) {
-    return new EventLoopContext(this, internalBlockingPool, workerPool != null ? workerPool : this.workerPool, deploymentID, config, tccl);
+    return createEventLoopContext(deploymentID, null, workerPool, config, tccl);
   }
 
   public ContextImpl createWorkerContext(boolean multiThreaded, String deploymentID, WorkerPool workerPool, JsonObject config,
                                          ClassLoader tccl) {
+    return createWorkerContext(multiThreaded, deploymentID, null, workerPool, config, tccl);
+  }
+
+  @Override
+  public EventLoopContext createEventLoopContext(String deploymentID, EventLoop eventLoop, WorkerPool workerPool, JsonObject config, ClassLoader tccl) {
+    return new EventLoopContext(this, eventLoop, internalBlockingPool, workerPool != null ? workerPool : this.workerPool, deploymentID, config, tccl);
+  }
+
+  @Override
+  public ContextImpl createWorkerContext(boolean multiThreaded, String deploymentID, EventLoop eventLoop, WorkerPool workerPool,
+                                         JsonObject config, ClassLoader tccl) {
     if (workerPool == null) {
       workerPool = this.workerPool;
     }
     if (multiThreaded) {
-      return new MultiThreadedWorkerContext(this, internalBlockingPool, workerPool, deploymentID, config, tccl);
+      return new MultiThreadedWorkerContext(this, eventLoop, internalBlockingPool, workerPool, deploymentID, config, tccl);
     } else {
-      return new WorkerContext(this, internalBlockingPool, workerPool, deploymentID, config, tccl);
+      return new WorkerContext(this, eventLoop, internalBlockingPool, workerPool, deploymentID, config, tccl);
     }
   }
 
+  @Override
+  public EventLoop affinityEventLoop(String affinity, int instance) {
+    int first = eventLoopAffinities.computeIfAbsent(affinity, a -> eventLoopAffinityCounter.getAndIncrement() % eventLoops.length);
+    return eventLoops[(first + instance) % eventLoops.length];
+  }
+
   @Override
   public DnsClient createDnsClient(int port, String host) {
     return new DnsClientImpl(this, port, host);
@@ -415,9 +484,19 @@ public class VertxImpl implements VertxInternal, MetricsProvider {
     if (delay < 1) {
       throw new IllegalArgumentException("Cannot schedule a timer with delay < 1 ms");
     }
-    long timerId = timeoutCounter.getAndIncrement();
-    InternalTimerHandler task = new InternalTimerHandler(timerId, handler, periodic, delay, context);
-    timeouts.put(timerId, task);
+    TimerWheel wheel = null;
+    long timerId;
+    if (timerWheels != null) {
+      // A context created with another event loop still gets its timers on its own context
+      wheel = timerWheelsByEventLoop.getOrDefault(context.nettyEventLoop(), timerWheels[0]);
+      timerId = wheel.nextId();
+    } else {
+      timerId = timeoutCounter.getAndIncrement();
+    }
+    InternalTimerHandler task = new InternalTimerHandler(timerId, handler, periodic, delay, context, wheel);
+    if (wheel == null) {
+      timeouts.put(timerId, task);
+    }
     context.addCloseHook(task);
     return timerId;
   }
@@ -750,33 +829,48 @@ public class VertxImpl implements VertxInternal, MetricsProvider {
     }
   }
 
-  private class InternalTimerHandler implements Handler<Void>, Closeable {
+  private class InternalTimerHandler implements Handler<Void>, Closeable, Runnable {
     final Handler<Long> handler;
     final boolean periodic;
     final long timerID;
     final ContextImpl context;
+    // Either the future of the event loop or the timer of the wheel
     final java.util.concurrent.Future<?> future;
+    final TimerWheel.Timer wheelTimer;
 
     boolean cancel() {
       metrics.timerEnded(timerID, true);
+      if (wheelTimer != null) {
+        return wheelTimer.cancel();
+      }
       return future.cancel(false);
     }
 
-    InternalTimerHandler(long timerID, Handler<Long> runnable, boolean periodic, long delay, ContextImpl context) {
+    InternalTimerHandler(long timerID, Handler<Long> runnable, boolean periodic, long delay, ContextImpl context,
+                         TimerWheel wheel) {
       this.context = context;
       this.timerID = timerID;
       this.handler = runnable;
       this.periodic = periodic;
-      EventLoop el = context.nettyEventLoop();
-      Runnable toRun = () -> context.runOnContext(this);
-      if (periodic) {
-        future = el.scheduleAtFixedRate(toRun, delay, delay, TimeUnit.MILLISECONDS);
+      if (wheel != null) {
+        future = null;
+        wheelTimer = wheel.schedule(timerID, delay, periodic, this);
       } else {
-        future = el.schedule(toRun, delay, TimeUnit.MILLISECONDS);
+        wheelTimer = null;
+        EventLoop el = context.nettyEventLoop();
+        if (periodic) {
+          future = el.scheduleAtFixedRate(this, delay, delay, TimeUnit.MILLISECONDS);
+        } else {
+          future = el.schedule(this, delay, TimeUnit.MILLISECONDS);
+        }
       }
       metrics.timerCreated(timerID);
     }
 
+    public void run() {
+      context.runOnContext(this);
+    }
+
     public void handle(Void v) {
       try {
         handler.handle(timerID);
@@ -789,7 +883,7 @@ public class VertxImpl implements VertxInternal, MetricsProvider {
     }
 
     private void cleanupNonPeriodic() {
-      VertxImpl.this.timeouts.remove(timerID);
+      removeTimeout(timerID);
       metrics.timerEnded(timerID, false);
       ContextImpl context = getContext();
       if (context != null) {
@@ -799,7 +893,7 @@ public class VertxImpl implements VertxInternal, MetricsProvider {
 
     // Called via Context close hook when Verticle is undeployed
     public void close(Handler<AsyncResult<Void>> completionHandler) {
-      VertxImpl.this.timeouts.remove(timerID);
+      removeTimeout(timerID);
       cancel();
       completionHandler.handle(Future.succeededFuture());
     }
@@ -938,8 +1032,8 @@ public class VertxImpl implements VertxInternal, MetricsProvider {
     }
     SharedWorkerPool sharedWorkerPool = namedWorkerPools.get(name);
     if (sharedWorkerPool == null) {
-      ExecutorService workerExec = Executors.newFixedThreadPool(poolSize, new VertxThreadFactory(name + "-", checker, true, maxExecuteTime));
-      PoolMetrics workerMetrics = isMetricsEnabled() ? metrics.createMetrics(workerExec, "worker", name, poolSize) : null;
+      ExecutorService workerExec = createWorkerExecutor(name + "-", poolSize, maxExecuteTime);
+      PoolMetrics workerMetrics = isMetricsEnabled() ? metrics.createMetrics(workerExec, "worker", name, maxWorkerPoolSize(poolSize)) : null;
       namedWorkerPools.put(name, sharedWorkerPool = new SharedWorkerPool(name, workerExec, workerMetrics));
     } else {
       sharedWorkerPool.refCount++;
@@ -950,6 +1044,22 @@ public class VertxImpl implements VertxInternal, MetricsProvider {
     return namedExec;
   }
 
+  private ExecutorService createWorkerExecutor(String prefix, int poolSize, long maxExecuteTime) {
+    ThreadFactory threadFactory = new VertxThreadFactory(prefix, checker, true, maxExecuteTime, threadAffinity);
+    if (workerPoolElastic) {
+      // A task submitted while all the threads are busy starts a thread instead of waiting in a queue
+      return new ElasticExecutor(poolSize, maxWorkerPoolSize(poolSize), threadFactory);
+    }
+    if (workerPoolWorkStealing) {
+      return new WorkStealingExecutor(poolSize, threadFactory);
+    }
+    return Executors.newFixedThreadPool(poolSize, threadFactory);
+  }
+
+  private int maxWorkerPoolSize(int poolSize) {
+    return workerPoolElastic ? Math.max(poolSize, workerPoolMaxSize) : poolSize;
+  }
+
   synchronized void releaseWorkerExecutor(String name) {
     namedWorkerPools.remove(name);
   }
@@ -17,6 +17,7 @@
 package io.vertx.core.impl;
 
 
+import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
 import io.netty.resolver.AddressResolverGroup;
 import io.vertx.codegen.annotations.GenIgnore;
@@ -77,6 +78,26 @@ public interface VertxInternal extends Vertx {
    */
   ContextImpl createWorkerContext(boolean multiThreaded, String deploymentID, WorkerPool pool, JsonObject config, ClassLoader tccl);
 
+  /**
+   * @return event loop context on the {@code eventLoop}, or on the next event loop when it is {@code null}
+   */
+  EventLoopContext createEventLoopContext(String deploymentID, EventLoop eventLoop, WorkerPool workerPool, JsonObject config, ClassLoader tccl);
+
+  /**
+   * @return worker context on the {@code eventLoop}, or on the next event loop when it is {@code null}
+   */
+  ContextImpl createWorkerContext(boolean multiThreaded, String deploymentID, EventLoop eventLoop, WorkerPool pool, JsonObject config, ClassLoader tccl);
+
+  /**
+   * Get the event loop of a verticle instance deployed with an event loop affinity: the instance {@code i} of all the
+   * deployments with the same affinity run on the same event loop.
+   *
+   * @param affinity the event loop affinity of the deployment
+   * @param instance the index of the verticle instance in the deployment
+   * @return the event loop
+   */
+  EventLoop affinityEventLoop(String affinity, int instance);
+
   @Override
   WorkerExecutorImpl createSharedWorkerExecutor(String name);
 
@@ -16,6 +16,10 @@
 
 package io.vertx.core.impl;
 
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.core.spi.ThreadAffinity;
+
 import java.util.Map;
 import java.util.WeakHashMap;
 import java.util.concurrent.ThreadFactory;
@@ -26,6 +30,8 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class VertxThreadFactory implements ThreadFactory {
 
+  private static final Logger log = LoggerFactory.getLogger(VertxThreadFactory.class);
+
   // We store all threads in a weak map - we retain this so we can unset context from threads when
   // context is undeployed
   private static final Object FOO = new Object();
@@ -40,12 +46,18 @@ public class VertxThreadFactory implements ThreadFactory {
   private final BlockedThreadChecker checker;
   private final boolean worker;
   private final long maxExecTime;
+  private final ThreadAffinity affinity;
 
   VertxThreadFactory(String prefix, BlockedThreadChecker checker, boolean worker, long maxExecTime) {
+    this(prefix, checker, worker, maxExecTime, null);
+  }
+
+  VertxThreadFactory(String prefix, BlockedThreadChecker checker, boolean worker, long maxExecTime, ThreadAffinity affinity) {
     this.prefix = prefix;
     this.checker = checker;
     this.worker = worker;
     this.maxExecTime = maxExecTime;
+    this.affinity = affinity;
   }
 
   public static synchronized void unsetContext(ContextImpl ctx) {
@@ -57,7 +69,11 @@ public class VertxThreadFactory implements ThreadFactory {
   }
 
   public Thread newThread(Runnable runnable) {
-    VertxThread t = new VertxThread(runnable, prefix + threadCount.getAndIncrement(), worker, maxExecTime);
+    int index = threadCount.getAndIncrement();
+    if (affinity != null) {
+      runnable = pinned(runnable, index);
+    }
+    VertxThread t = new VertxThread(runnable, prefix + index, worker, maxExecTime);
     // Vert.x threads are NOT daemons - we want them to prevent JVM exit so embededd user doesn't
     // have to explicitly prevent JVM from exiting.
     if (checker != null) {
@@ -69,4 +85,16 @@ public class VertxThreadFactory implements ThreadFactory {
     t.setDaemon(false);
     return t;
   }
+
+  // The thread pins itself when it starts, a thread can't be pinned by another one on every platform
+  private Runnable pinned(Runnable runnable, int index) {
+    return () -> {
+      try {
+        affinity.pin(Thread.currentThread(), prefix, index);
+      } catch (Throwable t) {
+        log.warn("Failed to pin thread " + Thread.currentThread().getName(), t);
+      }
+      runnable.run();
+    };
+  }
 }
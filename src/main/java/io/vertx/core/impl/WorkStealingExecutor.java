@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2011-2016 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.core.impl;
+
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.core.spi.metrics.PoolMetrics;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A fixed size pool of threads with a queue per thread.
+ * <p>
+ * A task submitted by a thread of the pool is added to the queue of this thread, a task submitted by another thread
+ * is added to the queue of a random thread of the pool, so the submitters don't contend on a single queue. A thread
+ * runs the tasks of its queue and, when it is empty, takes the tasks of the other threads: a thread takes from the
+ * head of its queue and the other threads take from the tail.
+ * <p>
+ * The threads report the size of the queues and the tasks they take from the other threads with
+ * {@link PoolMetrics#taken}.
+ */
+class WorkStealingExecutor extends AbstractExecutorService {
+
+  private static final Logger log = LoggerFactory.getLogger(WorkStealingExecutor.class);
+
+  private final Worker[] workers;
+  // Read only once the threads are started
+  private final Map<Thread, Worker> workersByThread = new IdentityHashMap<>();
+  private final Queue<Worker> idleWorkers = new ConcurrentLinkedQueue<>();
+  private final CountDownLatch terminated;
+  private volatile boolean shutdown;
+  private volatile PoolMetrics<?> metrics;
+
+  WorkStealingExecutor(int poolSize, ThreadFactory threadFactory) {
+    if (poolSize < 1) {
+      throw new IllegalArgumentException("poolSize must be > 0");
+    }
+    workers = new Worker[poolSize];
+    for (int i = 0; i < poolSize; i++) {
+      Worker worker = new Worker(i);
+      worker.thread = threadFactory.newThread(worker);
+      workers[i] = worker;
+      workersByThread.put(worker.thread, worker);
+    }
+    terminated = new CountDownLatch(poolSize);
+    for (Worker worker : workers) {
+      worker.thread.start();
+    }
+  }
+
+  void setMetrics(PoolMetrics<?> metrics) {
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void execute(Runnable task) {
+    if (task == null) {
+      throw new NullPointerException();
+    }
+    if (shutdown) {
+      throw new RejectedExecutionException("Executor is shut down");
+    }
+    Worker worker = workersByThread.get(Thread.currentThread());
+    if (worker == null) {
+      worker = workers[ThreadLocalRandom.current().nextInt(workers.length)];
+    }
+    worker.queueSize.incrementAndGet();
+    worker.queue.addLast(task);
+    if (shutdown && worker.queue.removeLastOccurrence(task)) {
+      worker.queueSize.decrementAndGet();
+      throw new RejectedExecutionException("Executor is shut down");
+    }
+    signal();
+  }
+
+  // Wake up an idle thread, the task is taken by its thread or stolen by the idle one
+  private void signal() {
+    Worker worker;
+    while ((worker = idleWorkers.poll()) != null) {
+      if (worker.idle.compareAndSet(true, false)) {
+        LockSupport.unpark(worker.thread);
+        return;
+      }
+    }
+  }
+
+  @Override
+  public void shutdown() {
+    shutdown = true;
+    for (Worker worker : workers) {
+      LockSupport.unpark(worker.thread);
+    }
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    shutdown = true;
+    List<Runnable> tasks = new ArrayList<>();
+    for (Worker worker : workers) {
+      Runnable task;
+      while ((task = worker.queue.pollFirst()) != null) {
+        worker.queueSize.decrementAndGet();
+        tasks.add(task);
+      }
+      worker.thread.interrupt();
+    }
+    return tasks;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return shutdown;
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return terminated.getCount() == 0;
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return terminated.await(timeout, unit);
+  }
+
+  private class Worker implements Runnable {
+
+    private final int index;
+    private final Deque<Runnable> queue = new ConcurrentLinkedDeque<>();
+    // The size of the queue, the size of a concurrent deque is not constant time
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final AtomicBoolean idle = new AtomicBoolean();
+    private Thread thread;
+
+    Worker(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (true) {
+          Runnable task = take();
+          if (task == null) {
+            if (shutdown) {
+              return;
+            }
+            idle.set(true);
+            idleWorkers.add(this);
+            // A task submitted before the thread was idle did not wake it up
+            task = take();
+            if (task == null && !shutdown) {
+              LockSupport.park(this);
+            }
+            idle.set(false);
+            if (task == null) {
+              continue;
+            }
+          }
+          try {
+            task.run();
+          } catch (Throwable t) {
+            log.error("Unhandled exception", t);
+          }
+          // An interrupted thread doesn't park, only the shutdown can leave it interrupted
+          if (!shutdown) {
+            Thread.interrupted();
+          }
+        }
+      } finally {
+        terminated.countDown();
+      }
+    }
+
+    private Runnable take() {
+      Runnable task = queue.pollFirst();
+      if (task != null) {
+        taken(queueSize.decrementAndGet(), false);
+        return task;
+      }
+      // Start from the next thread so the idle threads don't all steal from the same queue
+      for (int i = 1; i < workers.length; i++) {
+        Worker victim = workers[(index + i) % workers.length];
+        task = victim.queue.pollLast();
+        if (task != null) {
+          taken(victim.queueSize.decrementAndGet(), true);
+          return task;
+        }
+      }
+      return null;
+    }
+
+    private void taken(int queueSize, boolean stolen) {
+      PoolMetrics<?> metrics = WorkStealingExecutor.this.metrics;
+      if (metrics != null) {
+        metrics.taken(queueSize, stolen);
+      }
+    }
+  }
+}
@@ -34,6 +34,9 @@ class WorkerPool {
     this.orderedFact = new OrderedExecutorFactory(pool);
     this.pool = pool;
     this.metrics = metrics;
+    if (metrics != null && pool instanceof WorkStealingExecutor) {
+      ((WorkStealingExecutor) pool).setMetrics(metrics);
+    }
   }
 
   ExecutorService executor() {
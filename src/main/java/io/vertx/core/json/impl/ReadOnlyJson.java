@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2011-2016 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.core.json.impl;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only views over JSON structures.
+ * <p>
+ * A view does not copy the underlying structure, it wraps it and rejects any modification with an
+ * {@link UnsupportedOperationException}. Nested objects and arrays are wrapped lazily when they are accessed.
+ * Calling {@code copy()} on a view returns a regular mutable copy.
+ */
+public final class ReadOnlyJson {
+
+  private ReadOnlyJson() {
+  }
+
+  public static JsonObject view(JsonObject json) {
+    if (json.getMap() instanceof ReadOnlyMap) {
+      return json;
+    }
+    return new JsonObject(new ReadOnlyMap(json.getMap()));
+  }
+
+  @SuppressWarnings("unchecked")
+  public static JsonArray view(JsonArray json) {
+    if (json.getList() instanceof ReadOnlyList) {
+      return json;
+    }
+    return new JsonArray(new ReadOnlyList(json.getList()));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object wrap(Object val) {
+    if (val instanceof JsonObject) {
+      return view((JsonObject) val);
+    } else if (val instanceof JsonArray) {
+      return view((JsonArray) val);
+    } else if (val instanceof ReadOnlyMap || val instanceof ReadOnlyList) {
+      return val;
+    } else if (val instanceof Map) {
+      return new ReadOnlyMap((Map<String, Object>) val);
+    } else if (val instanceof List) {
+      return new ReadOnlyList((List<Object>) val);
+    }
+    return val;
+  }
+
+  private static final class ReadOnlyMap extends AbstractMap<String, Object> {
+
+    private final Map<String, Object> map;
+
+    ReadOnlyMap(Map<String, Object> map) {
+      this.map = map;
+    }
+
+    @Override
+    public Object get(Object key) {
+      return wrap(map.get(key));
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return map.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+      return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return map.isEmpty();
+    }
+
+    @Override
+    public Set<String> keySet() {
+      return Collections.unmodifiableSet(map.keySet());
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+      return new AbstractSet<Entry<String, Object>>() {
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+          Iterator<Entry<String, Object>> it = map.entrySet().iterator();
+          return new Iterator<Entry<String, Object>>() {
+            @Override
+            public boolean hasNext() {
+              return it.hasNext();
+            }
+            @Override
+            public Entry<String, Object> next() {
+              Entry<String, Object> entry = it.next();
+              return new SimpleImmutableEntry<>(entry.getKey(), wrap(entry.getValue()));
+            }
+          };
+        }
+        @Override
+        public int size() {
+          return map.size();
+        }
+      };
+    }
+  }
+
+  private static final class ReadOnlyList extends AbstractList<Object> {
+
+    private final List<Object> list;
+
+    ReadOnlyList(List<Object> list) {
+      this.list = list;
+    }
+
+    @Override
+    public Object get(int index) {
+      return wrap(list.get(index));
+    }
+
+    @Override
+    public int size() {
+      return list.size();
+    }
+  }
+}
@@ -177,6 +177,7 @@ public class NetServerImpl implements NetServer, Closeable, MetricsProvider {
             if (options.getIdleTimeout() > 0) {
               pipeline.addLast("idle", new IdleStateHandler(0, 0, options.getIdleTimeout()));
             }
+            NetServerImpl.this.initChannel(pipeline);
             pipeline.addLast("handler", new ServerHandler(ch));
           }
         });
@@ -376,6 +377,13 @@ public class NetServerImpl implements NetServer, Closeable, MetricsProvider {
     }
   }
 
+  /**
+   * Add the handlers of the server to the pipeline of an accepted channel, they are added before the handler
+   * of the {@link NetSocket}.
+   */
+  protected void initChannel(ChannelPipeline pipeline) {
+  }
+
   private class ServerHandler extends VertxNetHandler {
     public ServerHandler(Channel ch) {
       super(ch, socketMap);
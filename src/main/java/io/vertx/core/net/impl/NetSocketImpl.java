@@ -21,6 +21,7 @@ import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.EventLoop;
 import io.netty.handler.ssl.SslHandler;
 import io.netty.util.CharsetUtil;
 import io.vertx.core.AsyncResult;
@@ -325,6 +326,28 @@ public class NetSocketImpl extends ConnectionBase implements NetSocket {
     }
   }
 
+  /**
+   * @return the event loop of the socket channel
+   */
+  public EventLoop eventLoop() {
+    return channel.eventLoop();
+  }
+
+  /**
+   * Write a buffer without flushing the channel, {@link #flush()} must be called afterwards. Unlike
+   * {@link #write(Buffer)}, Netty releases the buffer once written so it can be a pooled buffer.
+   * <p>
+   * It must be called from the event loop of the socket.
+   */
+  public void writeWithoutFlush(ByteBuf buff) {
+    reportBytesWritten(buff.readableBytes());
+    channel.write(buff, channel.voidPromise());
+  }
+
+  public void flush() {
+    channel.flush();
+  }
+
   private void write(ByteBuf buff) {
     reportBytesWritten(buff.readableBytes());
     writeFuture = super.writeToChannel(buff);
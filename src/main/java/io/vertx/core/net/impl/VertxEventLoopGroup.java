@@ -35,22 +35,27 @@ import java.util.concurrent.atomic.AtomicInteger;
 @SuppressWarnings("deprecation")
 public final class VertxEventLoopGroup extends AbstractEventExecutorGroup implements EventLoopGroup {
 
+  // Only a hint, next() can be called concurrently
   private int pos;
   private final List<EventLoopHolder> workers = new ArrayList<>();
+  // A snapshot of the workers updated when they change, so next() doesn't synchronize
+  private volatile EventLoop[] eventLoops = new EventLoop[0];
   private final CountDownLatch latch = new CountDownLatch(1);
   private final AtomicBoolean gracefulShutdown = new AtomicBoolean();
   private final Promise<?> terminationFuture = new DefaultPromise<Void>(GlobalEventExecutor.INSTANCE);
 
   @Override
-  public synchronized EventLoop next() {
-    if (workers.isEmpty()) {
+  public EventLoop next() {
+    EventLoop[] eventLoops = this.eventLoops;
+    if (eventLoops.length == 0) {
       throw new IllegalStateException();
-    } else {
-      EventLoop worker = workers.get(pos).worker;
-      pos++;
-      checkPos();
-      return worker;
     }
+    int p = pos;
+    if (p >= eventLoops.length) {
+      p = 0;
+    }
+    pos = p + 1;
+    return eventLoops[p];
   }
 
   @Override
@@ -92,6 +97,7 @@ public final class VertxEventLoopGroup extends AbstractEventExecutorGroup implem
     EventLoopHolder holder = findHolder(worker);
     if (holder == null) {
       workers.add(new EventLoopHolder(worker));
+      updateEventLoops();
     } else {
       holder.count++;
     }
@@ -151,21 +157,23 @@ public final class VertxEventLoopGroup extends AbstractEventExecutorGroup implem
       holder.count--;
       if (holder.count == 0) {
         workers.remove(holder);
+        updateEventLoops();
       }
-      checkPos();
     } else {
       throw new IllegalStateException("Can't find worker to remove");
     }
   }
 
-  public synchronized int workerCount() {
-    return workers.size();
+  public int workerCount() {
+    return eventLoops.length;
   }
 
-  private void checkPos() {
-    if (pos == workers.size()) {
-      pos = 0;
+  private void updateEventLoops() {
+    EventLoop[] eventLoops = new EventLoop[workers.size()];
+    for (int i = 0; i < eventLoops.length; i++) {
+      eventLoops[i] = workers.get(i).worker;
     }
+    this.eventLoops = eventLoops;
   }
 
   private static class EventLoopHolder {
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2011-2016 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.core.spi;
+
+/**
+ * Pins the threads created by Vert.x, for instance to a CPU core.
+ * <p>
+ * The JVM doesn't expose thread affinity, an implementation usually relies on a native library.
+ */
+@FunctionalInterface
+public interface ThreadAffinity {
+
+  /**
+   * Called by a thread created by Vert.x when it starts, before it runs any task.
+   *
+   * @param thread  the current thread
+   * @param pool  the pool of the thread, the prefix of its name, e.g. {@code vert.x-eventloop-thread-}
+   * @param index  the index of the thread in its pool
+   */
+  void pin(Thread thread, String pool, int index);
+}
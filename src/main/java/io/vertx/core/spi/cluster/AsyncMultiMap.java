@@ -63,4 +63,28 @@ public interface AsyncMultiMap<K, V> {
    * @param completionHandler This will be called when the remove is complete
    */
   void removeAllForValue(V v, Handler<AsyncResult<Void>> completionHandler);
+
+  /**
+   * Set a handler notified when the values of a key are changed from any node of the cluster. The handler is called
+   * with the key, or with {@code null} when the values of any key may have changed, e.g after a
+   * {@link #removeAllForValue}.
+   * <p>
+   * A change made by this node must be notified before the completion handler of the change is called.
+   * <p>
+   * Vert.x caches the values it gets from a map supporting it, by default it is not supported.
+   *
+   * @param handler the handler
+   * @return {@code true} when the map notifies the changes
+   */
+  default boolean changeHandler(Handler<K> handler) {
+    return false;
+  }
+
+  /**
+   * Remove a handler set with {@link #changeHandler}, it is not notified of the changes anymore.
+   *
+   * @param handler the handler
+   */
+  default void removeChangeHandler(Handler<K> handler) {
+  }
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2011-2016 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.core.spi.eventbus;
+
+import io.vertx.core.Context;
+import io.vertx.core.eventbus.impl.HandlerChoosers;
+
+import java.util.List;
+
+/**
+ * Chooses the local consumer a point-to-point message is delivered to, when several consumers are registered
+ * on its address.
+ * <p>
+ * A chooser is shared by all the addresses and is called concurrently from any thread, so it should not keep
+ * state that is written on each call.
+ * <p>
+ * When no chooser is configured the event bus delivers the messages of an address to its consumers in a round robin
+ * fashion.
+ */
+public interface HandlerChooser {
+
+  /**
+   * @return a chooser preferring a consumer running on the event loop of the sender, the other consumers are chosen
+   * at random
+   */
+  static HandlerChooser contextAffine() {
+    return HandlerChoosers.CONTEXT_AFFINE;
+  }
+
+  /**
+   * @return a chooser choosing the consumer with the fewest pending messages
+   */
+  static HandlerChooser leastPending() {
+    return HandlerChoosers.LEAST_PENDING;
+  }
+
+  /**
+   * @return a chooser picking two consumers at random and choosing the one with the fewest pending messages
+   */
+  static HandlerChooser powerOfTwoChoices() {
+    return HandlerChoosers.POWER_OF_TWO_CHOICES;
+  }
+
+  /**
+   * Choose a consumer.
+   *
+   * @param address  the message address
+   * @param sender  the current context when the message is delivered, or {@code null}
+   * @param candidates  the consumers of the address, never empty, it must not be modified
+   * @return the index of the chosen consumer in {@code candidates}, an index out of range means no consumer
+   */
+  int choose(String address, Context sender, List<? extends Candidate> candidates);
+
+  /**
+   * A consumer that can be chosen.
+   */
+  interface Candidate {
+
+    /**
+     * @return the context the consumer handles its messages on
+     */
+    Context context();
+
+    /**
+     * @return the number of messages delivered to the consumer and not yet handled, including the messages buffered
+     * while it is paused
+     */
+    int pendingMessages();
+  }
+}
@@ -17,6 +17,7 @@
 package io.vertx.core.spi.metrics;
 
 import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.net.SocketAddress;
 
 /**
  * The event bus metrics SPI which Vert.x will use to call when each event occurs.
@@ -120,10 +121,22 @@ public interface EventBusMetrics<H> extends Metrics {
    * No specific thread and context can be expected when this method is called.
    *
    * @param address the message address
-   * @param numberOfBytes the number of bytes written
+   * @param numberOfBytes the number of bytes written, after compression when the message is compressed
    */
   void messageWritten(String address, int numberOfBytes);
 
+  /**
+   * A message has been compressed before being sent over the network, it is called before {@link #messageWritten}.<p/>
+   *
+   * No specific thread and context can be expected when this method is called.
+   *
+   * @param address the message address
+   * @param numberOfBytes the number of bytes of the compressed part of the message, before compression
+   * @param numberOfCompressedBytes the number of bytes of the compressed part of the message, after compression
+   */
+  default void messageCompressed(String address, int numberOfBytes, int numberOfCompressedBytes) {
+  }
+
   /**
    * A message has been received from the network.<p/>
    *
@@ -134,6 +147,42 @@ public interface EventBusMetrics<H> extends Metrics {
    */
   void messageRead(String address, int numberOfBytes);
 
+  /**
+   * Called when a batch of messages is written to a cluster connection, the messages of a batch are flushed
+   * together.<p/>
+   *
+   * No specific thread and context can be expected when this method is called.
+   *
+   * @param numberOfMessages the number of messages of the batch
+   * @param numberOfBytes the number of bytes of the batch
+   */
+  default void messageBatchWritten(int numberOfMessages, int numberOfBytes) {
+  }
+
+  /**
+   * Called when a message is not sent to a node of the cluster, because too many messages are waiting to be written to
+   * the node, or because the node is unreachable.<p/>
+   *
+   * No specific thread and context can be expected when this method is called.
+   *
+   * @param address the message address
+   * @param peer the address of the node
+   */
+  default void messageDropped(String address, SocketAddress peer) {
+  }
+
+  /**
+   * Called when a node of the cluster is considered unreachable after a connection failure, the messages sent to it
+   * are dropped until a connection is tried again.<p/>
+   *
+   * No specific thread and context can be expected when this method is called.
+   *
+   * @param peer the address of the node
+   * @param backoff the time before a connection is tried again, in ms
+   */
+  default void peerUnreachable(SocketAddress peer, long backoff) {
+  }
+
   /**
    * Called whenever the event bus delivers a reply failure to the sender/publisher, the
    * {@link io.vertx.core.eventbus.ReplyFailure reply failure} indicates the nature of the failure.<p/>
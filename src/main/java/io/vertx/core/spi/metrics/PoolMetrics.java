@@ -56,4 +56,14 @@ public interface PoolMetrics<T> extends Metrics {
    */
   void end(T t, boolean succeeded);
 
+  /**
+   * A thread of the pool has taken a task from a queue, only the pools with a queue per thread call it.
+   * This method is called from the thread taking the task.
+   *
+   * @param queueSize the number of tasks left in the queue
+   * @param stolen whether the task was taken from the queue of another thread of the pool
+   */
+  default void taken(int queueSize, boolean stolen) {
+  }
+
 }
\ No newline at end of file
@@ -20,14 +20,21 @@ import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.VertxOptions;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.*;
 import io.vertx.core.impl.VertxInternal;
+import io.vertx.core.net.impl.ServerID;
 import io.vertx.core.spi.cluster.ClusterManager;
 import io.vertx.test.fakecluster.FakeClusterManager;
 import org.junit.Test;
 
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -51,6 +58,42 @@ public class ClusteredEventBusTest extends ClusteredEventBusTestBase {
     await();
   }
 
+  @Test
+  public void testSendFlowControl() throws Exception {
+    startNodes(2);
+    int wqms = 10;
+    int numMessages = wqms * 5;
+    AtomicInteger received = new AtomicInteger();
+    MessageConsumer<Integer> consumer = vertices[1].eventBus().consumer(ADDRESS1, msg -> {
+      assertEquals(received.getAndIncrement(), (int) msg.body());
+      if (received.get() == numMessages) {
+        testComplete();
+      }
+    });
+    consumer.pause();
+    CountDownLatch latch = new CountDownLatch(1);
+    consumer.completionHandler(onSuccess(v -> latch.countDown()));
+    awaitLatch(latch);
+    MessageProducer<Integer> prod = vertices[0].eventBus().sender(ADDRESS1);
+    prod.setWriteQueueMaxSize(wqms);
+    vertices[0].runOnContext(v -> {
+      sendUntilFull(prod, new AtomicInteger(), numMessages);
+      assertTrue(prod.writeQueueFull());
+      consumer.resume();
+    });
+    await();
+  }
+
+  private void sendUntilFull(MessageProducer<Integer> prod, AtomicInteger count, int numMessages) {
+    while (count.get() < numMessages) {
+      prod.send(count.getAndIncrement());
+      if (prod.writeQueueFull()) {
+        prod.drainHandler(v -> sendUntilFull(prod, count, numMessages));
+        break;
+      }
+    }
+  }
+
   @Test
   public void testDecoderSendAsymmetric() throws Exception {
     startNodes(2);
@@ -153,6 +196,275 @@ public class ClusteredEventBusTest extends ClusteredEventBusTestBase {
     await();
   }
 
+  @Test
+  public void testSendPrimitives() throws Exception {
+    startNodes(2);
+    MessageConsumer<Long> reg = vertices[0].eventBus().<Long>consumer(ADDRESS1, msg -> {
+      assertEquals(Long.MIN_VALUE, msg.longBody());
+      assertEquals(Long.valueOf(Long.MIN_VALUE), msg.body());
+      testComplete();
+    });
+    reg.completionHandler(ar -> {
+      vertices[1].eventBus().sendLong(ADDRESS1, Long.MIN_VALUE);
+    });
+    await();
+  }
+
+  @Test
+  public void testCachedSubsFollowRegistrations() throws Exception {
+    startNodes(3);
+    CountDownLatch firstLatch = new CountDownLatch(1);
+    MessageConsumer<String> first = vertices[1].eventBus().<String>consumer(ADDRESS1, msg -> {
+      assertEquals("first", msg.body());
+      firstLatch.countDown();
+    });
+    first.completionHandler(onSuccess(v -> vertices[0].eventBus().send(ADDRESS1, "first")));
+    awaitLatch(firstLatch);
+    // The subscriptions of the address are cached by node 0, they must follow the changes made by other nodes
+    CountDownLatch secondLatch = new CountDownLatch(1);
+    vertices[2].eventBus().<String>consumer(ADDRESS1, msg -> {
+      assertEquals("second", msg.body());
+      testComplete();
+    }).completionHandler(onSuccess(v -> first.unregister(onSuccess(v2 -> secondLatch.countDown()))));
+    awaitLatch(secondLatch);
+    vertices[0].eventBus().send(ADDRESS1, "second");
+    await();
+  }
+
+  @Test
+  public void testConnectionsPerPeerKeepAddressOrder() throws Exception {
+    VertxOptions options = new VertxOptions();
+    options.getEventBusOptions().setConnectionsPerPeer(4);
+    startNodes(2, options);
+    int numAddresses = 8;
+    int numMessages = 100;
+    CountDownLatch regLatch = new CountDownLatch(numAddresses);
+    AtomicInteger done = new AtomicInteger();
+    for (int i = 0; i < numAddresses; i++) {
+      AtomicInteger expected = new AtomicInteger();
+      vertices[1].eventBus().<Integer>consumer("some-address-" + i, msg -> {
+        assertEquals(expected.getAndIncrement(), (int) msg.body());
+        if (expected.get() == numMessages && done.incrementAndGet() == numAddresses) {
+          testComplete();
+        }
+      }).completionHandler(onSuccess(v -> regLatch.countDown()));
+    }
+    awaitLatch(regLatch);
+    vertices[0].runOnContext(v -> {
+      for (int i = 0; i < numMessages; i++) {
+        for (int j = 0; j < numAddresses; j++) {
+          vertices[0].eventBus().send("some-address-" + j, i);
+        }
+      }
+    });
+    await();
+  }
+
+  @Test
+  public void testFrameLargerThanMaxFrameSize() throws Exception {
+    VertxOptions options = new VertxOptions();
+    options.getEventBusOptions().setMaxFrameSize(1024);
+    startNodes(2, options);
+    vertices[1].eventBus().<String>consumer(ADDRESS1, msg -> {
+      // The connection the large message is received on is closed
+      assertEquals("small", msg.body());
+      testComplete();
+    }).completionHandler(onSuccess(v -> {
+      vertices[0].eventBus().send(ADDRESS1, TestUtils.randomAlphaString(2048));
+      vertices[0].setTimer(500, id -> vertices[0].eventBus().send(ADDRESS1, "small"));
+    }));
+    await();
+  }
+
+  @Test
+  public void testCompressedFrameLargerThanMaxFrameSize() throws Exception {
+    VertxOptions options = new VertxOptions();
+    options.getEventBusOptions().setMaxFrameSize(1024).setCompressionThreshold(100);
+    startNodes(2, options);
+    StringBuilder large = new StringBuilder();
+    for (int i = 0; i < 16 * 1024; i++) {
+      large.append('a');
+    }
+    vertices[1].eventBus().<String>consumer(ADDRESS1, msg -> {
+      // The compressed message is received but it is not inflated beyond the maximum frame size
+      assertEquals("small", msg.body());
+      testComplete();
+    }).completionHandler(onSuccess(v -> {
+      vertices[0].eventBus().send(ADDRESS1, large.toString());
+      vertices[0].setTimer(500, id -> vertices[0].eventBus().send(ADDRESS1, "small"));
+    }));
+    await();
+  }
+
+  @Test
+  public void testInvalidInternedReferenceClosesConnection() throws Exception {
+    startNodes(2);
+    CountDownLatch latch = new CountDownLatch(1);
+    vertices[1].eventBus().consumer(ADDRESS1, msg -> fail()).completionHandler(onSuccess(v -> latch.countDown()));
+    awaitLatch(latch);
+    VertxInternal vi = (VertxInternal) vertices[0];
+    vi.getClusterManager().<String, ServerID>getAsyncMultiMap("__vertx.subs", onSuccess(subs -> {
+      subs.get(ADDRESS1, onSuccess(sids -> {
+        ServerID node = sids.choose();
+        vertices[0].createNetClient().connect(node.port, node.host, onSuccess(so -> {
+          so.closeHandler(v -> testComplete());
+          // A version 2 frame sending to an address interned with an id the connection never defined
+          so.write(Buffer.buffer()
+            .appendInt(4)
+            .appendByte((byte) 2)
+            .appendByte((byte) 5)
+            .appendByte((byte) 0)
+            .appendByte((byte) 100));
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testCompactWireProtocol() throws Exception {
+    startNodes(2);
+    MessageCodec codec = new MyPOJOEncoder1();
+    vertices[0].eventBus().registerCodec(codec);
+    vertices[1].eventBus().registerCodec(codec);
+    int num = 50;
+    CountDownLatch regLatch = new CountDownLatch(2);
+    for (String address : Arrays.asList(ADDRESS1, ADDRESS2)) {
+      vertices[1].eventBus().<String>consumer(address, msg -> {
+        assertEquals(address, msg.address());
+        msg.reply(msg.body() + "-" + msg.headers().get("index") + "-" + msg.headers().get("no-such-header"));
+      }).completionHandler(onSuccess(v -> regLatch.countDown()));
+    }
+    awaitLatch(regLatch);
+    // The first messages are written before the protocol is negotiated, the following ones are compact
+    AtomicInteger replies = new AtomicInteger();
+    for (int i = 0; i < num; i++) {
+      int index = i;
+      DeliveryOptions options = new DeliveryOptions().setCodecName(codec.name()).addHeader("index", "" + index);
+      vertices[0].eventBus().<String>send(index % 2 == 0 ? ADDRESS1 : ADDRESS2, new MyPOJO("foo"), options, onSuccess(reply -> {
+        assertEquals("foo-" + index + "-null", reply.body());
+        if (replies.incrementAndGet() == num) {
+          testComplete();
+        }
+      }));
+      Thread.sleep(10);
+    }
+    await();
+  }
+
+  @Test
+  public void testFramesSpanningReads() throws Exception {
+    startNodes(2);
+    // Small messages share the reads, the large ones span several reads
+    int num = 20;
+    Buffer[] sent = new Buffer[num];
+    for (int i = 0; i < num; i++) {
+      sent[i] = TestUtils.randomBuffer(i % 4 == 0 ? 256 * 1024 + i : i + 1);
+    }
+    AtomicInteger received = new AtomicInteger();
+    vertices[1].eventBus().<Buffer>consumer(ADDRESS1, msg -> {
+      int index = received.getAndIncrement();
+      assertEquals(sent[index], msg.body());
+      if (index == num - 1) {
+        testComplete();
+      }
+    }).completionHandler(onSuccess(v -> {
+      for (Buffer buffer : sent) {
+        vertices[0].eventBus().send(ADDRESS1, buffer);
+      }
+    }));
+    await();
+  }
+
+  @Test
+  public void testSendToUnreachableNodeFailsFast() throws Exception {
+    startNodes(1);
+    // A node of the subscriptions that can't be connected to
+    int port;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      port = socket.getLocalPort();
+    }
+    ServerID unreachable = new ServerID(port, "localhost");
+    VertxInternal vi = (VertxInternal) vertices[0];
+    vi.getClusterManager().<String, ServerID>getAsyncMultiMap("__vertx.subs", onSuccess(subs -> {
+      subs.add(ADDRESS1, unreachable, onSuccess(v -> {
+        DeliveryOptions options = new DeliveryOptions().setSendTimeout(60 * 1000);
+        // The reply handler fails when the connection fails, not when the send times out
+        vertices[0].eventBus().send(ADDRESS1, "foo", options, onFailure(err1 -> {
+          assertEquals(ReplyFailure.NO_HANDLERS, ((ReplyException) err1).failureType());
+          // The node is not connected again before the backoff expires
+          vertices[0].eventBus().send(ADDRESS1, "foo", options, onFailure(err2 -> {
+            assertEquals(ReplyFailure.NO_HANDLERS, ((ReplyException) err2).failureType());
+            assertTrue(err2.getMessage().contains("unreachable"));
+            testComplete();
+          }));
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testSendToReplyAddressIsRoutedToItsNode() throws Exception {
+    startNodes(2);
+    vertices[1].eventBus().<String>consumer(ADDRESS1, msg -> {
+      // The reply address is not a subscription of the cluster, it names the node of the sender
+      String replyAddress = msg.replyAddress();
+      assertTrue(replyAddress.startsWith("__vertx.reply."));
+      vertices[1].eventBus().send(replyAddress, "bar");
+    }).completionHandler(onSuccess(v -> {
+      vertices[0].eventBus().send(ADDRESS1, "foo", onSuccess(reply -> {
+        assertEquals("bar", reply.body());
+        testComplete();
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testSendToForgedReplyAddressIsNotRoutedToItsNode() throws Exception {
+    startNodes(2);
+    try (ServerSocket socket = new ServerSocket(0)) {
+      socket.setSoTimeout(500);
+      // The address names a node that is not a member of the cluster
+      String forged = "__vertx.reply.1.0." + socket.getLocalPort() + ".localhost";
+      CountDownLatch latch = new CountDownLatch(1);
+      vertices[0].eventBus().send(forged, "foo", onFailure(err -> {
+        assertEquals(ReplyFailure.NO_HANDLERS, ((ReplyException) err).failureType());
+        latch.countDown();
+      }));
+      awaitLatch(latch);
+      try {
+        socket.accept().close();
+        fail("The node should not connect to the address of a forged reply address");
+      } catch (SocketTimeoutException expected) {
+      }
+    }
+  }
+
+  @Test
+  public void testReplyAddressTokensAreUnique() throws Exception {
+    startNodes(2);
+    Set<String> tokens = new HashSet<>();
+    int num = 10;
+    vertices[1].eventBus().<String>consumer(ADDRESS1, msg -> {
+      String[] parts = msg.replyAddress().substring("__vertx.reply.".length()).split("\\.", 3);
+      // The id, then the token
+      assertTrue(tokens.add(parts[1]));
+      msg.reply("bar");
+    }).completionHandler(onSuccess(v -> {
+      AtomicInteger replies = new AtomicInteger();
+      for (int i = 0; i < num; i++) {
+        vertices[0].eventBus().send(ADDRESS1, "foo", onSuccess(reply -> {
+          if (replies.incrementAndGet() == num) {
+            testComplete();
+          }
+        }));
+      }
+    }));
+    await();
+  }
+
   // Make sure ping/pong works ok
   @Test
   public void testClusteredPong() throws Exception {
@@ -115,6 +115,40 @@ public class ContextTest extends VertxTestBase {
     await();
   }
 
+  @Test
+  public void testExecuteOrderedBlockingFromManyThreads() throws Exception {
+    Context context = vertx.getOrCreateContext();
+    int numThreads = 4;
+    int num = 2000;
+    int[] expected = new int[numThreads];
+    AtomicBoolean running = new AtomicBoolean();
+    AtomicInteger done = new AtomicInteger();
+    Thread[] threads = new Thread[numThreads];
+    for (int i = 0; i < numThreads; i++) {
+      int thread = i;
+      threads[i] = new Thread(() -> {
+        for (int j = 0; j < num; j++) {
+          int val = j;
+          context.executeBlocking(f -> {
+            // The tasks run one at a time, in the order each thread submitted them
+            assertTrue(running.compareAndSet(false, true));
+            assertEquals(val, expected[thread]++);
+            running.set(false);
+            f.complete();
+          }, r -> {
+            if (done.incrementAndGet() == numThreads * num) {
+              testComplete();
+            }
+          });
+        }
+      });
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    await();
+  }
+
   @Test
   public void testExecuteUnorderedBlocking() throws Exception {
     Context context = vertx.getOrCreateContext();
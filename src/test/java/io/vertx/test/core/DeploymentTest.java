@@ -16,6 +16,7 @@
 
 package io.vertx.test.core;
 
+import io.netty.channel.EventLoop;
 import io.vertx.core.*;
 import io.vertx.core.eventbus.Message;
 import io.vertx.core.impl.*;
@@ -79,6 +80,10 @@ public class DeploymentTest extends VertxTestBase {
     String workerPoolName = TestUtils.randomAlphaString(10);
     assertEquals(options, options.setWorkerPoolName(workerPoolName));
     assertEquals(workerPoolName, options.getWorkerPoolName());
+    assertNull(options.getEventLoopAffinity());
+    String eventLoopAffinity = TestUtils.randomAlphaString(10);
+    assertEquals(options, options.setEventLoopAffinity(eventLoopAffinity));
+    assertEquals(eventLoopAffinity, options.getEventLoopAffinity());
     int workerPoolSize = TestUtils.randomPositiveInt();
     assertEquals(options, options.setWorkerPoolSize(workerPoolSize));
     assertEquals(workerPoolSize, options.getWorkerPoolSize());
@@ -99,6 +104,7 @@ public class DeploymentTest extends VertxTestBase {
     List<String> cp = Arrays.asList("foo", "bar");
     List<String> isol = Arrays.asList("com.foo.MyClass", "org.foo.*");
     String poolName = TestUtils.randomAlphaString(10);
+    String eventLoopAffinity = TestUtils.randomAlphaString(10);
     int poolSize = TestUtils.randomPositiveInt();
     long maxWorkerExecuteTime = TestUtils.randomPositiveLong();
     options.setConfig(config);
@@ -109,6 +115,7 @@ public class DeploymentTest extends VertxTestBase {
     options.setExtraClasspath(cp);
     options.setIsolatedClasses(isol);
     options.setWorkerPoolName(poolName);
+    options.setEventLoopAffinity(eventLoopAffinity);
     options.setWorkerPoolSize(poolSize);
     options.setMaxWorkerExecuteTime(maxWorkerExecuteTime);
     DeploymentOptions copy = new DeploymentOptions(options);
@@ -123,6 +130,7 @@ public class DeploymentTest extends VertxTestBase {
     assertEquals(isol, copy.getIsolatedClasses());
     assertNotSame(isol, copy.getIsolatedClasses());
     assertEquals(poolName, copy.getWorkerPoolName());
+    assertEquals(eventLoopAffinity, copy.getEventLoopAffinity());
     assertEquals(poolSize, copy.getWorkerPoolSize());
     assertEquals(maxWorkerExecuteTime, copy.getMaxWorkerExecuteTime());
   }
@@ -139,6 +147,7 @@ public class DeploymentTest extends VertxTestBase {
     assertEquals(def.getExtraClasspath(), json.getExtraClasspath());
     assertEquals(def.getIsolatedClasses(), json.getIsolatedClasses());
     assertEquals(def.getWorkerPoolName(), json.getWorkerPoolName());
+    assertEquals(def.getEventLoopAffinity(), json.getEventLoopAffinity());
     assertEquals(def.getWorkerPoolSize(), json.getWorkerPoolSize());
     assertEquals(def.getMaxWorkerExecuteTime(), json.getMaxWorkerExecuteTime());
   }
@@ -154,6 +163,7 @@ public class DeploymentTest extends VertxTestBase {
     List<String> cp = Arrays.asList("foo", "bar");
     List<String> isol = Arrays.asList("com.foo.MyClass", "org.foo.*");
     String poolName = TestUtils.randomAlphaString(10);
+    String eventLoopAffinity = TestUtils.randomAlphaString(10);
     int poolSize = TestUtils.randomPositiveInt();
     long maxWorkerExecuteTime = TestUtils.randomPositiveLong();
     JsonObject json = new JsonObject();
@@ -165,6 +175,7 @@ public class DeploymentTest extends VertxTestBase {
     json.put("extraClasspath", new JsonArray(cp));
     json.put("isolatedClasses", new JsonArray(isol));
     json.put("workerPoolName", poolName);
+    json.put("eventLoopAffinity", eventLoopAffinity);
     json.put("workerPoolSize", poolSize);
     json.put("maxWorkerExecuteTime", maxWorkerExecuteTime);
     DeploymentOptions options = new DeploymentOptions(json);
@@ -176,6 +187,7 @@ public class DeploymentTest extends VertxTestBase {
     assertEquals(cp, options.getExtraClasspath());
     assertEquals(isol, options.getIsolatedClasses());
     assertEquals(poolName, options.getWorkerPoolName());
+    assertEquals(eventLoopAffinity, options.getEventLoopAffinity());
     assertEquals(poolSize, options.getWorkerPoolSize());
     assertEquals(maxWorkerExecuteTime, options.getMaxWorkerExecuteTime());
   }
@@ -192,6 +204,7 @@ public class DeploymentTest extends VertxTestBase {
     List<String> cp = Arrays.asList("foo", "bar");
     List<String> isol = Arrays.asList("com.foo.MyClass", "org.foo.*");
     String poolName = TestUtils.randomAlphaString(10);
+    String eventLoopAffinity = TestUtils.randomAlphaString(10);
     int poolSize = TestUtils.randomPositiveInt();
     long maxWorkerExecuteTime = TestUtils.randomPositiveLong();
     options.setConfig(config);
@@ -202,6 +215,7 @@ public class DeploymentTest extends VertxTestBase {
     options.setExtraClasspath(cp);
     options.setIsolatedClasses(isol);
     options.setWorkerPoolName(poolName);
+    options.setEventLoopAffinity(eventLoopAffinity);
     options.setWorkerPoolSize(poolSize);
     options.setMaxWorkerExecuteTime(maxWorkerExecuteTime);
     JsonObject json = options.toJson();
@@ -214,6 +228,7 @@ public class DeploymentTest extends VertxTestBase {
     assertEquals(cp, copy.getExtraClasspath());
     assertEquals(isol, copy.getIsolatedClasses());
     assertEquals(poolName, copy.getWorkerPoolName());
+    assertEquals(eventLoopAffinity, copy.getEventLoopAffinity());
     assertEquals(poolSize, copy.getWorkerPoolSize());
     assertEquals(maxWorkerExecuteTime, copy.getMaxWorkerExecuteTime());
   }
@@ -416,6 +431,25 @@ public class DeploymentTest extends VertxTestBase {
     await();
   }
 
+  @Test
+  public void testEventLoopAffinity() throws Exception {
+    MyVerticle verticle1 = new MyVerticle();
+    MyVerticle verticle2 = new MyVerticle();
+    MyVerticle verticle3 = new MyVerticle();
+    DeploymentOptions options = new DeploymentOptions().setEventLoopAffinity("affinity");
+    vertx.deployVerticle(verticle1, options, onSuccess(id1 -> {
+      vertx.deployVerticle(verticle2, options, onSuccess(id2 -> {
+        vertx.deployVerticle(verticle3, new DeploymentOptions(options).setWorker(true), onSuccess(id3 -> {
+          EventLoop eventLoop = ((ContextInternal) verticle1.startContext).nettyEventLoop();
+          assertSame(eventLoop, ((ContextInternal) verticle2.startContext).nettyEventLoop());
+          assertSame(eventLoop, ((ContextInternal) verticle3.startContext).nettyEventLoop());
+          testComplete();
+        }));
+      }));
+    }));
+    await();
+  }
+
   @Test
   public void testDeployMultithreadedNotWorker() throws Exception {
     MyVerticle verticle = new MyVerticle();
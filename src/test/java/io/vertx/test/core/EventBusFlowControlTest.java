@@ -6,6 +6,7 @@ import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.eventbus.EventBus;
 import io.vertx.core.eventbus.MessageConsumer;
 import io.vertx.core.eventbus.MessageProducer;
+import io.vertx.core.eventbus.impl.HandlerRegistration;
 import org.junit.Test;
 
 import java.util.ArrayList;
@@ -120,23 +121,23 @@ public class EventBusFlowControlTest extends VertxTestBase {
 
   @Test
   public void testFlowControlNoConsumer() {
-
     MessageProducer<String> prod = eb.sender("some-address");
     int wqms = 2000;
     prod.setWriteQueueMaxSize(wqms);
-
-    boolean drainHandlerSet = false;
-    for (int i = 0; i < wqms * 2; i++) {
-      prod.send("message-" + i);
-      if (prod.writeQueueFull() && !drainHandlerSet) {
-        prod.drainHandler(v -> {
-          fail("Should not be called");
-        });
-        drainHandlerSet = true;
+    vertx.runOnContext(v1 -> {
+      // The messages sent before the consumer is registered are dropped and give their credit back
+      while (!prod.writeQueueFull()) {
+        prod.send("dropped");
       }
-    }
-    assertTrue(drainHandlerSet);
-    vertx.setTimer(500, tid -> testComplete());
+      prod.drainHandler(v2 -> {
+        prod.drainHandler(null);
+        eb.<String>consumer("some-address", msg -> {
+          assertEquals("sent", msg.body());
+          testComplete();
+        });
+        prod.send("sent");
+      });
+    });
     await();
   }
 
@@ -171,6 +172,52 @@ public class EventBusFlowControlTest extends VertxTestBase {
     assertNotNull(handlerContext.get());
   }
 
+  @Test
+  public void testFlowControlPausedConsumerDoesNotDiscard() {
+    MessageConsumer<Integer> consumer = eb.consumer("some-address");
+    consumer.setMaxBufferedMessages(10);
+    int wqms = 100;
+    AtomicInteger received = new AtomicInteger();
+    consumer.handler(msg -> {
+      assertEquals(received.getAndIncrement(), (int) msg.body());
+      if (received.get() == wqms) {
+        testComplete();
+      }
+    });
+    consumer.pause();
+    MessageProducer<Integer> prod = eb.sender("some-address");
+    prod.setWriteQueueMaxSize(wqms);
+    int count = 0;
+    while (!prod.writeQueueFull()) {
+      prod.send(count++);
+    }
+    assertEquals(wqms, count);
+    waitUntil(() -> ((HandlerRegistration) consumer).pendingMessages() == wqms);
+    consumer.resume();
+    await();
+  }
+
+  @Test
+  public void testFlowControlQueuedSendWithReply() {
+    eb.<Integer>consumer("some-address", msg -> msg.reply(msg.body() + 1));
+    MessageProducer<Integer> prod = eb.sender("some-address");
+    prod.setWriteQueueMaxSize(1);
+    int num = 10;
+    AtomicInteger replies = new AtomicInteger();
+    for (int i = 0; i < num; i++) {
+      int val = i;
+      prod.<Integer>send(i, onSuccess(reply -> {
+        assertEquals(val + 1, (int) reply.body());
+        if (replies.incrementAndGet() == num) {
+          testComplete();
+        }
+      }));
+      // The first one is sent, the others are queued
+      assertTrue(prod.writeQueueFull());
+    }
+    await();
+  }
+
   @Override
   public void setUp() throws Exception {
     super.setUp();
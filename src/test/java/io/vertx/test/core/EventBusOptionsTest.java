@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2011-2016 The original author or authors
+ *  ------------------------------------------------------
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *      The Eclipse Public License is available at
+ *      http://www.eclipse.org/legal/epl-v10.html
+ *
+ *      The Apache License v2.0 is available at
+ *      http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.test.core;
+
+import io.vertx.core.eventbus.EventBusOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.spi.eventbus.HandlerChooser;
+import org.junit.Test;
+
+import static io.vertx.test.core.TestUtils.*;
+
+public class EventBusOptionsTest extends VertxTestBase {
+
+  @Test
+  public void testOptions() {
+    EventBusOptions options = new EventBusOptions();
+
+    assertEquals(EventBusOptions.DEFAULT_LOCAL_DELIVERY_BATCH_SIZE, options.getLocalDeliveryBatchSize());
+    int rand = TestUtils.randomPositiveInt();
+    assertEquals(options, options.setLocalDeliveryBatchSize(rand));
+    assertEquals(rand, options.getLocalDeliveryBatchSize());
+    assertIllegalArgumentException(() -> options.setLocalDeliveryBatchSize(0));
+
+    assertNull(options.getHandlerChooser());
+    assertEquals(options, options.setHandlerChooser(HandlerChooser.leastPending()));
+    assertSame(HandlerChooser.leastPending(), options.getHandlerChooser());
+
+    assertEquals(EventBusOptions.DEFAULT_CONNECTIONS_PER_PEER, options.getConnectionsPerPeer());
+    rand = TestUtils.randomPositiveInt();
+    assertEquals(options, options.setConnectionsPerPeer(rand));
+    assertEquals(rand, options.getConnectionsPerPeer());
+    assertIllegalArgumentException(() -> options.setConnectionsPerPeer(0));
+
+    assertEquals(EventBusOptions.DEFAULT_COMPRESSION_THRESHOLD, options.getCompressionThreshold());
+    assertEquals(options, options.setCompressionThreshold(0));
+    assertEquals(0, options.getCompressionThreshold());
+    rand = TestUtils.randomPositiveInt();
+    assertEquals(options, options.setCompressionThreshold(rand));
+    assertEquals(rand, options.getCompressionThreshold());
+    assertIllegalArgumentException(() -> options.setCompressionThreshold(-2));
+
+    assertEquals(EventBusOptions.DEFAULT_MAX_PENDING_MESSAGES, options.getMaxPendingMessages());
+    rand = TestUtils.randomPositiveInt();
+    assertEquals(options, options.setMaxPendingMessages(rand));
+    assertEquals(rand, options.getMaxPendingMessages());
+    assertEquals(options, options.setMaxPendingMessages(-1));
+    assertEquals(-1, options.getMaxPendingMessages());
+    assertIllegalArgumentException(() -> options.setMaxPendingMessages(0));
+    assertIllegalArgumentException(() -> options.setMaxPendingMessages(-2));
+
+    assertEquals(EventBusOptions.DEFAULT_UNREACHABLE_PEER_BACKOFF, options.getUnreachablePeerBackoff());
+    long randLong = TestUtils.randomPositiveLong();
+    assertEquals(options, options.setUnreachablePeerBackoff(randLong));
+    assertEquals(randLong, options.getUnreachablePeerBackoff());
+    assertEquals(options, options.setUnreachablePeerBackoff(0));
+    assertEquals(0, options.getUnreachablePeerBackoff());
+    assertIllegalArgumentException(() -> options.setUnreachablePeerBackoff(-1));
+
+    assertEquals(EventBusOptions.DEFAULT_MAX_FRAME_SIZE, options.getMaxFrameSize());
+    rand = TestUtils.randomPositiveInt();
+    assertEquals(options, options.setMaxFrameSize(rand));
+    assertEquals(rand, options.getMaxFrameSize());
+    assertIllegalArgumentException(() -> options.setMaxFrameSize(0));
+  }
+
+  @Test
+  public void testCopyOptions() {
+    EventBusOptions options = new EventBusOptions();
+
+    int localDeliveryBatchSize = TestUtils.randomPositiveInt();
+    options.setLocalDeliveryBatchSize(localDeliveryBatchSize);
+    options.setHandlerChooser(HandlerChooser.contextAffine());
+    int connectionsPerPeer = TestUtils.randomPositiveInt();
+    options.setConnectionsPerPeer(connectionsPerPeer);
+    int compressionThreshold = TestUtils.randomPositiveInt();
+    options.setCompressionThreshold(compressionThreshold);
+    int maxPendingMessages = TestUtils.randomPositiveInt();
+    options.setMaxPendingMessages(maxPendingMessages);
+    long unreachablePeerBackoff = TestUtils.randomPositiveLong();
+    options.setUnreachablePeerBackoff(unreachablePeerBackoff);
+    int maxFrameSize = TestUtils.randomPositiveInt();
+    options.setMaxFrameSize(maxFrameSize);
+    options = new EventBusOptions(options);
+    assertEquals(localDeliveryBatchSize, options.getLocalDeliveryBatchSize());
+    assertSame(HandlerChooser.contextAffine(), options.getHandlerChooser());
+    assertEquals(connectionsPerPeer, options.getConnectionsPerPeer());
+    assertEquals(compressionThreshold, options.getCompressionThreshold());
+    assertEquals(maxPendingMessages, options.getMaxPendingMessages());
+    assertEquals(unreachablePeerBackoff, options.getUnreachablePeerBackoff());
+    assertEquals(maxFrameSize, options.getMaxFrameSize());
+  }
+
+  @Test
+  public void testDefaultJsonOptions() {
+    EventBusOptions def = new EventBusOptions();
+    EventBusOptions json = new EventBusOptions(new JsonObject());
+    assertEquals(def.getLocalDeliveryBatchSize(), json.getLocalDeliveryBatchSize());
+    assertEquals(def.getConnectionsPerPeer(), json.getConnectionsPerPeer());
+    assertEquals(def.getCompressionThreshold(), json.getCompressionThreshold());
+    assertEquals(def.getMaxPendingMessages(), json.getMaxPendingMessages());
+    assertEquals(def.getUnreachablePeerBackoff(), json.getUnreachablePeerBackoff());
+    assertEquals(def.getMaxFrameSize(), json.getMaxFrameSize());
+  }
+
+  @Test
+  public void testJsonOptions() {
+    int localDeliveryBatchSize = TestUtils.randomPositiveInt();
+    int connectionsPerPeer = TestUtils.randomPositiveInt();
+    int compressionThreshold = TestUtils.randomPositiveInt();
+    int maxPendingMessages = TestUtils.randomPositiveInt();
+    long unreachablePeerBackoff = TestUtils.randomPositiveLong();
+    int maxFrameSize = TestUtils.randomPositiveInt();
+    EventBusOptions options = new EventBusOptions(new JsonObject().
+        put("localDeliveryBatchSize", localDeliveryBatchSize).
+        put("connectionsPerPeer", connectionsPerPeer).
+        put("compressionThreshold", compressionThreshold).
+        put("maxPendingMessages", maxPendingMessages).
+        put("unreachablePeerBackoff", unreachablePeerBackoff).
+        put("maxFrameSize", maxFrameSize)
+    );
+    assertEquals(localDeliveryBatchSize, options.getLocalDeliveryBatchSize());
+    assertEquals(localDeliveryBatchSize, (int) options.toJson().getInteger("localDeliveryBatchSize"));
+    assertEquals(connectionsPerPeer, options.getConnectionsPerPeer());
+    assertEquals(connectionsPerPeer, (int) options.toJson().getInteger("connectionsPerPeer"));
+    assertEquals(compressionThreshold, options.getCompressionThreshold());
+    assertEquals(compressionThreshold, (int) options.toJson().getInteger("compressionThreshold"));
+    assertEquals(maxPendingMessages, options.getMaxPendingMessages());
+    assertEquals(maxPendingMessages, (int) options.toJson().getInteger("maxPendingMessages"));
+    assertEquals(unreachablePeerBackoff, options.getUnreachablePeerBackoff());
+    assertEquals(unreachablePeerBackoff, (long) options.toJson().getLong("unreachablePeerBackoff"));
+    assertEquals(maxFrameSize, options.getMaxFrameSize());
+    assertEquals(maxFrameSize, (int) options.toJson().getInteger("maxFrameSize"));
+  }
+}
@@ -17,9 +17,13 @@
 package io.vertx.test.core;
 
 import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
 import org.junit.Test;
 
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -166,4 +170,63 @@ public class ExecuteBlockingTest extends VertxTestBase {
     long leeway = 1000;
     assertTrue(now - start < pause + leeway);
   }
+
+  @Test
+  public void testElasticWorkerPool() throws Exception {
+    vertx.close();
+    vertx = Vertx.vertx(new VertxOptions().setWorkerPoolSize(1).setWorkerPoolElastic(true));
+    int num = 10;
+    waitFor(num);
+    Context ctx = vertx.getOrCreateContext();
+    // The tasks can only complete if they all run at the same time
+    CountDownLatch latch = new CountDownLatch(num);
+    ctx.runOnContext(v -> {
+      for (int i = 0; i < num; i++) {
+        vertx.executeBlocking(future -> {
+          assertSame(ctx, Vertx.currentContext());
+          assertTrue(Context.isOnWorkerThread());
+          latch.countDown();
+          try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+          } catch (InterruptedException e) {
+            fail(e);
+          }
+          future.complete();
+        }, false, onSuccess(res -> {
+          assertSame(ctx, Vertx.currentContext());
+          complete();
+        }));
+      }
+    });
+    await();
+  }
+
+  @Test
+  public void testElasticWorkerPoolMaxSize() throws Exception {
+    vertx.close();
+    vertx = Vertx.vertx(new VertxOptions().setWorkerPoolSize(1).setWorkerPoolElastic(true).setWorkerPoolMaxSize(2));
+    int num = 10;
+    waitFor(num);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    Context ctx = vertx.getOrCreateContext();
+    ctx.runOnContext(v -> {
+      for (int i = 0; i < num; i++) {
+        vertx.executeBlocking(future -> {
+          int n = running.incrementAndGet();
+          maxRunning.accumulateAndGet(n, Math::max);
+          try {
+            Thread.sleep(20);
+          } catch (InterruptedException e) {
+            fail(e);
+          }
+          running.decrementAndGet();
+          future.complete();
+        }, false, onSuccess(res -> complete()));
+      }
+    });
+    await();
+    // The pool grew up to its max size, the tasks beyond it were queued
+    assertEquals(2, maxRunning.get());
+  }
 }
@@ -17,15 +17,23 @@
 package io.vertx.test.core;
 
 import io.vertx.core.*;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.*;
+import io.vertx.core.eventbus.impl.AddressHandle;
+import io.vertx.core.eventbus.impl.CodecManager;
+import io.vertx.core.eventbus.impl.EventBusImpl;
 import io.vertx.core.eventbus.impl.HandlerRegistration;
 import io.vertx.core.http.CaseInsensitiveHeaders;
 import io.vertx.core.impl.*;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.spi.eventbus.HandlerChooser;
 import io.vertx.core.streams.Pump;
 import io.vertx.core.streams.ReadStream;
 import io.vertx.core.streams.WriteStream;
+import org.junit.Assume;
 import org.junit.Test;
 
+import java.lang.management.ManagementFactory;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Map;
@@ -35,6 +43,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 
@@ -81,6 +90,11 @@ public class LocalEventBusTest extends EventBusTestBase {
     assertIllegalArgumentException(() -> options.setSendTimeout(-1));
     assertNullPointerException(() -> options.addHeader(null, ""));
     assertNullPointerException(() -> options.addHeader("", null));
+    assertFalse(options.isSharedBody());
+    assertSame(options, options.setSharedBody(true));
+    assertTrue(options.isSharedBody());
+    assertTrue(new DeliveryOptions(options).isSharedBody());
+    assertTrue(new DeliveryOptions(new JsonObject().put("sharedBody", true)).isSharedBody());
   }
 
   @Test
@@ -229,6 +243,124 @@ public class LocalEventBusTest extends EventBusTestBase {
     await();
   }
 
+  @Test
+  public void testSendContextAffineChooser() throws Exception {
+    int numHandlers = 4;
+    int numMessages = 100;
+    Context[] contexts = new Context[numHandlers];
+    CountDownLatch latch = new CountDownLatch(numHandlers);
+    AtomicInteger received = new AtomicInteger();
+    for (int i = 0; i < numHandlers; i++) {
+      Context ctx = vertx.getOrCreateContext();
+      contexts[i] = ctx;
+      ctx.runOnContext(v -> {
+        eb.<String>consumer(ADDRESS1, msg -> {
+          // Delivered without leaving the event loop of the sender
+          assertEquals(((ContextInternal) contexts[0]).nettyEventLoop(), ((ContextInternal) Vertx.currentContext()).nettyEventLoop());
+          if (received.incrementAndGet() == numMessages) {
+            testComplete();
+          }
+        }).completionHandler(onSuccess(ar -> latch.countDown()));
+      });
+    }
+    awaitLatch(latch);
+    DeliveryOptions options = new DeliveryOptions().setHandlerChooser(HandlerChooser.contextAffine());
+    contexts[0].runOnContext(v -> {
+      for (int i = 0; i < numMessages; i++) {
+        eb.send(ADDRESS1, "foo", options);
+      }
+    });
+    await();
+  }
+
+  @Test
+  public void testSendLeastPendingChooser() throws Exception {
+    testSendChooserAvoidsBusyConsumer(HandlerChooser.leastPending());
+  }
+
+  @Test
+  public void testSendPowerOfTwoChoicesChooser() throws Exception {
+    testSendChooserAvoidsBusyConsumer(HandlerChooser.powerOfTwoChoices());
+  }
+
+  @Test
+  public void testSendLeastPendingChooserAvoidsBacklogBuiltBeforeFirstChoice() throws Exception {
+    int numBacklog = 10;
+    int numMessages = 5;
+    AtomicInteger busyReceived = new AtomicInteger();
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch deployed = new CountDownLatch(1);
+    vertx.deployVerticle(new AbstractVerticle() {
+      @Override
+      public void start() {
+        vertx.eventBus().<String>consumer(ADDRESS1, msg -> {
+          assertEquals("backlog", msg.body());
+          if (busyReceived.incrementAndGet() == 1) {
+            // The other messages of the backlog are delivered and not handled
+            blocked.countDown();
+            try {
+              assertTrue(release.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+              fail(e);
+            }
+          }
+        }).completionHandler(onSuccess(v -> deployed.countDown()));
+      }
+    }, new DeploymentOptions().setWorker(true));
+    awaitLatch(deployed);
+    // No chooser asked for the load of the consumer yet
+    for (int i = 0; i < numBacklog; i++) {
+      eb.send(ADDRESS1, "backlog");
+    }
+    awaitLatch(blocked);
+    AtomicInteger idleReceived = new AtomicInteger();
+    CountDownLatch latch = new CountDownLatch(1);
+    eb.<String>consumer(ADDRESS1, msg -> {
+      assertEquals("chosen", msg.body());
+      if (idleReceived.incrementAndGet() == numMessages) {
+        release.countDown();
+      }
+    }).completionHandler(onSuccess(v -> latch.countDown()));
+    awaitLatch(latch);
+    DeliveryOptions options = new DeliveryOptions().setHandlerChooser(HandlerChooser.leastPending());
+    for (int i = 0; i < numMessages; i++) {
+      eb.send(ADDRESS1, "chosen", options);
+    }
+    waitUntil(() -> busyReceived.get() == numBacklog);
+    assertEquals(numMessages, idleReceived.get());
+  }
+
+  private void testSendChooserAvoidsBusyConsumer(HandlerChooser chooser) throws Exception {
+    int numBuffered = 10;
+    int numMessages = 5;
+    AtomicInteger busyReceived = new AtomicInteger();
+    MessageConsumer<String> busy = eb.<String>consumer(ADDRESS1, msg -> {
+      assertEquals("buffered", msg.body());
+      busyReceived.incrementAndGet();
+    });
+    busy.pause();
+    for (int i = 0; i < numBuffered; i++) {
+      eb.send(ADDRESS1, "buffered");
+    }
+    waitUntil(() -> ((HandlerRegistration) busy).pendingMessages() == numBuffered);
+    AtomicInteger idleReceived = new AtomicInteger();
+    CountDownLatch latch = new CountDownLatch(1);
+    eb.<String>consumer(ADDRESS1, msg -> {
+      assertEquals("chosen", msg.body());
+      if (idleReceived.incrementAndGet() == numMessages) {
+        busy.resume();
+      }
+    }).completionHandler(onSuccess(v -> latch.countDown()));
+    awaitLatch(latch);
+    DeliveryOptions options = new DeliveryOptions().setHandlerChooser(chooser);
+    for (int i = 0; i < numMessages; i++) {
+      eb.send(ADDRESS1, "chosen", options);
+    }
+    waitUntil(() -> busyReceived.get() == numBuffered);
+    assertEquals(numMessages, idleReceived.get());
+  }
+
   @Test
   public void testSendRegisterSomeUnregisterOne() {
     String str = TestUtils.randomUnicodeString(100);
@@ -277,6 +409,39 @@ public class LocalEventBusTest extends EventBusTestBase {
     await();
   }
 
+  @Test
+  public void testSendBatchedOnConsumerContext() throws Exception {
+    vertx.close();
+    vertx = Vertx.vertx(new VertxOptions().setEventBusOptions(new EventBusOptions().setLocalDeliveryBatchSize(4)));
+    eb = vertx.eventBus();
+    int num = 1000;
+    Context ctx = vertx.getOrCreateContext();
+    CountDownLatch registered = new CountDownLatch(1);
+    AtomicInteger received = new AtomicInteger();
+    ctx.runOnContext(v -> {
+      eb.<Integer>consumer(ADDRESS1, msg -> {
+        assertSame(ctx, Vertx.currentContext());
+        int expected = received.getAndIncrement();
+        assertEquals(expected, (int) msg.body());
+        if (expected == 10) {
+          // The remaining messages of the batch must still be delivered
+          throw new RuntimeException("expected");
+        }
+        if (expected == num - 1) {
+          testComplete();
+        }
+      }).completionHandler(ar -> {
+        assertTrue(ar.succeeded());
+        registered.countDown();
+      });
+    });
+    awaitLatch(registered);
+    for (int i = 0; i < num; i++) {
+      eb.send(ADDRESS1, i);
+    }
+    await();
+  }
+
   @Test
   public void testSendWithNoHandler() {
     eb.send(ADDRESS1, TestUtils.randomUnicodeString(100));
@@ -284,6 +449,108 @@ public class LocalEventBusTest extends EventBusTestBase {
     await();
   }
 
+  @Test
+  public void testSendWithoutInterceptorsAllocation() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+    Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled());
+    // The messages are delivered, so the delivery is measured too
+    eb.consumer(ADDRESS1, msg -> {});
+    String body = "the_body";
+    int num = 100000;
+    Runnable send = () -> eb.send(ADDRESS1, body);
+    // The baseline is the same send going through a no-op interceptor, it needs a send context
+    Handler<SendContext> interceptor = SendContext::next;
+    eb.addInterceptor(interceptor);
+    long baseline = allocatedPerSend(threadBean, send, num);
+    eb.removeInterceptor(interceptor);
+    long perSend = allocatedPerSend(threadBean, send, num);
+    assertTrue("Allocated " + perSend + " bytes per send, " + baseline + " bytes per send with an interceptor",
+      perSend + 16 <= baseline);
+  }
+
+  private long allocatedPerSend(com.sun.management.ThreadMXBean threadBean, Runnable send, int num) {
+    long threadId = Thread.currentThread().getId();
+    for (int i = 0; i < num; i++) {
+      send.run();
+    }
+    long before = threadBean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < num; i++) {
+      send.run();
+    }
+    return (threadBean.getThreadAllocatedBytes(threadId) - before) / num;
+  }
+
+  @Test
+  public void testSendPrimitives() {
+    eb.<Integer>consumer(ADDRESS1, msg -> {
+      assertEquals(123, msg.intBody());
+      assertEquals(123L, msg.longBody());
+      assertEquals(Integer.valueOf(123), msg.body());
+      eb.sendLong(ADDRESS2, Long.MAX_VALUE);
+    });
+    eb.<Long>consumer(ADDRESS2, msg -> {
+      assertEquals(Long.MAX_VALUE, msg.longBody());
+      assertEquals(Long.valueOf(Long.MAX_VALUE), msg.body());
+      eb.sendDouble("some-address3", 1.5d);
+    });
+    eb.<Double>consumer("some-address3", msg -> {
+      assertEquals(1.5d, msg.doubleBody(), 0d);
+      assertEquals(1, msg.intBody());
+      assertEquals(Double.valueOf(1.5d), msg.body());
+      testComplete();
+    });
+    eb.sendInt(ADDRESS1, 123);
+    await();
+  }
+
+  @Test
+  public void testPrimitiveAccessorsOfBoxedBody() {
+    eb.<Long>consumer(ADDRESS1, msg -> {
+      assertEquals(5, msg.intBody());
+      assertEquals(5L, msg.longBody());
+      assertEquals(5d, msg.doubleBody(), 0d);
+      testComplete();
+    });
+    eb.send(ADDRESS1, 5L);
+    await();
+  }
+
+  @Test
+  public void testLookupCodecFollowsDefaultCodecRegistration() {
+    CodecManager codecManager = new CodecManager();
+    MyReplyException body = new MyReplyException(0, "foo");
+    assertSame(CodecManager.REPLY_EXCEPTION_MESSAGE_CODEC, codecManager.lookupCodec(body, null));
+    MyReplyExceptionMessageCodec codec = new MyReplyExceptionMessageCodec();
+    codecManager.registerDefaultCodec(MyReplyException.class, codec);
+    assertSame(codec, codecManager.lookupCodec(body, null));
+    codecManager.unregisterDefaultCodec(MyReplyException.class);
+    assertSame(CodecManager.REPLY_EXCEPTION_MESSAGE_CODEC, codecManager.lookupCodec(body, null));
+  }
+
+  @Test
+  public void testAddressHandleFollowsRegistrations() {
+    AddressHandle handle = ((EventBusImpl) eb).addressHandle(ADDRESS1);
+    handle.send("no_handlers", new DeliveryOptions(), onFailure(err -> {
+      assertEquals(ReplyFailure.NO_HANDLERS, ((ReplyException) err).failureType());
+      MessageConsumer<String> consumer = eb.consumer(ADDRESS1, msg -> {
+        assertEquals("first", msg.body());
+        msg.reply("ok");
+      });
+      handle.send("first", new DeliveryOptions(), onSuccess(reply -> {
+        consumer.unregister(onSuccess(v -> {
+          eb.<String>consumer(ADDRESS1, msg -> {
+            assertEquals("second", msg.body());
+            testComplete();
+          });
+          handle.publish("second", new DeliveryOptions());
+        }));
+      }));
+    }));
+    await();
+  }
+
   @Test
   public void testSendMultipleAddresses() {
     String str = TestUtils.randomUnicodeString(100);
@@ -435,6 +702,116 @@ public class LocalEventBusTest extends EventBusTestBase {
     await();
   }
 
+  @Test
+  public void testSendWithTimeoutNoReplyAfterUndeploy() {
+    eb.<String>consumer(ADDRESS1).handler(msg -> {});
+    AtomicBoolean called = new AtomicBoolean();
+    vertx.deployVerticle(new AbstractVerticle() {
+      @Override
+      public void start() {
+        vertx.eventBus().send(ADDRESS1, "foo", new DeliveryOptions().setSendTimeout(200), ar -> called.set(true));
+      }
+    }, onSuccess(id -> {
+      vertx.undeploy(id, onSuccess(v -> {
+        vertx.setTimer(500, tid -> {
+          // The reply is dropped with its context
+          assertFalse(called.get());
+          testComplete();
+        });
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testSendWithTimeoutManyPendingReplies() {
+    int num = 1000;
+    eb.<String>consumer(ADDRESS1).handler(msg -> {
+      // Only reply to the even ones
+      if (Integer.parseInt(msg.body()) % 2 == 0) {
+        msg.reply(msg.body());
+      }
+    });
+    vertx.runOnContext(v -> {
+      Context ctx = vertx.getOrCreateContext();
+      AtomicInteger replies = new AtomicInteger();
+      AtomicInteger timeouts = new AtomicInteger();
+      for (int i = 0; i < num; i++) {
+        int val = i;
+        eb.send(ADDRESS1, "" + i, new DeliveryOptions().setSendTimeout(200), (AsyncResult<Message<String>> ar) -> {
+          assertSame(ctx, Vertx.currentContext());
+          if (ar.succeeded()) {
+            assertEquals(0, val % 2);
+            assertEquals("" + val, ar.result().body());
+            replies.incrementAndGet();
+          } else {
+            assertEquals(1, val % 2);
+            assertEquals(ReplyFailure.TIMEOUT, ((ReplyException) ar.cause()).failureType());
+            timeouts.incrementAndGet();
+          }
+          if (replies.get() + timeouts.get() == num) {
+            assertEquals(num / 2, replies.get());
+            assertEquals(num / 2, timeouts.get());
+            testComplete();
+          }
+        });
+      }
+    });
+    await();
+  }
+
+  @Test
+  public void testWildcardConsumerPublish() {
+    Set<String> received = new ConcurrentHashSet<>();
+    eb.<String>wildcardConsumer("orders.*.created", msg -> received.add("one:" + msg.body()));
+    eb.<String>wildcardConsumer("orders.#", msg -> received.add("all:" + msg.body()));
+    eb.<String>wildcardConsumer("orders.*", msg -> received.add("two:" + msg.body()));
+    eb.<String>consumer("orders.1.created", msg -> received.add("exact:" + msg.body()));
+    eb.publish("orders.1.created", "a");
+    eb.publish("orders.2.deleted", "b");
+    eb.publish("orders", "c");
+    eb.publish("orders.1", "d");
+    eb.publish("customers.1.created", "e");
+    waitUntil(() -> received.size() == 7);
+    assertEquals(new HashSet<>(Arrays.asList("one:a", "all:a", "exact:a", "all:b", "all:c", "all:d", "two:d")), received);
+  }
+
+  @Test
+  public void testWildcardConsumerSend() {
+    AtomicInteger exact = new AtomicInteger();
+    AtomicInteger specific = new AtomicInteger();
+    AtomicInteger any = new AtomicInteger();
+    eb.consumer("orders.1.created", msg -> exact.incrementAndGet());
+    eb.wildcardConsumer("orders.*.created", msg -> specific.incrementAndGet());
+    eb.wildcardConsumer("orders.#", msg -> any.incrementAndGet());
+    eb.send("orders.1.created", "a");
+    eb.send("orders.2.created", "b");
+    eb.send("orders.2.deleted", "c");
+    waitUntil(() -> exact.get() + specific.get() + any.get() == 3);
+    assertEquals(1, exact.get());
+    assertEquals(1, specific.get());
+    assertEquals(1, any.get());
+  }
+
+  @Test
+  public void testWildcardConsumerUnregister() {
+    MessageConsumer<String> consumer = eb.wildcardConsumer("orders.*.created", msg -> fail("Should not receive"));
+    consumer.unregister(onSuccess(v -> {
+      eb.send("orders.1.created", "a", onFailure(err -> {
+        assertEquals(ReplyFailure.NO_HANDLERS, ((ReplyException) err).failureType());
+        testComplete();
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testWildcardConsumerInvalidPattern() {
+    assertIllegalArgumentException(() -> eb.wildcardConsumer("orders.#.created"));
+    assertIllegalArgumentException(() -> eb.wildcardConsumer("orders..created"));
+    assertNullPointerException(() -> eb.wildcardConsumer(null));
+  }
+
   @Test
   public void testSendWithTimeoutNoHandlers() {
     String str = TestUtils.randomUnicodeString(1000);
@@ -591,6 +968,60 @@ public class LocalEventBusTest extends EventBusTestBase {
     await();
   }
 
+  @Test
+  public void testPublishSharedJsonObject() {
+    JsonObject sent = new JsonObject().put("foo", "bar").put("nested", new JsonObject().put("num", 1));
+    AtomicReference<JsonObject> received = new AtomicReference<>();
+    Handler<Message<JsonObject>> handler = msg -> {
+      JsonObject body = msg.body();
+      assertEquals(sent, body);
+      assertNotSame(sent, body);
+      assertUnsupportedOperationException(() -> body.put("foo", "juu"));
+      assertUnsupportedOperationException(() -> body.remove("foo"));
+      assertUnsupportedOperationException(() -> body.getJsonObject("nested").put("num", 2));
+      JsonObject copy = body.copy();
+      copy.getJsonObject("nested").put("num", 2);
+      assertEquals(1, (int) body.getJsonObject("nested").getInteger("num"));
+      if (!received.compareAndSet(null, body)) {
+        // Both consumers get the same view
+        assertSame(received.get(), body);
+        testComplete();
+      }
+    };
+    eb.consumer(ADDRESS1, handler);
+    eb.consumer(ADDRESS1, handler);
+    eb.publish(ADDRESS1, sent, new DeliveryOptions().setSharedBody(true));
+    await();
+  }
+
+  @Test
+  public void testPublishSharedBuffer() {
+    Buffer sent = TestUtils.randomBuffer(100);
+    AtomicInteger count = new AtomicInteger();
+    Handler<Message<Buffer>> handler = msg -> {
+      Buffer body = msg.body();
+      assertEquals(sent, body);
+      try {
+        body.appendByte((byte) 0);
+        fail("Should not be able to modify a shared buffer");
+      } catch (RuntimeException ignore) {
+      }
+      try {
+        body.setByte(0, (byte) 0);
+        fail("Should not be able to modify a shared buffer");
+      } catch (RuntimeException ignore) {
+      }
+      assertEquals(sent, body);
+      if (count.incrementAndGet() == 2) {
+        testComplete();
+      }
+    };
+    eb.consumer(ADDRESS1, handler);
+    eb.consumer(ADDRESS1, handler);
+    eb.publish(ADDRESS1, sent, new DeliveryOptions().setSharedBody(true));
+    await();
+  }
+
   @Test
   public void testPublishSameHandlerRegisteredTwice() {
     String str = TestUtils.randomUnicodeString(1000);
@@ -727,6 +1158,104 @@ public class LocalEventBusTest extends EventBusTestBase {
     await();
   }
 
+  @Test
+  public void testOrderedByKeyInWorkerVerticle() throws Exception {
+    int numKeys = 4;
+    int numMessages = 400;
+    Map<String, Integer> lastSeq = new ConcurrentHashMap<>();
+    AtomicInteger received = new AtomicInteger();
+    CountDownLatch deployed = new CountDownLatch(1);
+    vertx.deployVerticle(new AbstractVerticle() {
+      @Override
+      public void start() {
+        vertx.eventBus().<Integer>consumer(ADDRESS1).orderedBy("key", numKeys).handler(msg -> {
+          assertSame(context, Vertx.currentContext());
+          String key = msg.headers().get("key");
+          Integer prev = lastSeq.put(key, msg.body());
+          assertTrue(prev == null || prev < msg.body());
+          if (received.incrementAndGet() == numMessages) {
+            testComplete();
+          }
+        }).completionHandler(onSuccess(v -> deployed.countDown()));
+      }
+    }, new DeploymentOptions().setWorker(true));
+    awaitLatch(deployed);
+    for (int i = 0; i < numMessages; i++) {
+      eb.send(ADDRESS1, i, new DeliveryOptions().addHeader("key", "key-" + (i % numKeys)));
+    }
+    await();
+  }
+
+  @Test
+  public void testOrderedByKeyPauseResume() throws Exception {
+    int numKeys = 4;
+    int numMessages = 400;
+    Map<String, Integer> lastSeq = new ConcurrentHashMap<>();
+    AtomicInteger received = new AtomicInteger();
+    AtomicReference<MessageConsumer<Integer>> consumer = new AtomicReference<>();
+    CountDownLatch deployed = new CountDownLatch(1);
+    vertx.deployVerticle(new AbstractVerticle() {
+      @Override
+      public void start() {
+        consumer.set(vertx.eventBus().<Integer>consumer(ADDRESS1).orderedBy("key", numKeys).handler(msg -> {
+          String key = msg.headers().get("key");
+          Integer prev = lastSeq.put(key, msg.body());
+          // The messages buffered while paused are not handled by the lane of another key
+          assertTrue("Message " + msg.body() + " handled after " + prev, prev == null || prev < msg.body());
+          if (received.incrementAndGet() == numMessages) {
+            testComplete();
+          }
+        }));
+        consumer.get().completionHandler(onSuccess(v -> deployed.countDown()));
+      }
+    }, new DeploymentOptions().setWorker(true));
+    awaitLatch(deployed);
+    consumer.get().pause();
+    for (int i = 0; i < numMessages; i++) {
+      if (i == numMessages / 2) {
+        consumer.get().resume();
+      }
+      eb.send(ADDRESS1, i, new DeliveryOptions().addHeader("key", "key-" + (i % numKeys)));
+    }
+    await();
+  }
+
+  @Test
+  public void testOrderedByKeyHandlesKeysInParallel() throws Exception {
+    CountDownLatch otherKeyHandled = new CountDownLatch(1);
+    CountDownLatch deployed = new CountDownLatch(1);
+    vertx.deployVerticle(new AbstractVerticle() {
+      @Override
+      public void start() {
+        vertx.eventBus().<String>consumer(ADDRESS1).orderedBy(Message::body, 2).handler(msg -> {
+          if (msg.body().equals("a")) {
+            // Blocks its lane until the other key is handled on another lane
+            try {
+              assertTrue(otherKeyHandled.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+              fail(e);
+            }
+            testComplete();
+          } else {
+            otherKeyHandled.countDown();
+          }
+        }).completionHandler(onSuccess(v -> deployed.countDown()));
+      }
+    }, new DeploymentOptions().setWorker(true));
+    awaitLatch(deployed);
+    // "a" and "b" hash to distinct lanes
+    eb.send(ADDRESS1, "a");
+    eb.send(ADDRESS1, "b");
+    await();
+  }
+
+  @Test
+  public void testOrderedByAfterRegistration() {
+    MessageConsumer<String> consumer = eb.consumer(ADDRESS1, msg -> {});
+    assertIllegalStateException(() -> consumer.orderedBy("key", 2));
+    assertIllegalArgumentException(() -> eb.consumer(ADDRESS2).orderedBy("key", 0));
+  }
+
   @Test
   public void testContextsSend() throws Exception {
     Set<ContextImpl> contexts = new ConcurrentHashSet<>();
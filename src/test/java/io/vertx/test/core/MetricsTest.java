@@ -39,6 +39,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -52,6 +53,7 @@ import static org.hamcrest.core.Is.is;
 public class MetricsTest extends VertxTestBase {
 
   private static final String ADDRESS1 = "some-address1";
+  private static final String ADDRESS2 = "some-address2";
 
   @Override
   protected VertxOptions getOptions() {
@@ -409,6 +411,172 @@ public class MetricsTest extends VertxTestBase {
     await();
   }
 
+  @Test
+  public void testCompactWireProtocolIsSmaller() throws Exception {
+    startNodes(2);
+    FakeEventBusMetrics fromMetrics = FakeMetricsBase.getMetrics(vertices[0].eventBus());
+    DeliveryOptions options = new DeliveryOptions().addHeader("some-header", "some-value");
+    AtomicInteger firstSize = new AtomicInteger();
+    vertices[1].eventBus().consumer(ADDRESS1, msg -> msg.reply("pong")).completionHandler(onSuccess(v -> {
+      // The first message is written before the version of the protocol is negotiated
+      vertices[0].eventBus().send(ADDRESS1, "ping", options, onSuccess(reply1 -> {
+        firstSize.set(fromMetrics.getEncodedBytes(ADDRESS1));
+        vertices[0].eventBus().send(ADDRESS1, "ping", options, onSuccess(reply2 -> {
+          int secondSize = fromMetrics.getEncodedBytes(ADDRESS1) - firstSize.get();
+          assertTrue("Expected " + secondSize + " < " + firstSize.get(), secondSize < firstSize.get());
+          testComplete();
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testReplyAddressesAreNotInterned() throws Exception {
+    startNodes(2);
+    FakeEventBusMetrics fromMetrics = FakeMetricsBase.getMetrics(vertices[1].eventBus());
+    int num = 5000;
+    AtomicInteger firstSize = new AtomicInteger();
+    AtomicInteger received = new AtomicInteger();
+    CountDownLatch regLatch = new CountDownLatch(2);
+    vertices[1].eventBus().consumer(ADDRESS1, msg -> msg.reply("pong")).completionHandler(onSuccess(v -> regLatch.countDown()));
+    vertices[0].eventBus().consumer(ADDRESS2, msg -> {
+      if (received.incrementAndGet() == 1) {
+        firstSize.set(fromMetrics.getEncodedBytes(ADDRESS2));
+        vertices[1].eventBus().send(ADDRESS2, "ping");
+      } else {
+        // The address was interned by the first message even though more reply addresses than the connection can
+        // intern were written before
+        int secondSize = fromMetrics.getEncodedBytes(ADDRESS2) - firstSize.get();
+        assertTrue("Expected " + secondSize + " < " + firstSize.get(), secondSize < firstSize.get());
+        testComplete();
+      }
+    }).completionHandler(onSuccess(v -> regLatch.countDown()));
+    awaitLatch(regLatch);
+    AtomicInteger replies = new AtomicInteger();
+    for (int i = 0; i < num; i++) {
+      vertices[0].eventBus().send(ADDRESS1, "ping", onSuccess(reply -> {
+        if (replies.incrementAndGet() == num) {
+          vertices[1].eventBus().send(ADDRESS2, "ping");
+        }
+      }));
+    }
+    await();
+  }
+
+  @Test
+  public void testCompressedMessages() throws Exception {
+    VertxOptions options = getOptions();
+    options.getEventBusOptions().setCompressionThreshold(100);
+    startNodes(2, options);
+    FakeEventBusMetrics fromMetrics = FakeMetricsBase.getMetrics(vertices[0].eventBus());
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      sb.append("some-value-");
+    }
+    String value = sb.toString();
+    vertices[1].eventBus().<String>consumer(ADDRESS1, msg -> {
+      assertEquals(value, msg.body());
+      assertEquals("some-header-value", msg.headers().get("some-header"));
+      msg.reply("pong");
+    }).completionHandler(onSuccess(v -> {
+      DeliveryOptions deliveryOptions = new DeliveryOptions().addHeader("some-header", "some-header-value");
+      // The first message is written before the version of the protocol is negotiated
+      vertices[0].eventBus().send(ADDRESS1, value, deliveryOptions, onSuccess(reply1 -> {
+        int firstSize = fromMetrics.getEncodedBytes(ADDRESS1);
+        assertTrue(firstSize > value.length());
+        vertices[0].eventBus().send(ADDRESS1, value, deliveryOptions, onSuccess(reply2 -> {
+          int secondSize = fromMetrics.getEncodedBytes(ADDRESS1) - firstSize;
+          assertTrue("Expected " + secondSize + " < 1000", secondSize < 1000);
+          assertEquals(1, fromMetrics.getCompressedMessages());
+          testComplete();
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testPublishedPayloadIsEncodedOnce() throws Exception {
+    VertxOptions options = getOptions();
+    options.getEventBusOptions().setCompressionThreshold(100);
+    startNodes(4, options);
+    FakeEventBusMetrics fromMetrics = FakeMetricsBase.getMetrics(vertices[0].eventBus());
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      sb.append("some-value-");
+    }
+    String value = sb.toString();
+    CountDownLatch regLatch = new CountDownLatch(6);
+    AtomicInteger received = new AtomicInteger();
+    for (int i = 1; i < 4; i++) {
+      vertices[i].eventBus().consumer("node-" + i, msg -> msg.reply("pong")).completionHandler(onSuccess(v -> regLatch.countDown()));
+      vertices[i].eventBus().<String>consumer(ADDRESS1, msg -> {
+        assertEquals(value, msg.body());
+        if (received.incrementAndGet() == 3) {
+          // Compressed once for the three nodes
+          assertEquals(1, fromMetrics.getCompressedMessages());
+          testComplete();
+        }
+      }).completionHandler(onSuccess(v -> regLatch.countDown()));
+    }
+    awaitLatch(regLatch);
+    // The first messages of the connections are written before the version of the protocol is negotiated
+    CountDownLatch connectLatch = new CountDownLatch(3);
+    for (int i = 1; i < 4; i++) {
+      vertices[0].eventBus().send("node-" + i, "ping", onSuccess(reply -> connectLatch.countDown()));
+    }
+    awaitLatch(connectLatch);
+    assertEquals(0, fromMetrics.getCompressedMessages());
+    vertices[0].eventBus().publish(ADDRESS1, value);
+    await();
+  }
+
+  @Test
+  public void testBusyClusterConnectionsArePinged() throws Exception {
+    VertxOptions options = getOptions().setClusterPingInterval(200).setClusterPingReplyInterval(1000);
+    startNodes(2, options);
+    FakeEventBusMetrics toMetrics = FakeMetricsBase.getMetrics(vertices[1].eventBus());
+    AtomicInteger pingBytes = new AtomicInteger();
+    AtomicInteger received = new AtomicInteger();
+    vertices[1].eventBus().consumer(ADDRESS1, msg -> {
+      if (received.getAndIncrement() == 0) {
+        // The first ping negotiates the protocol, it is read before the first message
+        pingBytes.set(toMetrics.getDecodedBytes("__vertx_ping"));
+        assertTrue(pingBytes.get() > 0);
+      }
+    }).completionHandler(onSuccess(v -> {
+      long timerID = vertices[0].setPeriodic(20, id -> vertices[0].eventBus().send(ADDRESS1, "msg"));
+      vertices[0].setTimer(1000, id -> {
+        vertices[0].cancelTimer(timerID);
+        // The writes don't show the peer is alive, the busy connection is pinged every ping interval
+        assertTrue(toMetrics.getDecodedBytes("__vertx_ping") >= 3 * pingBytes.get());
+        testComplete();
+      });
+    }));
+    await();
+  }
+
+  @Test
+  public void testClusteredWritesAreBatched() throws Exception {
+    startNodes(2);
+    int num = 100;
+    FakeEventBusMetrics fromMetrics = FakeMetricsBase.getMetrics(vertices[0].eventBus());
+    AtomicInteger received = new AtomicInteger();
+    vertices[1].eventBus().consumer(ADDRESS1, msg -> {
+      if (received.incrementAndGet() == num) {
+        testComplete();
+      }
+    }).completionHandler(onSuccess(v -> {
+      for (int i = 0; i < num; i++) {
+        vertices[0].eventBus().send(ADDRESS1, "msg-" + i);
+      }
+    }));
+    await();
+    waitUntil(() -> fromMetrics.getBatchedMessages() == num);
+    assertEquals(fromMetrics.getEncodedBytes(ADDRESS1), fromMetrics.getBatchedBytes());
+  }
+
   @Test
   public void testReplyFailureNoHandlers() throws Exception {
     CountDownLatch latch = new CountDownLatch(1);
@@ -1042,6 +1210,35 @@ public class MetricsTest extends VertxTestBase {
     assertEquals(metrics.numberOfWaitingTasks(), 0);
   }
 
+  @Test
+  public void testWorkStealingPoolMetrics() throws Exception {
+    vertx.close(); // Close the instance automatically created
+    vertx = Vertx.vertx(new VertxOptions().setWorkerPoolWorkStealing(true).setMetricsOptions(new MetricsOptions().setEnabled(true).setFactory(new FakeMetricsFactory())));
+    WorkerExecutor workerExec = vertx.createSharedWorkerExecutor("vert.x-my-pool", 4);
+    FakePoolMetrics metrics = (FakePoolMetrics) FakePoolMetrics.getPoolMetrics().get("vert.x-my-pool");
+    int num = 10;
+    CountDownLatch latch = new CountDownLatch(num);
+    workerExec.executeBlocking(fut -> {
+      // The tasks are queued to this thread which is blocked, so the other threads have to steal them
+      for (int i = 0; i < num; i++) {
+        workerExec.executeBlocking(fut2 -> {
+          latch.countDown();
+          fut2.complete();
+        }, false, null);
+      }
+      try {
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+      } catch (InterruptedException e) {
+        fail(e);
+      }
+      fut.complete();
+    }, false, onSuccess(v -> testComplete()));
+    await();
+    assertEquals(num + 1, metrics.numberOfTakenTasks());
+    assertEquals(num, metrics.numberOfStolenTasks());
+    waitUntil(() -> metrics.numberOfCompletedTasks() == num + 1);
+  }
+
   @Test
   public void testWorkerPoolClose() {
     WorkerExecutor ex1 = vertx.createSharedWorkerExecutor("ex1");
@@ -308,6 +308,19 @@ public class TestUtils {
     }
   }
   
+  /**
+   * Asserts that an UnsupportedOperationException is thrown by the code block.
+   * @param runnable code block to execute
+   */
+  public static void assertUnsupportedOperationException(Runnable runnable) {
+    try {
+      runnable.run();
+      fail("Should throw UnsupportedOperationException");
+    } catch (UnsupportedOperationException e) {
+      // OK
+    }
+  }
+
   /**
    * @param source
    * @return gzipped data
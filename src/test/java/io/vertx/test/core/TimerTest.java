@@ -17,12 +17,15 @@
 package io.vertx.test.core;
 
 import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Context;
 import io.vertx.core.Handler;
 import io.vertx.core.TimeoutStream;
 import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
 import io.vertx.core.streams.ReadStream;
 import org.junit.Test;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -86,6 +89,66 @@ public class TimerTest extends VertxTestBase {
     await();
   }
 
+  @Test
+  public void testTimerWheel() throws Exception {
+    vertx.close();
+    vertx = Vertx.vertx(new VertxOptions().setTimerWheelEnabled(true));
+    int num = 100;
+    AtomicInteger fired = new AtomicInteger();
+    Context ctx = vertx.getOrCreateContext();
+    ctx.runOnContext(v -> {
+      for (int i = 0; i < num; i++) {
+        // Some timers are moved from the upper level of the wheel
+        long delay = 1 + i * 7;
+        long start = System.nanoTime();
+        long id = vertx.setTimer(delay, timerID -> {
+          assertSame(ctx, Vertx.currentContext());
+          assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(delay));
+          if (fired.incrementAndGet() == num / 2) {
+            vertx.setTimer(50, id2 -> testComplete());
+          }
+        });
+        if (i % 2 == 1) {
+          assertTrue(vertx.cancelTimer(id));
+          assertFalse(vertx.cancelTimer(id));
+        }
+      }
+    });
+    await();
+    assertEquals(num / 2, fired.get());
+  }
+
+  @Test
+  public void testTimerWheelUpperLevelTimerNotLate() throws Exception {
+    vertx.close();
+    vertx = Vertx.vertx(new VertxOptions().setTimerWheelEnabled(true));
+    Context ctx = vertx.getOrCreateContext();
+    ctx.runOnContext(v -> {
+      long start = System.nanoTime();
+      // In the upper level of the wheel until the end of the first turn of level 0
+      long delay = 513;
+      vertx.setTimer(delay, id -> {
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsed >= delay);
+        // It is not run with the timer of level 0 that expires after it
+        assertTrue("Timer late by " + (elapsed - delay) + " ms", elapsed < delay + 25);
+        testComplete();
+      });
+      vertx.setTimer(300, id -> {
+        // In level 0, after the timer of the upper level
+        vertx.setTimer(255, id2 -> {});
+      });
+    });
+    await();
+  }
+
+  @Test
+  public void testTimerWheelPeriodicFromAnotherThread() throws Exception {
+    vertx.close();
+    vertx = Vertx.vertx(new VertxOptions().setTimerWheelEnabled(true));
+    periodic(10);
+  }
+
   private void periodic(long delay) throws Exception {
     final int numFires = 10;
     final AtomicLong id = new AtomicLong(-1);
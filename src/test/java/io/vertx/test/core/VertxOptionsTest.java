@@ -19,6 +19,7 @@ package io.vertx.test.core;
 import io.vertx.core.VertxOptions;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.metrics.MetricsOptions;
+import io.vertx.core.spi.ThreadAffinity;
 import io.vertx.core.spi.cluster.ClusterManager;
 import io.vertx.test.fakecluster.FakeClusterManager;
 import org.junit.Test;
@@ -161,6 +162,29 @@ public class VertxOptionsTest extends VertxTestBase {
     assertFalse(options.isHAEnabled());
     assertEquals(options, options.setHAEnabled(true));
     assertTrue(options.isHAEnabled());
+    assertFalse(options.isTimerWheelEnabled());
+    assertEquals(options, options.setTimerWheelEnabled(true));
+    assertTrue(options.isTimerWheelEnabled());
+    assertFalse(options.isWorkerPoolElastic());
+    assertEquals(options, options.setWorkerPoolElastic(true));
+    assertTrue(options.isWorkerPoolElastic());
+    assertEquals(VertxOptions.DEFAULT_WORKER_POOL_MAX_SIZE, options.getWorkerPoolMaxSize());
+    rand = TestUtils.randomPositiveInt();
+    assertEquals(options, options.setWorkerPoolMaxSize(rand));
+    assertEquals(rand, options.getWorkerPoolMaxSize());
+    try {
+      options.setWorkerPoolMaxSize(0);
+      fail("Should throw exception");
+    } catch (IllegalArgumentException e) {
+      // OK
+    }
+    assertFalse(options.isWorkerPoolWorkStealing());
+    assertEquals(options, options.setWorkerPoolWorkStealing(true));
+    assertTrue(options.isWorkerPoolWorkStealing());
+    ThreadAffinity threadAffinity = (thread, pool, index) -> {};
+    assertNull(options.getThreadAffinity());
+    assertEquals(options, options.setThreadAffinity(threadAffinity));
+    assertSame(threadAffinity, options.getThreadAffinity());
     rand = TestUtils.randomPositiveInt();
     assertEquals(1, options.getQuorumSize());
     assertEquals(options, options.setQuorumSize(rand));
@@ -218,6 +242,10 @@ public class VertxOptionsTest extends VertxTestBase {
     int maxWorkerExecuteTime = TestUtils.randomPositiveInt();
     Random rand = new Random();
     boolean haEnabled = rand.nextBoolean();
+    boolean timerWheelEnabled = rand.nextBoolean();
+    boolean workerPoolElastic = rand.nextBoolean();
+    int workerPoolMaxSize = TestUtils.randomPositiveInt();
+    boolean workerPoolWorkStealing = rand.nextBoolean();
     boolean metricsEnabled = rand.nextBoolean();
     int quorumSize = 51214;
     String haGroup = TestUtils.randomAlphaString(100);
@@ -241,6 +269,12 @@ public class VertxOptionsTest extends VertxTestBase {
         new MetricsOptions().
             setEnabled(metricsEnabled));
     options.setWarningExceptionTime(warningExceptionTime);
+    options.setTimerWheelEnabled(timerWheelEnabled);
+    options.setWorkerPoolElastic(workerPoolElastic);
+    options.setWorkerPoolMaxSize(workerPoolMaxSize);
+    options.setWorkerPoolWorkStealing(workerPoolWorkStealing);
+    ThreadAffinity threadAffinity = (thread, pool, index) -> {};
+    options.setThreadAffinity(threadAffinity);
     options = new VertxOptions(options);
     assertEquals(clusterPort, options.getClusterPort());
     assertEquals(clusterPublicPort, options.getClusterPublicPort());
@@ -261,6 +295,11 @@ public class VertxOptionsTest extends VertxTestBase {
     assertNotNull(metricsOptions);
     assertEquals(metricsEnabled, metricsOptions.isEnabled());
     assertEquals(warningExceptionTime, options.getWarningExceptionTime());
+    assertEquals(timerWheelEnabled, options.isTimerWheelEnabled());
+    assertEquals(workerPoolElastic, options.isWorkerPoolElastic());
+    assertEquals(workerPoolMaxSize, options.getWorkerPoolMaxSize());
+    assertEquals(workerPoolWorkStealing, options.isWorkerPoolWorkStealing());
+    assertSame(threadAffinity, options.getThreadAffinity());
   }
 
   @Test
@@ -283,6 +322,10 @@ public class VertxOptionsTest extends VertxTestBase {
     assertEquals(def.getQuorumSize(), json.getQuorumSize());
     assertEquals(def.getHAGroup(), json.getHAGroup());
     assertEquals(def.getWarningExceptionTime(), json.getWarningExceptionTime());
+    assertEquals(def.isTimerWheelEnabled(), json.isTimerWheelEnabled());
+    assertEquals(def.isWorkerPoolElastic(), json.isWorkerPoolElastic());
+    assertEquals(def.getWorkerPoolMaxSize(), json.getWorkerPoolMaxSize());
+    assertEquals(def.isWorkerPoolWorkStealing(), json.isWorkerPoolWorkStealing());
   }
 
   @Test
@@ -300,6 +343,7 @@ public class VertxOptionsTest extends VertxTestBase {
     assertEquals("localhost", options.getClusterHost());
     assertNull(options.getClusterPublicHost());
     assertEquals(null, options.getClusterManager());
+    assertNull(options.getThreadAffinity());
     assertEquals(2000l * 1000000, options.getMaxEventLoopExecuteTime());
     assertEquals(1l * 60 * 1000 * 1000000, options.getMaxWorkerExecuteTime());
     assertFalse(options.isHAEnabled());
@@ -323,6 +367,10 @@ public class VertxOptionsTest extends VertxTestBase {
     long warningExceptionTime = TestUtils.randomPositiveLong();
     Random rand = new Random();
     boolean haEnabled = rand.nextBoolean();
+    boolean timerWheelEnabled = rand.nextBoolean();
+    boolean workerPoolElastic = rand.nextBoolean();
+    int workerPoolMaxSize = TestUtils.randomPositiveInt();
+    boolean workerPoolWorkStealing = rand.nextBoolean();
     int quorumSize = TestUtils.randomShort() + 1;
     String haGroup = TestUtils.randomAlphaString(100);
     boolean metricsEnabled = rand.nextBoolean();
@@ -346,6 +394,10 @@ public class VertxOptionsTest extends VertxTestBase {
         put("quorumSize", quorumSize).
         put("haGroup", haGroup).
         put("warningExceptionTime", warningExceptionTime).
+        put("timerWheelEnabled", timerWheelEnabled).
+        put("workerPoolElastic", workerPoolElastic).
+        put("workerPoolMaxSize", workerPoolMaxSize).
+        put("workerPoolWorkStealing", workerPoolWorkStealing).
         put("metricsOptions", new JsonObject().
             put("enabled", metricsEnabled).
             put("jmxEnabled", jmxEnabled).
@@ -362,6 +414,7 @@ public class VertxOptionsTest extends VertxTestBase {
     assertEquals(blockedThreadCheckInterval, options.getBlockedThreadCheckInterval());
     assertEquals(clusterHost, options.getClusterHost());
     assertEquals(null, options.getClusterManager());
+    assertNull(options.getThreadAffinity());
     assertEquals(maxEventLoopExecuteTime, options.getMaxEventLoopExecuteTime());
     assertEquals(maxWorkerExecuteTime, options.getMaxWorkerExecuteTime());
     assertEquals(haEnabled, options.isHAEnabled());
@@ -370,5 +423,9 @@ public class VertxOptionsTest extends VertxTestBase {
     MetricsOptions metricsOptions = options.getMetricsOptions();
     assertEquals(metricsEnabled, metricsOptions.isEnabled());
     assertEquals(warningExceptionTime, options.getWarningExceptionTime());
+    assertEquals(timerWheelEnabled, options.isTimerWheelEnabled());
+    assertEquals(workerPoolElastic, options.isWorkerPoolElastic());
+    assertEquals(workerPoolMaxSize, options.getWorkerPoolMaxSize());
+    assertEquals(workerPoolWorkStealing, options.isWorkerPoolWorkStealing());
   }
 }
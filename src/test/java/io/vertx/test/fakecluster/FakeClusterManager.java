@@ -51,6 +51,7 @@ public class FakeClusterManager implements ClusterManager {
   private static List<NodeListener> nodeListeners = new CopyOnWriteArrayList<>();
   private static ConcurrentMap<String, ConcurrentMap> asyncMaps = new ConcurrentHashMap<>();
   private static ConcurrentMap<String, ConcurrentMap> asyncMultiMaps = new ConcurrentHashMap<>();
+  private static ConcurrentMap<String, List<Handler>> asyncMultiMapChangeHandlers = new ConcurrentHashMap<>();
   private static ConcurrentMap<String, Map> syncMaps = new ConcurrentHashMap<>();
   private static ConcurrentMap<String, AsynchronousLock> locks = new ConcurrentHashMap<>();
   private static ConcurrentMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
@@ -106,7 +107,7 @@ public class FakeClusterManager implements ClusterManager {
       }
     }
     ConcurrentMap<K, ChoosableSet<V>> theMap = map;
-    vertx.runOnContext(v -> resultHandler.handle(Future.succeededFuture(new FakeAsyncMultiMap<>(theMap))));
+    vertx.runOnContext(v -> resultHandler.handle(Future.succeededFuture(new FakeAsyncMultiMap<>(name, theMap))));
   }
 
   @Override
@@ -209,6 +210,7 @@ public class FakeClusterManager implements ClusterManager {
     nodeListeners.clear();
     asyncMaps.clear();
     asyncMultiMaps.clear();
+    asyncMultiMapChangeHandlers.clear();
     locks.clear();
     counters.clear();
     syncMaps.clear();
@@ -312,13 +314,38 @@ public class FakeClusterManager implements ClusterManager {
 
   private class FakeAsyncMultiMap<K, V> implements AsyncMultiMap<K, V> {
 
-
+    private final String name;
     private final ConcurrentMap<K, ChoosableSet<V>> map;
 
-    public FakeAsyncMultiMap(ConcurrentMap<K, ChoosableSet<V>> map) {
+    public FakeAsyncMultiMap(String name, ConcurrentMap<K, ChoosableSet<V>> map) {
+      this.name = name;
       this.map = map;
     }
 
+    @Override
+    public boolean changeHandler(Handler<K> handler) {
+      asyncMultiMapChangeHandlers.computeIfAbsent(name, n -> new CopyOnWriteArrayList<>()).add(handler);
+      return true;
+    }
+
+    @Override
+    public void removeChangeHandler(Handler<K> handler) {
+      List<Handler> handlers = asyncMultiMapChangeHandlers.get(name);
+      if (handlers != null) {
+        handlers.remove(handler);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void changed(K k) {
+      List<Handler> handlers = asyncMultiMapChangeHandlers.get(name);
+      if (handlers != null) {
+        for (Handler handler : handlers) {
+          handler.handle(k);
+        }
+      }
+    }
+
     @Override
     public void add(final K k, final V v, Handler<AsyncResult<Void>> completionHandler) {
       vertx.executeBlocking(fut -> {
@@ -331,6 +358,7 @@ public class FakeClusterManager implements ClusterManager {
           }
         }
         vals.add(v);
+        changed(k);
         fut.complete();
       }, completionHandler);
     }
@@ -360,6 +388,9 @@ public class FakeClusterManager implements ClusterManager {
               found = true;
             }
           }
+          if (found) {
+            changed(k);
+          }
           fut.complete(found);
         }, completionHandler);
     }
@@ -382,6 +413,7 @@ public class FakeClusterManager implements ClusterManager {
             mapIter.remove();
           }
         }
+        changed(null);
         fut.complete();
       }, completionHandler);
     }
@@ -39,6 +39,9 @@ public class FakeEventBusMetrics extends FakeMetricsBase implements EventBusMetr
   private final Map<String, AtomicInteger> decoded = new ConcurrentHashMap<>();
   private final List<String> replyFailureAddresses = Collections.synchronizedList(new ArrayList<>());
   private final List<ReplyFailure> replyFailures = Collections.synchronizedList(new ArrayList<>());
+  private final AtomicInteger batchedMessages = new AtomicInteger();
+  private final AtomicInteger batchedBytes = new AtomicInteger();
+  private final AtomicInteger compressedMessages = new AtomicInteger();
 
   public FakeEventBusMetrics(EventBus eventBus) {
     super(eventBus);
@@ -72,6 +75,18 @@ public class FakeEventBusMetrics extends FakeMetricsBase implements EventBusMetr
     return replyFailures;
   }
 
+  public int getBatchedMessages() {
+    return batchedMessages.get();
+  }
+
+  public int getBatchedBytes() {
+    return batchedBytes.get();
+  }
+
+  public int getCompressedMessages() {
+    return compressedMessages.get();
+  }
+
   public int getEncodedBytes(String address) {
     AtomicInteger value = encoded.get(address);
     return value != null ? value.get() : 0;
@@ -146,6 +161,17 @@ public class FakeEventBusMetrics extends FakeMetricsBase implements EventBusMetr
     value.addAndGet(numberOfBytes);
   }
 
+  @Override
+  public void messageBatchWritten(int numberOfMessages, int numberOfBytes) {
+    batchedMessages.addAndGet(numberOfMessages);
+    batchedBytes.addAndGet(numberOfBytes);
+  }
+
+  @Override
+  public void messageCompressed(String address, int numberOfBytes, int numberOfCompressedBytes) {
+    compressedMessages.incrementAndGet();
+  }
+
   public void replyFailure(String address, ReplyFailure failure) {
     replyFailureAddresses.add(address);
     replyFailures.add(failure);
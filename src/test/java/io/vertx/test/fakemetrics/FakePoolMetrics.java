@@ -38,6 +38,8 @@ public class FakePoolMetrics implements PoolMetrics<Void> {
   private final AtomicInteger idle = new AtomicInteger();
   private final AtomicInteger waiting = new AtomicInteger();
   private final AtomicInteger running = new AtomicInteger();
+  private final AtomicInteger taken = new AtomicInteger();
+  private final AtomicInteger stolen = new AtomicInteger();
   private final String name;
   private final AtomicBoolean closed = new AtomicBoolean();
 
@@ -81,6 +83,14 @@ public class FakePoolMetrics implements PoolMetrics<Void> {
     completed.incrementAndGet();
   }
 
+  @Override
+  public void taken(int queueSize, boolean stolen) {
+    taken.incrementAndGet();
+    if (stolen) {
+      this.stolen.incrementAndGet();
+    }
+  }
+
   @Override
   public boolean isEnabled() {
     return true;
@@ -116,6 +126,14 @@ public class FakePoolMetrics implements PoolMetrics<Void> {
     return running.get();
   }
 
+  public int numberOfTakenTasks() {
+    return taken.get();
+  }
+
+  public int numberOfStolenTasks() {
+    return stolen.get();
+  }
+
   public static Map<String, PoolMetrics> getPoolMetrics() {
     return METRICS;
   }